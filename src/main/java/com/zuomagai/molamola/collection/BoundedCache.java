@@ -0,0 +1,603 @@
+package com.zuomagai.molamola.collection;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrent cache bounded by entry count or total weight, evicting with W-TinyLFU: new entries
+ * enter a small LRU window, and an entry leaving the window only displaces the least recently used
+ * entry of the main segmented LRU if a frequency sketch says it is more popular. Entries may also
+ * expire a fixed time after they were written.
+ * <p>
+ * Lookups go straight to a {@link ConcurrentHashMap}; accesses are recorded in striped lossy ring
+ * buffers and replayed against the eviction policy in batches under a single lock, so readers
+ * never wait on each other. Null keys and values are not permitted.
+ */
+public final class BoundedCache<K, V> {
+
+    public interface Weigher<K, V> {
+
+        /**
+         * Returns the non-negative weight of an entry; evaluated once when the entry is written.
+         */
+        int weigh(K key, V value);
+    }
+
+    private static final int NEW = 0;
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
+    private static final int DEAD = 4;
+    private static final int INITIAL_SKETCH_SIZE = 256;
+
+    private final ConcurrentHashMap<K, Node<K, V>> map;
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final ReadBuffer<K, V> readBuffer = new ReadBuffer<>();
+    private final FrequencySketch sketch;
+    private final AccessDeque<K, V> window = new AccessDeque<>();
+    private final AccessDeque<K, V> probation = new AccessDeque<>();
+    private final AccessDeque<K, V> protectedQueue = new AccessDeque<>();
+    private final WriteDeque<K, V> writeOrder = new WriteDeque<>();
+    private final Weigher<? super K, ? super V> weigher;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final long expireAfterWriteNanos;
+    private final LongSupplier ticker;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong generation = new AtomicLong();
+    // Guarded by evictionLock.
+    private long weightedSize;
+    private long windowWeight;
+    private long protectedWeight;
+
+    private BoundedCache(Builder<K, V> builder) {
+        this.weigher = builder.weigher;
+        this.maximumWeight = builder.maximumWeight;
+        this.windowMaximum = Math.max(1L, maximumWeight / 100);
+        this.protectedMaximum = (maximumWeight - windowMaximum) * 8 / 10;
+        this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+        this.ticker = builder.ticker;
+        int initialSize = weigher == null ? (int) Math.min(maximumWeight, INITIAL_SKETCH_SIZE) : INITIAL_SKETCH_SIZE;
+        this.map = new ConcurrentHashMap<>(initialSize);
+        // Starts small and grows with the map, so a large maximum does not allocate up front.
+        this.sketch = new FrequencySketch(initialSize);
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Returns the cached value, or null if the key is absent or expired.
+     */
+    public V get(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (isExpired(node, now())) {
+            misses.increment();
+            tryMaintenance();
+            return null;
+        }
+        hits.increment();
+        if (!readBuffer.offer(node)) {
+            tryMaintenance();
+        }
+        return node.value;
+    }
+
+    /**
+     * Returns the cached value, loading and caching it on a miss. Concurrent callers for the same key
+     * wait for a single load. The loader must not access this cache; returning null caches nothing.
+     * A value whose load overlapped {@link #invalidateAll()} is returned but not cached.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        if (loader == null) {
+            throw new IllegalArgumentException("loader must not be null");
+        }
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        long now = now();
+        long startGeneration = generation.get();
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node<K, V>[] written = new Node[2];
+        @SuppressWarnings("unchecked")
+        V[] discarded = (V[]) new Object[1];
+        Node<K, V> node = map.compute(key, (k, existing) -> {
+            if (existing != null && !isExpired(existing, now)) {
+                return existing;
+            }
+            V loaded = loader.apply(k);
+            if (loaded == null) {
+                return existing;
+            }
+            if (generation.get() != startGeneration) {
+                discarded[0] = loaded;
+                return existing;
+            }
+            written[0] = newNode(k, loaded, now);
+            written[1] = existing;
+            return written[0];
+        });
+        if (written[0] != null) {
+            afterWrite(written[0], written[1]);
+            return written[0].value;
+        }
+        if (discarded[0] != null) {
+            return discarded[0];
+        }
+        return node == null || isExpired(node, now) ? null : node.value;
+    }
+
+    public void put(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("key and value must not be null");
+        }
+        Node<K, V> node = newNode(key, value, now());
+        afterWrite(node, map.put(key, node));
+    }
+
+    public void invalidate(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        Node<K, V> node = map.remove(key);
+        if (node != null) {
+            evictionLock.lock();
+            try {
+                unlink(node);
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        // Loads already in flight may have read state this call is meant to discard.
+        generation.incrementAndGet();
+        evictionLock.lock();
+        try {
+            for (Node<K, V> node : map.values()) {
+                if (map.remove(node.key, node)) {
+                    unlink(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Replays pending accesses and removes expired entries; this otherwise happens as a side effect
+     * of reads and writes.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Number of mappings, possibly including expired entries that have not been cleaned up yet.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    public long getWeightedSize() {
+        evictionLock.lock();
+        try {
+            return weightedSize;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0D : (double) hitCount / total;
+    }
+
+    /**
+     * Number of entries removed to respect the size or weight bound; expirations are not counted.
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    private Node<K, V> newNode(K key, V value, long now) {
+        int weight = 1;
+        if (weigher != null) {
+            weight = weigher.weigh(key, value);
+            if (weight < 0) {
+                throw new IllegalArgumentException("weight must be >= 0");
+            }
+        }
+        return new Node<>(key, value, weight, now);
+    }
+
+    private void afterWrite(Node<K, V> node, Node<K, V> replaced) {
+        evictionLock.lock();
+        try {
+            if (replaced != null) {
+                unlink(replaced);
+            }
+            if (node.queue == NEW) {
+                node.queue = WINDOW;
+                window.addLast(node);
+                windowWeight += node.weight;
+                weightedSize += node.weight;
+                if (expireAfterWriteNanos > 0) {
+                    writeOrder.addLast(node);
+                }
+                sketch.ensureCapacity(weigher == null ? (int) Math.min(map.size(), maximumWeight) : map.size());
+                sketch.increment(node.key);
+            }
+            maintenance();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private void tryMaintenance() {
+        if (evictionLock.tryLock()) {
+            try {
+                maintenance();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void maintenance() {
+        readBuffer.drain(this);
+        expire();
+        evict();
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToBack(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                protectedQueue.addLast(node);
+                node.queue = PROTECTED;
+                protectedWeight += node.weight;
+                while (protectedWeight > protectedMaximum) {
+                    Node<K, V> demoted = protectedQueue.first;
+                    protectedQueue.remove(demoted);
+                    protectedWeight -= demoted.weight;
+                    probation.addLast(demoted);
+                    demoted.queue = PROBATION;
+                }
+                break;
+            case PROTECTED:
+                protectedQueue.moveToBack(node);
+                break;
+            default:
+                return;
+        }
+        sketch.increment(node.key);
+    }
+
+    private void expire() {
+        if (expireAfterWriteNanos <= 0) {
+            return;
+        }
+        long now = now();
+        Node<K, V> node;
+        while ((node = writeOrder.first) != null && isExpired(node, now)) {
+            map.remove(node.key, node);
+            unlink(node);
+        }
+    }
+
+    private void evict() {
+        // Entries pushed out of the window are appended to probation and become admission candidates.
+        Node<K, V> candidate = null;
+        while (windowWeight > windowMaximum) {
+            Node<K, V> node = window.first;
+            window.remove(node);
+            windowWeight -= node.weight;
+            probation.addLast(node);
+            node.queue = PROBATION;
+            if (candidate == null) {
+                candidate = node;
+            }
+        }
+        while (weightedSize > maximumWeight) {
+            Node<K, V> victim = probation.first != null ? probation.first : protectedQueue.first;
+            if (victim == null) {
+                victim = window.first;
+            } else if (candidate != null && candidate != victim
+                    && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                victim = candidate;
+            }
+            if (victim == candidate) {
+                candidate = candidate.next;
+            }
+            map.remove(victim.key, victim);
+            unlink(victim);
+            evictions.increment();
+        }
+    }
+
+    private void unlink(Node<K, V> node) {
+        switch (node.queue) {
+            case NEW:
+                node.queue = DEAD;
+                return;
+            case DEAD:
+                return;
+            case WINDOW:
+                window.remove(node);
+                windowWeight -= node.weight;
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            default:
+                protectedQueue.remove(node);
+                protectedWeight -= node.weight;
+                break;
+        }
+        weightedSize -= node.weight;
+        if (expireAfterWriteNanos > 0) {
+            writeOrder.remove(node);
+        }
+        node.queue = DEAD;
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos;
+    }
+
+    private long now() {
+        return expireAfterWriteNanos > 0 ? ticker.getAsLong() : 0L;
+    }
+
+    private static final class Node<K, V> {
+
+        final K key;
+        final V value;
+        final int weight;
+        final long writeTime;
+        // Guarded by evictionLock.
+        int queue = NEW;
+        Node<K, V> prev;
+        Node<K, V> next;
+        Node<K, V> prevWrite;
+        Node<K, V> nextWrite;
+
+        Node(K key, V value, int weight, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+
+    private static final class AccessDeque<K, V> {
+
+        Node<K, V> first;
+        Node<K, V> last;
+
+        void addLast(Node<K, V> node) {
+            node.prev = last;
+            node.next = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.next = node;
+            }
+            last = node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prev == null) {
+                first = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                last = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToBack(Node<K, V> node) {
+            if (node != last) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    private static final class WriteDeque<K, V> {
+
+        Node<K, V> first;
+        Node<K, V> last;
+
+        void addLast(Node<K, V> node) {
+            node.prevWrite = last;
+            node.nextWrite = null;
+            if (last == null) {
+                first = node;
+            } else {
+                last.nextWrite = node;
+            }
+            last = node;
+        }
+
+        void remove(Node<K, V> node) {
+            if (node.prevWrite == null) {
+                first = node.nextWrite;
+            } else {
+                node.prevWrite.nextWrite = node.nextWrite;
+            }
+            if (node.nextWrite == null) {
+                last = node.prevWrite;
+            } else {
+                node.nextWrite.prevWrite = node.prevWrite;
+            }
+            node.prevWrite = null;
+            node.nextWrite = null;
+        }
+    }
+
+    /**
+     * Striped ring buffers of recent reads. Offers never block: when a stripe is full the access is
+     * dropped, which only makes the recency and frequency information slightly less precise.
+     */
+    private static final class ReadBuffer<K, V> {
+
+        private static final int STRIPE_SIZE = 16;
+        private static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+        private final Stripe<K, V>[] stripes;
+        private final int stripeMask;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ReadBuffer() {
+            int count = Integer.highestOneBit(Math.min(Runtime.getRuntime().availableProcessors() * 4, 64) - 1) << 1;
+            this.stripes = new Stripe[count];
+            for (int i = 0; i < count; i++) {
+                stripes[i] = new Stripe<>();
+            }
+            this.stripeMask = count - 1;
+        }
+
+        /**
+         * Returns false once the stripe is full and should be drained.
+         */
+        boolean offer(Node<K, V> node) {
+            int probe = (int) Thread.currentThread().getId() * 0x9E3779B9;
+            Stripe<K, V> stripe = stripes[(probe >>> 16) & stripeMask];
+            long tail = stripe.writeCount.get();
+            long pending = tail - stripe.readCount;
+            if (pending >= STRIPE_SIZE) {
+                return false;
+            }
+            if (stripe.writeCount.compareAndSet(tail, tail + 1)) {
+                stripe.slots.lazySet((int) tail & STRIPE_MASK, node);
+                return pending + 1 < STRIPE_SIZE;
+            }
+            return true;
+        }
+
+        void drain(BoundedCache<K, V> cache) {
+            for (Stripe<K, V> stripe : stripes) {
+                long head = stripe.readCount;
+                long tail = stripe.writeCount.get();
+                for (; head < tail; head++) {
+                    int index = (int) head & STRIPE_MASK;
+                    Node<K, V> node = stripe.slots.get(index);
+                    if (node == null) {
+                        // The writer claimed the slot but has not published the node yet.
+                        break;
+                    }
+                    stripe.slots.lazySet(index, null);
+                    cache.onAccess(node);
+                }
+                stripe.readCount = head;
+            }
+        }
+    }
+
+    private static final class Stripe<K, V> {
+
+        final AtomicReferenceArray<Node<K, V>> slots = new AtomicReferenceArray<>(ReadBuffer.STRIPE_SIZE);
+        final AtomicLong writeCount = new AtomicLong();
+        volatile long readCount;
+    }
+
+    public static final class Builder<K, V> {
+
+        private long maximumWeight;
+        private Weigher<? super K, ? super V> weigher;
+        private long expireAfterWriteNanos;
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder() {
+        }
+
+        public Builder<K, V> maximumSize(long maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("maximumSize must be > 0");
+            }
+            this.maximumWeight = maximumSize;
+            this.weigher = null;
+            return this;
+        }
+
+        public Builder<K, V> maximumWeight(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+            if (maximumWeight <= 0) {
+                throw new IllegalArgumentException("maximumWeight must be > 0");
+            }
+            if (weigher == null) {
+                throw new IllegalArgumentException("weigher must not be null");
+            }
+            this.maximumWeight = maximumWeight;
+            this.weigher = weigher;
+            return this;
+        }
+
+        public Builder<K, V> expireAfterWriteMillis(long expireAfterWriteMillis) {
+            if (expireAfterWriteMillis <= 0) {
+                throw new IllegalArgumentException("expireAfterWriteMillis must be > 0");
+            }
+            this.expireAfterWriteNanos = expireAfterWriteMillis * 1_000_000L;
+            return this;
+        }
+
+        /**
+         * Nanosecond time source used for expiration, {@link System#nanoTime()} by default.
+         */
+        public Builder<K, V> ticker(LongSupplier ticker) {
+            if (ticker == null) {
+                throw new IllegalArgumentException("ticker must not be null");
+            }
+            this.ticker = ticker;
+            return this;
+        }
+
+        public BoundedCache<K, V> build() {
+            if (maximumWeight <= 0) {
+                throw new IllegalArgumentException("maximumSize or maximumWeight must be set");
+            }
+            return new BoundedCache<>(this);
+        }
+    }
+}
@@ -1,14 +1,24 @@
 package com.zuomagai.molamola.collection;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.SortedSet;
 
 public final class CollectionUtils {
 
+    private static final int LINEAR_SCAN_LIMIT = 64;
+
     private CollectionUtils() {
         throw new AssertionError("No instances.");
     }
@@ -37,22 +47,67 @@ public final class CollectionUtils {
         return map == null ? 0 : map.size();
     }
 
+    public static boolean isEmpty(PrimitiveCollection collection) {
+        return collection == null || collection.isEmpty();
+    }
+
+    public static boolean isNotEmpty(PrimitiveCollection collection) {
+        return !isEmpty(collection);
+    }
+
+    public static int size(PrimitiveCollection collection) {
+        return collection == null ? 0 : collection.size();
+    }
+
     public static boolean contains(Collection<?> collection, Object value) {
         return collection != null && collection.contains(value);
     }
 
+    public static boolean contains(IntHashSet set, int value) {
+        return set != null && set.contains(value);
+    }
+
+    public static boolean contains(LongHashSet set, long value) {
+        return set != null && set.contains(value);
+    }
+
+    /**
+     * Picks the cheapest strategy for the inputs: probing a set, a merge walk for sorted sets with the
+     * same ordering, a nested scan for tiny inputs, and otherwise a temporary hash set of the smaller
+     * side, so large lists are never searched once per candidate. Membership is always decided by
+     * {@code collection}; {@code candidates} is only probed instead when both use {@code equals}.
+     */
     public static boolean containsAny(Collection<?> collection, Collection<?> candidates) {
         if (isEmpty(collection) || isEmpty(candidates)) {
             return false;
         }
-        for (Object candidate : candidates) {
-            if (collection.contains(candidate)) {
-                return true;
+        if (preferMerge(collection, candidates)) {
+            return mergeContainsAny((SortedSet<?>) collection, (SortedSet<?>) candidates);
+        }
+        if (collection instanceof Set) {
+            if (candidates instanceof Set && candidates.size() > collection.size()
+                    && hasEqualsMembership(collection) && hasEqualsMembership(candidates)) {
+                return probeAny(collection, candidates);
             }
+            return probeAny(candidates, collection);
         }
-        return false;
+        // A non-set receiver matches by equals, so either side may be hashed or probed.
+        if (candidates instanceof Set && hasEqualsMembership(candidates)) {
+            return probeAny(collection, candidates);
+        }
+        if ((long) collection.size() * candidates.size() <= LINEAR_SCAN_LIMIT) {
+            return probeAny(candidates, collection);
+        }
+        if (candidates.size() <= collection.size()) {
+            return probeAny(collection, new HashSet<>(candidates));
+        }
+        return probeAny(candidates, new HashSet<>(collection));
     }
 
+    /**
+     * Like {@link #containsAny}, a large non-set receiver is never scanned once per candidate: the
+     * smaller side is hashed and the other walked once.
+     */
     public static boolean containsAll(Collection<?> collection, Collection<?> candidates) {
         if (isEmpty(candidates)) {
             return true;
@@ -60,7 +115,59 @@ public final class CollectionUtils {
         if (isEmpty(collection)) {
             return false;
         }
-        return collection.containsAll(candidates);
+        if (preferMerge(collection, candidates)) {
+            return mergeContainsAll((SortedSet<?>) collection, (SortedSet<?>) candidates);
+        }
+        if (collection instanceof Set || (long) collection.size() * candidates.size() <= LINEAR_SCAN_LIMIT) {
+            return collection.containsAll(candidates);
+        }
+        if (candidates.size() <= collection.size()) {
+            // A non-set receiver matches by equals, so hashing the candidates keeps its membership.
+            Set<Object> remaining = new HashSet<>(candidates);
+            for (Object value : collection) {
+                if (remaining.remove(value) && remaining.isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return new HashSet<>(collection).containsAll(candidates);
+    }
+
+    public static boolean disjoint(Collection<?> first, Collection<?> second) {
+        return !containsAny(first, second);
+    }
+
+    /**
+     * Returns an unmodifiable view of the elements of {@code second} that {@code first} contains, in
+     * the order of {@code second}; as with {@link #containsAny}, membership is always decided by
+     * {@code first}. Set inputs are viewed live; other collections are copied into sets first. Null
+     * inputs are treated as empty.
+     */
+    public static <T> Set<T> intersection(Collection<? extends T> first, Collection<? extends T> second) {
+        if (isEmpty(first) || isEmpty(second)) {
+            return Collections.emptySet();
+        }
+        return SetViews.intersection(asSet(first, false), asSet(second, true));
+    }
+
+    /**
+     * Returns an unmodifiable view of the elements in either input, those of {@code first} first.
+     * Set inputs are viewed live; other collections are copied into sets first.
+     */
+    public static <T> Set<T> union(Collection<? extends T> first, Collection<? extends T> second) {
+        return SetViews.union(asSet(first, true), asSet(second, true));
+    }
+
+    /**
+     * Returns an unmodifiable view of the elements of {@code first} that are not in {@code second}.
+     * Set inputs are viewed live; other collections are copied into sets first.
+     */
+    public static <T> Set<T> difference(Collection<? extends T> first, Collection<?> second) {
+        if (isEmpty(first)) {
+            return Collections.emptySet();
+        }
+        return SetViews.difference(asSet(first, true), asSet(second, false));
     }
 
     public static <T> T firstOrNull(Iterable<T> iterable) {
@@ -87,6 +194,52 @@ public final class CollectionUtils {
         return map == null ? Collections.<K, V>emptyMap() : map;
     }
 
+    public static int[] toIntArray(Collection<Integer> collection) {
+        if (isEmpty(collection)) {
+            return new int[0];
+        }
+        int[] result = new int[collection.size()];
+        int index = 0;
+        for (Integer value : collection) {
+            if (value == null) {
+                throw new IllegalArgumentException("collection must not contain null");
+            }
+            result[index++] = value;
+        }
+        return result;
+    }
+
+    public static long[] toLongArray(Collection<Long> collection) {
+        if (isEmpty(collection)) {
+            return new long[0];
+        }
+        long[] result = new long[collection.size()];
+        int index = 0;
+        for (Long value : collection) {
+            if (value == null) {
+                throw new IllegalArgumentException("collection must not contain null");
+            }
+            result[index++] = value;
+        }
+        return result;
+    }
+
+    public static IntHashSet toIntHashSet(Collection<Integer> collection) {
+        return IntHashSet.of(toIntArray(collection));
+    }
+
+    public static LongHashSet toLongHashSet(Collection<Long> collection) {
+        return LongHashSet.of(toLongArray(collection));
+    }
+
+    public static <K, V> ImmutableMap<K, V> toImmutableMap(Map<? extends K, ? extends V> map) {
+        return isEmpty(map) ? ImmutableMap.<K, V>of() : ImmutableMap.copyOf(map);
+    }
+
+    public static <T> ImmutableSet<T> toImmutableSet(Collection<? extends T> collection) {
+        return isEmpty(collection) ? ImmutableSet.<T>of() : ImmutableSet.copyOf(collection);
+    }
+
     public static <T> int addAll(Collection<T> target, Iterable<? extends T> items) {
         if (target == null || items == null) {
             return 0;
@@ -104,4 +257,155 @@ public final class CollectionUtils {
         }
         return added;
     }
+
+    /**
+     * Splits the items into consecutive batches of {@code batchSize} (the last one may be shorter),
+     * for example to submit work to a pool batch by batch. Random-access lists are split into
+     * {@link List#subList} views; other iterables are read lazily into a new list per batch.
+     */
+    public static <T> Iterable<List<T>> chunked(Iterable<T> items, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be > 0");
+        }
+        if (items == null) {
+            return Collections.emptyList();
+        }
+        if (items instanceof List && items instanceof RandomAccess) {
+            List<T> list = (List<T>) items;
+            return () -> new Iterator<List<T>>() {
+
+                private int position;
+
+                @Override
+                public boolean hasNext() {
+                    return position < list.size();
+                }
+
+                @Override
+                public List<T> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    int end = (int) Math.min((long) position + batchSize, list.size());
+                    List<T> batch = list.subList(position, end);
+                    position = end;
+                    return batch;
+                }
+            };
+        }
+        return () -> new Iterator<List<T>>() {
+
+            private final Iterator<T> iterator = items.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                if (!iterator.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<T> batch = new ArrayList<>(Math.min(batchSize, 1024));
+                while (batch.size() < batchSize && iterator.hasNext()) {
+                    batch.add(iterator.next());
+                }
+                return batch;
+            }
+        };
+    }
+
+    private static <T> Set<T> asSet(Collection<T> collection, boolean keepOrder) {
+        if (collection == null) {
+            return Collections.emptySet();
+        }
+        if (collection instanceof Set) {
+            return (Set<T>) collection;
+        }
+        return keepOrder ? new LinkedHashSet<>(collection) : new HashSet<>(collection);
+    }
+
+    private static boolean probeAny(Collection<?> values, Collection<?> lookup) {
+        for (Object value : values) {
+            if (lookup.contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether contains() follows equals, as the Collection contract requires; sets other than the hash
+     * based ones may use a comparator or identity instead.
+     */
+    private static boolean hasEqualsMembership(Collection<?> collection) {
+        return !(collection instanceof Set) || collection instanceof HashSet || collection instanceof ImmutableSet;
+    }
+
+    private static boolean preferMerge(Collection<?> first, Collection<?> second) {
+        if (!(first instanceof SortedSet) || !(second instanceof SortedSet)
+                || !Objects.equals(((SortedSet<?>) first).comparator(), ((SortedSet<?>) second).comparator())) {
+            return false;
+        }
+        // A linear walk of both beats one logarithmic lookup per element of the smaller set.
+        int small = Math.min(first.size(), second.size());
+        int large = Math.max(first.size(), second.size());
+        return (long) small * (32 - Integer.numberOfLeadingZeros(large)) > (long) small + large;
+    }
+
+    private static boolean mergeContainsAny(SortedSet<?> first, SortedSet<?> second) {
+        Comparator<Object> comparator = comparator(first);
+        Iterator<?> left = first.iterator();
+        Iterator<?> right = second.iterator();
+        Object a = left.next();
+        Object b = right.next();
+        while (true) {
+            int compared = comparator.compare(a, b);
+            if (compared == 0) {
+                return true;
+            }
+            if (compared < 0) {
+                if (!left.hasNext()) {
+                    return false;
+                }
+                a = left.next();
+            } else {
+                if (!right.hasNext()) {
+                    return false;
+                }
+                b = right.next();
+            }
+        }
+    }
+
+    private static boolean mergeContainsAll(SortedSet<?> collection, SortedSet<?> candidates) {
+        if (candidates.size() > collection.size()) {
+            return false;
+        }
+        Comparator<Object> comparator = comparator(collection);
+        Iterator<?> left = collection.iterator();
+        for (Object candidate : candidates) {
+            int compared;
+            do {
+                if (!left.hasNext()) {
+                    return false;
+                }
+                compared = comparator.compare(left.next(), candidate);
+            } while (compared < 0);
+            if (compared > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Comparator<Object> comparator(SortedSet<?> set) {
+        Comparator<?> comparator = set.comparator();
+        if (comparator == null) {
+            return (a, b) -> ((Comparable<Object>) a).compareTo(b);
+        }
+        return (Comparator<Object>) comparator;
+    }
 }
@@ -0,0 +1,107 @@
+package com.zuomagai.molamola.collection;
+
+/**
+ * Position index shared by the immutable collections: keys live in an array at a fixed stride, and
+ * small collections are scanned while larger ones get an open-addressing table of positions + 1.
+ */
+final class CompactIndex {
+
+    static final int SMALL_SIZE = 8;
+
+    private CompactIndex() {
+        throw new AssertionError("No instances.");
+    }
+
+    /**
+     * Returns null for collections small enough to scan. Throws on duplicate keys.
+     */
+    static int[] build(Object[] keys, int stride, int size) {
+        if (size <= SMALL_SIZE) {
+            for (int i = 1; i < size; i++) {
+                Object key = keys[i * stride];
+                for (int j = 0; j < i; j++) {
+                    if (keys[j * stride].equals(key)) {
+                        throw new IllegalArgumentException("duplicate key: " + key);
+                    }
+                }
+            }
+            return null;
+        }
+        // Keep at most half of the slots in use so probe sequences stay short.
+        int[] index = new int[Integer.highestOneBit(size * 2 - 1) << 1];
+        int mask = index.length - 1;
+        for (int i = 0; i < size; i++) {
+            Object key = keys[i * stride];
+            int slot = spread(key.hashCode()) & mask;
+            while (index[slot] != 0) {
+                if (keys[(index[slot] - 1) * stride].equals(key)) {
+                    throw new IllegalArgumentException("duplicate key: " + key);
+                }
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = i + 1;
+        }
+        return index;
+    }
+
+    /**
+     * Compacts {@code keys[0, size)} in place, keeping the first occurrence of each key, and returns the new size.
+     */
+    static int removeDuplicates(Object[] keys, int size) {
+        int[] seen = size <= SMALL_SIZE ? null : new int[Integer.highestOneBit(size * 2 - 1) << 1];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            Object key = keys[i];
+            boolean duplicate = false;
+            if (seen == null) {
+                duplicate = find(keys, 1, count, null, key) >= 0;
+            } else {
+                int mask = seen.length - 1;
+                int slot = spread(key.hashCode()) & mask;
+                while (seen[slot] != 0 && !(duplicate = keys[seen[slot] - 1].equals(key))) {
+                    slot = (slot + 1) & mask;
+                }
+                if (!duplicate) {
+                    seen[slot] = count + 1;
+                }
+            }
+            if (!duplicate) {
+                keys[count++] = key;
+            }
+        }
+        return count;
+    }
+
+    static int find(Object[] keys, int stride, int size, int[] index, Object key) {
+        if (key == null) {
+            return -1;
+        }
+        if (index == null) {
+            for (int i = 0; i < size; i++) {
+                Object candidate = keys[i * stride];
+                if (candidate == key || candidate.equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int mask = index.length - 1;
+        int slot = spread(key.hashCode()) & mask;
+        while (true) {
+            int position = index[slot] - 1;
+            if (position < 0) {
+                return -1;
+            }
+            Object candidate = keys[position * stride];
+            if (candidate == key || candidate.equals(key)) {
+                return position;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
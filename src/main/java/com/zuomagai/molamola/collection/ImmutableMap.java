@@ -0,0 +1,218 @@
+package com.zuomagai.molamola.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-only map that keeps keys and values interleaved in one array in insertion order. Maps of up
+ * to eight entries are searched linearly; larger ones add a compact open-addressing index of entry
+ * positions, so there are no per-entry nodes and iteration walks a single array.
+ * Null keys and values are not permitted.
+ */
+public final class ImmutableMap<K, V> extends AbstractMap<K, V> {
+
+    private static final ImmutableMap<Object, Object> EMPTY = new ImmutableMap<>(new Object[0], 0, null);
+
+    private final Object[] entries;
+    private final int size;
+    private final int[] index;
+    private transient Set<Entry<K, V>> entrySet;
+    private transient int cachedHashCode;
+
+    private ImmutableMap(Object[] entries, int size, int[] index) {
+        this.entries = entries;
+        this.size = size;
+        this.index = index;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableMap<K, V> of() {
+        return (ImmutableMap<K, V>) EMPTY;
+    }
+
+    public static <K, V> ImmutableMap<K, V> of(K key, V value) {
+        return ImmutableMap.<K, V>builder(1).put(key, value).build();
+    }
+
+    public static <K, V> ImmutableMap<K, V> of(K key1, V value1, K key2, V value2) {
+        return ImmutableMap.<K, V>builder(2).put(key1, value1).put(key2, value2).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> ImmutableMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        if (map == null) {
+            throw new IllegalArgumentException("map must not be null");
+        }
+        if (map instanceof ImmutableMap) {
+            return (ImmutableMap<K, V>) map;
+        }
+        return ImmutableMap.<K, V>builder(map.size()).putAll(map).build();
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>(CompactIndex.SMALL_SIZE);
+    }
+
+    public static <K, V> Builder<K, V> builder(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be >= 0");
+        }
+        return new Builder<>(expectedSize);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int position = indexOf(key);
+        return position < 0 ? null : (V) entries[(position << 1) + 1];
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("action must not be null");
+        }
+        for (int i = 0; i < size; i++) {
+            action.accept((K) entries[i << 1], (V) entries[(i << 1) + 1]);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> result = entrySet;
+        if (result == null) {
+            result = new EntrySet();
+            entrySet = result;
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = cachedHashCode;
+        if (result == 0) {
+            for (int i = 0; i < size; i++) {
+                result += entries[i << 1].hashCode() ^ entries[(i << 1) + 1].hashCode();
+            }
+            cachedHashCode = result;
+        }
+        return result;
+    }
+
+    private int indexOf(Object key) {
+        return CompactIndex.find(entries, 2, size, index, key);
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) obj;
+            Object value = get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new Iterator<Entry<K, V>>() {
+
+                private int position;
+
+                @Override
+                public boolean hasNext() {
+                    return position < size;
+                }
+
+                @Override
+                @SuppressWarnings("unchecked")
+                public Entry<K, V> next() {
+                    if (position >= size) {
+                        throw new NoSuchElementException();
+                    }
+                    int offset = position++ << 1;
+                    return new SimpleImmutableEntry<>((K) entries[offset], (V) entries[offset + 1]);
+                }
+            };
+        }
+    }
+
+    public static final class Builder<K, V> {
+
+        private Object[] entries;
+        private int size;
+
+        private Builder(int expectedSize) {
+            this.entries = new Object[Math.max(expectedSize, 1) << 1];
+        }
+
+        public Builder<K, V> put(K key, V value) {
+            if (key == null || value == null) {
+                throw new IllegalArgumentException("key and value must not be null");
+            }
+            if ((size << 1) == entries.length) {
+                entries = Arrays.copyOf(entries, entries.length << 1);
+            }
+            entries[size << 1] = key;
+            entries[(size << 1) + 1] = value;
+            size++;
+            return this;
+        }
+
+        public Builder<K, V> putAll(Map<? extends K, ? extends V> map) {
+            if (map == null) {
+                throw new IllegalArgumentException("map must not be null");
+            }
+            for (Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        /**
+         * Throws {@link IllegalArgumentException} if a key was put more than once.
+         */
+        public ImmutableMap<K, V> build() {
+            if (size == 0) {
+                return of();
+            }
+            Object[] trimmed = (size << 1) == entries.length ? entries.clone() : Arrays.copyOf(entries, size << 1);
+            return new ImmutableMap<>(trimmed, size, CompactIndex.build(trimmed, 2, size));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.zuomagai.molamola.collection;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Read-only set backed by a single array in insertion order, with the same compact position index
+ * as {@link ImmutableMap} once it holds more than eight elements. Null elements are not permitted.
+ */
+public final class ImmutableSet<E> extends AbstractSet<E> {
+
+    private static final ImmutableSet<Object> EMPTY = new ImmutableSet<>(new Object[0], null);
+
+    private final Object[] elements;
+    private final int[] index;
+    private transient int cachedHashCode;
+
+    private ImmutableSet(Object[] elements, int[] index) {
+        this.elements = elements;
+        this.index = index;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutableSet<E> of() {
+        return (ImmutableSet<E>) EMPTY;
+    }
+
+    /**
+     * Repeated elements are kept once.
+     */
+    @SafeVarargs
+    public static <E> ImmutableSet<E> of(E... elements) {
+        if (elements == null) {
+            throw new IllegalArgumentException("elements must not be null");
+        }
+        Builder<E> builder = builder(elements.length);
+        for (E element : elements) {
+            builder.add(element);
+        }
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> ImmutableSet<E> copyOf(Collection<? extends E> collection) {
+        if (collection == null) {
+            throw new IllegalArgumentException("collection must not be null");
+        }
+        if (collection instanceof ImmutableSet) {
+            return (ImmutableSet<E>) collection;
+        }
+        return ImmutableSet.<E>builder(collection.size()).addAll(collection).build();
+    }
+
+    public static <E> Builder<E> builder() {
+        return new Builder<>(CompactIndex.SMALL_SIZE);
+    }
+
+    public static <E> Builder<E> builder(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be >= 0");
+        }
+        return new Builder<>(expectedSize);
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return elements.length == 0;
+    }
+
+    @Override
+    public boolean contains(Object obj) {
+        return CompactIndex.find(elements, 1, elements.length, index, obj) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(Consumer<? super E> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("action must not be null");
+        }
+        for (Object element : elements) {
+            action.accept((E) element);
+        }
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                return position < elements.length;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public E next() {
+                if (position >= elements.length) {
+                    throw new NoSuchElementException();
+                }
+                return (E) elements[position++];
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        return elements.clone();
+    }
+
+    @Override
+    public int hashCode() {
+        int result = cachedHashCode;
+        if (result == 0) {
+            for (Object element : elements) {
+                result += element.hashCode();
+            }
+            cachedHashCode = result;
+        }
+        return result;
+    }
+
+    public static final class Builder<E> {
+
+        private Object[] elements;
+        private int size;
+
+        private Builder(int expectedSize) {
+            this.elements = new Object[Math.max(expectedSize, 1)];
+        }
+
+        public Builder<E> add(E element) {
+            if (element == null) {
+                throw new IllegalArgumentException("element must not be null");
+            }
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size << 1);
+            }
+            elements[size++] = element;
+            return this;
+        }
+
+        public Builder<E> addAll(Iterable<? extends E> items) {
+            if (items == null) {
+                throw new IllegalArgumentException("items must not be null");
+            }
+            for (E item : items) {
+                add(item);
+            }
+            return this;
+        }
+
+        public ImmutableSet<E> build() {
+            if (size == 0) {
+                return of();
+            }
+            // Unlike map keys, repeated elements are legal input for a set, so drop them first.
+            Object[] distinct = Arrays.copyOf(elements, size);
+            int count = CompactIndex.removeDuplicates(distinct, size);
+            Object[] trimmed = count == distinct.length ? distinct : Arrays.copyOf(distinct, count);
+            return new ImmutableSet<>(trimmed, CompactIndex.build(trimmed, 1, count));
+        }
+    }
+}
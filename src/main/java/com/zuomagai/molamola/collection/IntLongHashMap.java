@@ -0,0 +1,302 @@
+package com.zuomagai.molamola.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive int keys to primitive long values, using linear probing
+ * and backward-shift deletion, so entries cost no node objects and lookups never box. Absent keys
+ * read as the configured missing value (0 by default). Not thread-safe.
+ */
+public final class IntLongHashMap implements PrimitiveCollection {
+
+    public interface EntryConsumer {
+
+        void accept(int key, long value);
+    }
+
+    private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+    private final long missingValue;
+    private int[] keys;
+    private long[] values;
+    private int mask;
+    private int resizeThreshold;
+    private int size;
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public IntLongHashMap() {
+        this(DEFAULT_EXPECTED_SIZE, 0);
+    }
+
+    public IntLongHashMap(int expectedSize) {
+        this(expectedSize, 0);
+    }
+
+    public IntLongHashMap(int expectedSize, long missingValue) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize must be >= 0");
+        }
+        this.missingValue = missingValue;
+        allocate(PrimitiveHashing.tableSizeFor(expectedSize));
+    }
+
+    public long getMissingValue() {
+        return missingValue;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        return indexOf(key) >= 0;
+    }
+
+    public long get(int key) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : missingValue;
+        }
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : missingValue;
+    }
+
+    public long getOrDefault(int key, long defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int index = indexOf(key);
+        return index >= 0 ? values[index] : defaultValue;
+    }
+
+    /**
+     * Returns the previous value, or the missing value if the key was absent.
+     */
+    public long put(int key, long value) {
+        if (key == 0) {
+            long previous = hasZeroKey ? zeroValue : missingValue;
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return previous;
+        }
+        int index = slot(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                long previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(PrimitiveHashing.grow(keys.length));
+        }
+        return missingValue;
+    }
+
+    /**
+     * Adds {@code delta} to the value of the key, starting from the missing value, and returns the new value.
+     */
+    public long addTo(int key, long delta) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                zeroValue = missingValue;
+                size++;
+            }
+            zeroValue += delta;
+            return zeroValue;
+        }
+        int index = slot(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                values[index] += delta;
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = missingValue + delta;
+        long result = values[index];
+        if (++size > resizeThreshold) {
+            rehash(PrimitiveHashing.grow(keys.length));
+        }
+        return result;
+    }
+
+    public long remove(int key) {
+        if (key == 0) {
+            if (!hasZeroKey) {
+                return missingValue;
+            }
+            long previous = zeroValue;
+            hasZeroKey = false;
+            zeroValue = 0;
+            size--;
+            return previous;
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return missingValue;
+        }
+        long previous = values[index];
+        deleteAt(index);
+        size--;
+        return previous;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(values, 0);
+        hasZeroKey = false;
+        zeroValue = 0;
+        size = 0;
+    }
+
+    /**
+     * Visits every entry without allocating. The map must not be modified during iteration.
+     */
+    public void forEach(EntryConsumer consumer) {
+        if (consumer == null) {
+            throw new IllegalArgumentException("consumer must not be null");
+        }
+        if (hasZeroKey) {
+            consumer.accept(0, zeroValue);
+        }
+        int[] keyTable = keys;
+        long[] valueTable = values;
+        for (int i = 0; i < keyTable.length; i++) {
+            if (keyTable[i] != 0) {
+                consumer.accept(keyTable[i], valueTable[i]);
+            }
+        }
+    }
+
+    public int[] keysToArray() {
+        int[] result = new int[size];
+        int index = 0;
+        if (hasZeroKey) {
+            result[index++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[index++] = key;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof IntLongHashMap)) {
+            return false;
+        }
+        IntLongHashMap other = (IntLongHashMap) obj;
+        if (other.size != size || other.hasZeroKey != hasZeroKey
+                || (hasZeroKey && zeroValue != other.zeroValue)) {
+            return false;
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0 && (!other.containsKey(keys[i]) || other.get(keys[i]) != values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hasZeroKey ? Long.hashCode(zeroValue) : 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                result += Integer.hashCode(keys[i]) ^ Long.hashCode(values[i]);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(size * 8 + 2).append('{');
+        forEach((key, value) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(key).append('=').append(value);
+        });
+        return builder.append('}').toString();
+    }
+
+    private int slot(int key) {
+        return PrimitiveHashing.mix(key) & mask;
+    }
+
+    private int indexOf(int key) {
+        int index = slot(key);
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void deleteAt(int index) {
+        // Backward-shift deletion keeps probe chains intact without tombstones.
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (keys[next] != 0) {
+            int ideal = slot(keys[next]);
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = PrimitiveHashing.resizeThreshold(capacity);
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            int key = oldKeys[i];
+            if (key != 0) {
+                int index = slot(key);
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
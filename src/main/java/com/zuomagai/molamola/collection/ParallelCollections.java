@@ -0,0 +1,296 @@
+package com.zuomagai.molamola.collection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Fork-join bulk operations over large collections. Inputs are split into index ranges that run on
+ * the pool; inputs smaller than the sequential threshold, or pools without parallelism, are
+ * processed on the calling thread. Results keep the encounter order of the input, and exceptions
+ * thrown by the functions are rethrown to the caller. Functions must be safe to call concurrently.
+ */
+public final class ParallelCollections {
+
+    private static final int DEFAULT_SEQUENTIAL_THRESHOLD = 8192;
+    private static final ParallelCollections COMMON = new ParallelCollections(null, DEFAULT_SEQUENTIAL_THRESHOLD);
+
+    private final ForkJoinPool pool;
+    private final int sequentialThreshold;
+
+    private ParallelCollections(ForkJoinPool pool, int sequentialThreshold) {
+        this.pool = pool;
+        this.sequentialThreshold = sequentialThreshold;
+    }
+
+    /**
+     * Runs on {@link ForkJoinPool#commonPool()} and goes sequential below 8192 elements.
+     */
+    public static ParallelCollections common() {
+        return COMMON;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public <T, R> List<R> map(Collection<? extends T> source, Function<? super T, ? extends R> mapper) {
+        if (mapper == null) {
+            throw new IllegalArgumentException("mapper must not be null");
+        }
+        Object[] input = toArray(source);
+        Object[] output = new Object[input.length];
+        run(input.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                output[i] = mapper.apply(element(input, i));
+            }
+        });
+        return toList(output, output.length);
+    }
+
+    public <T> List<T> filter(Collection<? extends T> source, Predicate<? super T> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("predicate must not be null");
+        }
+        Object[] input = toArray(source);
+        boolean[] matches = test(input, predicate);
+        Object[] output = new Object[input.length];
+        int size = 0;
+        for (int i = 0; i < input.length; i++) {
+            if (matches[i]) {
+                output[size++] = input[i];
+            }
+        }
+        return toList(output, size);
+    }
+
+    /**
+     * Splits the input into the elements that match ({@code true}) and those that do not ({@code false}).
+     */
+    public <T> Map<Boolean, List<T>> partition(Collection<? extends T> source, Predicate<? super T> predicate) {
+        if (predicate == null) {
+            throw new IllegalArgumentException("predicate must not be null");
+        }
+        Object[] input = toArray(source);
+        boolean[] matches = test(input, predicate);
+        Object[] matched = new Object[input.length];
+        Object[] rest = new Object[input.length];
+        int matchedSize = 0;
+        int restSize = 0;
+        for (int i = 0; i < input.length; i++) {
+            if (matches[i]) {
+                matched[matchedSize++] = input[i];
+            } else {
+                rest[restSize++] = input[i];
+            }
+        }
+        Map<Boolean, List<T>> result = new LinkedHashMap<>(4);
+        result.put(Boolean.TRUE, toList(matched, matchedSize));
+        result.put(Boolean.FALSE, toList(rest, restSize));
+        return result;
+    }
+
+    /**
+     * Groups elements by key. Groups are ordered by the first occurrence of their key, and elements
+     * within a group keep their input order. Null keys are rejected.
+     */
+    public <T, K> Map<K, List<T>> groupBy(Collection<? extends T> source, Function<? super T, ? extends K> classifier) {
+        if (classifier == null) {
+            throw new IllegalArgumentException("classifier must not be null");
+        }
+        Object[] input = toArray(source);
+        GroupTask<T, K> task = new GroupTask<>(input, 0, input.length, leafSize(input.length), classifier);
+        if (isSequential(input.length)) {
+            return task.group(0, input.length);
+        }
+        return pool().invoke(task);
+    }
+
+    public <T> void forEach(Collection<? extends T> source, Consumer<? super T> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("action must not be null");
+        }
+        Object[] input = toArray(source);
+        run(input.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                action.accept(element(input, i));
+            }
+        });
+    }
+
+    private boolean[] test(Object[] input, Predicate<?> predicate) {
+        @SuppressWarnings("unchecked")
+        Predicate<Object> test = (Predicate<Object>) predicate;
+        boolean[] matches = new boolean[input.length];
+        run(input.length, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                matches[i] = test.test(input[i]);
+            }
+        });
+        return matches;
+    }
+
+    private void run(int size, RangeBody body) {
+        if (isSequential(size)) {
+            body.run(0, size);
+        } else {
+            pool().invoke(new RangeAction(0, size, leafSize(size), body));
+        }
+    }
+
+    private boolean isSequential(int size) {
+        return size < sequentialThreshold || pool().getParallelism() <= 1;
+    }
+
+    private int leafSize(int size) {
+        // A few leaves per worker lets stealing even out uneven per-element costs.
+        return Math.max(1, size / (pool().getParallelism() << 2));
+    }
+
+    private ForkJoinPool pool() {
+        return pool == null ? ForkJoinPool.commonPool() : pool;
+    }
+
+    private static Object[] toArray(Collection<?> source) {
+        return source == null ? new Object[0] : source.toArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T element(Object[] input, int index) {
+        return (T) input[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> toList(Object[] values, int size) {
+        // Fill directly: wrapping a sublist would copy through toArray() and again in the constructor.
+        List<T> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add((T) values[i]);
+        }
+        return list;
+    }
+
+    private interface RangeBody {
+
+        void run(int from, int to);
+    }
+
+    private static final class RangeAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final RangeBody body;
+
+        RangeAction(int from, int to, int leafSize, RangeBody body) {
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.body = body;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                body.run(from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeAction(from, middle, leafSize, body), new RangeAction(middle, to, leafSize, body));
+        }
+    }
+
+    private static final class GroupTask<T, K> extends RecursiveTask<Map<K, List<T>>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Object[] input;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+        private final Function<? super T, ? extends K> classifier;
+
+        GroupTask(Object[] input, int from, int to, int leafSize, Function<? super T, ? extends K> classifier) {
+            this.input = input;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.classifier = classifier;
+        }
+
+        @Override
+        protected Map<K, List<T>> compute() {
+            if (to - from <= leafSize) {
+                return group(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            GroupTask<T, K> right = new GroupTask<>(input, middle, to, leafSize, classifier);
+            right.fork();
+            Map<K, List<T>> result = new GroupTask<T, K>(input, from, middle, leafSize, classifier).compute();
+            for (Map.Entry<K, List<T>> entry : right.join().entrySet()) {
+                List<T> group = result.get(entry.getKey());
+                if (group == null) {
+                    result.put(entry.getKey(), entry.getValue());
+                } else {
+                    group.addAll(entry.getValue());
+                }
+            }
+            return result;
+        }
+
+        Map<K, List<T>> group(int start, int end) {
+            Map<K, List<T>> groups = new LinkedHashMap<>();
+            for (int i = start; i < end; i++) {
+                T value = element(input, i);
+                K key = classifier.apply(value);
+                if (key == null) {
+                    throw new IllegalArgumentException("classifier must not return null");
+                }
+                groups.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+            }
+            return groups;
+        }
+    }
+
+    public static final class Builder {
+
+        private ForkJoinPool pool;
+        private int sequentialThreshold = DEFAULT_SEQUENTIAL_THRESHOLD;
+
+        private Builder() {
+        }
+
+        public Builder pool(ForkJoinPool pool) {
+            if (pool == null) {
+                throw new IllegalArgumentException("pool must not be null");
+            }
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Inputs with fewer elements than this are processed on the calling thread.
+         */
+        public Builder sequentialThreshold(int sequentialThreshold) {
+            if (sequentialThreshold < 0) {
+                throw new IllegalArgumentException("sequentialThreshold must be >= 0");
+            }
+            this.sequentialThreshold = sequentialThreshold;
+            return this;
+        }
+
+        public ParallelCollections build() {
+            return new ParallelCollections(pool, sequentialThreshold);
+        }
+    }
+}
@@ -0,0 +1,528 @@
+package com.zuomagai.molamola.collection;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Read-only hash array mapped trie. {@link #plus} and {@link #minus} return a new map that shares
+ * every untouched branch with the original, so an update costs O(log32 n) instead of a full copy,
+ * and {@link #forEachDifference} skips shared branches, so diffing two versions of a large map
+ * costs time proportional to what changed between them. Null keys and values are not permitted.
+ */
+public final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+    private static final PersistentHashMap<Object, Object> EMPTY = new PersistentHashMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+    private transient Set<Entry<K, V>> entrySet;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> of() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+        if (map == null) {
+            throw new IllegalArgumentException("map must not be null");
+        }
+        if (map instanceof PersistentHashMap) {
+            return (PersistentHashMap<K, V>) map;
+        }
+        PersistentHashMap<K, V> result = of();
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            result = result.plus(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Returns a map with the key mapped to the value; returns this map if it already holds that
+     * exact value instance.
+     */
+    public PersistentHashMap<K, V> plus(K key, V value) {
+        if (key == null || value == null) {
+            throw new IllegalArgumentException("key and value must not be null");
+        }
+        boolean[] added = new boolean[1];
+        int hash = hash(key);
+        Node updated = root == null ? BitmapNode.EMPTY.put(0, hash, key, value, added) : root.put(0, hash, key, value, added);
+        if (updated == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(updated, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without the key; returns this map if the key is absent.
+     */
+    public PersistentHashMap<K, V> minus(Object key) {
+        if (key == null || root == null) {
+            return this;
+        }
+        Node updated = root.remove(0, hash(key), key);
+        if (updated == root) {
+            return this;
+        }
+        return updated == null ? PersistentHashMap.<K, V>of() : new PersistentHashMap<>(updated, size - 1);
+    }
+
+    /**
+     * Passes every key that is mapped in only one of the two maps, or to unequal values, to the
+     * action. Branches shared between the maps are skipped without being visited.
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachDifference(PersistentHashMap<K, V> other, Consumer<? super K> action) {
+        if (other == null || action == null) {
+            throw new IllegalArgumentException("other and action must not be null");
+        }
+        diff(root, other.root, 0, (Consumer<Object>) action);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        if (key == null || root == null) {
+            return null;
+        }
+        return (V) root.find(0, hash(key), key);
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("action must not be null");
+        }
+        if (root != null) {
+            root.forEach((BiConsumer<Object, Object>) action);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        Set<Entry<K, V>> result = entrySet;
+        if (result == null) {
+            result = new EntrySet();
+            entrySet = result;
+        }
+        return result;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static void diff(Node left, Node right, int shift, Consumer<Object> action) {
+        if (left == right) {
+            return;
+        }
+        if (left instanceof BitmapNode && right instanceof BitmapNode) {
+            BitmapNode a = (BitmapNode) left;
+            BitmapNode b = (BitmapNode) right;
+            int bits = a.bitmap | b.bitmap;
+            while (bits != 0) {
+                int bit = bits & -bits;
+                bits &= bits - 1;
+                Object ka = null;
+                Object va = null;
+                Object kb = null;
+                Object vb = null;
+                if ((a.bitmap & bit) != 0) {
+                    int index = a.index(bit) << 1;
+                    ka = a.array[index];
+                    va = a.array[index + 1];
+                }
+                if ((b.bitmap & bit) != 0) {
+                    int index = b.index(bit) << 1;
+                    kb = b.array[index];
+                    vb = b.array[index + 1];
+                }
+                diffSlot(ka, va, kb, vb, shift, action);
+            }
+            return;
+        }
+        diffEntries(left, right, action);
+    }
+
+    private static void diffSlot(Object ka, Object va, Object kb, Object vb, int shift, Consumer<Object> action) {
+        if (va == null || vb == null) {
+            // Present on one side only.
+            reportSlot(ka, va, action);
+            reportSlot(kb, vb, action);
+        } else if (ka == null && kb == null) {
+            diff((Node) va, (Node) vb, shift + BITS, action);
+        } else if (ka != null && kb != null) {
+            if (ka.equals(kb)) {
+                if (!va.equals(vb)) {
+                    action.accept(ka);
+                }
+            } else {
+                action.accept(ka);
+                action.accept(kb);
+            }
+        } else {
+            // An entry against a branch: rare and small, so compare the entries directly.
+            diffEntries(ka == null ? (Node) va : new CollisionNode(hash(ka), new Object[]{ka, va}),
+                    kb == null ? (Node) vb : new CollisionNode(hash(kb), new Object[]{kb, vb}), action);
+        }
+    }
+
+    private static void reportSlot(Object key, Object value, Consumer<Object> action) {
+        if (value == null) {
+            return;
+        }
+        if (key != null) {
+            action.accept(key);
+        } else {
+            ((Node) value).forEach((k, v) -> action.accept(k));
+        }
+    }
+
+    private static void diffEntries(Node left, Node right, Consumer<Object> action) {
+        Map<Object, Object> entries = new HashMap<>();
+        if (left != null) {
+            left.forEach(entries::put);
+        }
+        if (right != null) {
+            right.forEach((key, value) -> {
+                Object previous = entries.remove(key);
+                if (!value.equals(previous)) {
+                    action.accept(key);
+                }
+            });
+        }
+        for (Object key : entries.keySet()) {
+            action.accept(key);
+        }
+    }
+
+    private interface Node {
+
+        Object find(int shift, int hash, Object key);
+
+        Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+        /**
+         * Returns null once the node is empty.
+         */
+        Node remove(int shift, int hash, Object key);
+
+        void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /**
+     * Slots hold either a key and its value, or null and a child node.
+     */
+    private static final class BitmapNode implements Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] array;
+
+        BitmapNode(int bitmap, Object[] array) {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        public Object find(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            int index = index(bit) << 1;
+            Object k = array[index];
+            if (k == null) {
+                return ((Node) array[index + 1]).find(shift + BITS, hash, key);
+            }
+            return key.equals(k) ? array[index + 1] : null;
+        }
+
+        @Override
+        public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = index(bit) << 1;
+            if ((bitmap & bit) == 0) {
+                added[0] = true;
+                Object[] copy = new Object[array.length + 2];
+                System.arraycopy(array, 0, copy, 0, index);
+                copy[index] = key;
+                copy[index + 1] = value;
+                System.arraycopy(array, index, copy, index + 2, array.length - index);
+                return new BitmapNode(bitmap | bit, copy);
+            }
+            Object k = array[index];
+            Object v = array[index + 1];
+            if (k == null) {
+                Node child = (Node) v;
+                Node updated = child.put(shift + BITS, hash, key, value, added);
+                return updated == child ? this : with(index + 1, null, updated);
+            }
+            if (key.equals(k)) {
+                return v == value ? this : with(index + 1, k, value);
+            }
+            added[0] = true;
+            return with(index + 1, null, split(shift + BITS, k, v, hash, key, value));
+        }
+
+        @Override
+        public Node remove(int shift, int hash, Object key) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = index(bit) << 1;
+            Object k = array[index];
+            if (k == null) {
+                Node child = (Node) array[index + 1];
+                Node updated = child.remove(shift + BITS, hash, key);
+                if (updated == child) {
+                    return this;
+                }
+                return updated != null ? with(index + 1, null, updated) : without(bit, index);
+            }
+            return key.equals(k) ? without(bit, index) : this;
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (array[i] == null) {
+                    ((Node) array[i + 1]).forEach(action);
+                } else {
+                    action.accept(array[i], array[i + 1]);
+                }
+            }
+        }
+
+        private BitmapNode with(int valueIndex, Object key, Object value) {
+            Object[] copy = array.clone();
+            copy[valueIndex - 1] = key;
+            copy[valueIndex] = value;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private BitmapNode without(int bit, int index) {
+            if (bitmap == bit) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 2, copy, index, array.length - index - 2);
+            return new BitmapNode(bitmap ^ bit, copy);
+        }
+
+        private static Node split(int shift, Object key1, Object value1, int hash2, Object key2, Object value2) {
+            int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[]{key1, value1, key2, value2});
+            }
+            // Distinct hashes differ within the first 32 bits, so shift never passes 30 here.
+            boolean[] ignored = new boolean[1];
+            return EMPTY.put(shift, hash1, key1, value1, ignored).put(shift, hash2, key2, value2, ignored);
+        }
+    }
+
+    /**
+     * Keys whose full hashes are equal, stored as key/value pairs.
+     */
+    private static final class CollisionNode implements Node {
+
+        final int hash;
+        final Object[] array;
+
+        CollisionNode(int hash, Object[] array) {
+            this.hash = hash;
+            this.array = array;
+        }
+
+        @Override
+        public Object find(int shift, int hash, Object key) {
+            if (hash != this.hash) {
+                return null;
+            }
+            int index = indexOf(key);
+            return index < 0 ? null : array[index + 1];
+        }
+
+        @Override
+        public Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+            if (hash != this.hash) {
+                return new BitmapNode(1 << ((this.hash >>> shift) & MASK), new Object[]{null, this})
+                        .put(shift, hash, key, value, added);
+            }
+            int index = indexOf(key);
+            if (index >= 0) {
+                if (array[index + 1] == value) {
+                    return this;
+                }
+                Object[] copy = array.clone();
+                copy[index + 1] = value;
+                return new CollisionNode(hash, copy);
+            }
+            added[0] = true;
+            Object[] copy = Arrays.copyOf(array, array.length + 2);
+            copy[array.length] = key;
+            copy[array.length + 1] = value;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        public Node remove(int shift, int hash, Object key) {
+            int index = hash == this.hash ? indexOf(key) : -1;
+            if (index < 0) {
+                return this;
+            }
+            if (array.length == 2) {
+                return null;
+            }
+            Object[] copy = new Object[array.length - 2];
+            System.arraycopy(array, 0, copy, 0, index);
+            System.arraycopy(array, index + 2, copy, index, array.length - index - 2);
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (int i = 0; i < array.length; i += 2) {
+                action.accept(array[i], array[i + 1]);
+            }
+        }
+
+        private int indexOf(Object key) {
+            for (int i = 0; i < array.length; i += 2) {
+                if (Objects.equals(key, array[i])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<K, V>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object obj) {
+            if (!(obj instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> entry = (Entry<?, ?>) obj;
+            Object value = get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+    }
+
+    /**
+     * Depth-first walk keeping one array and position per trie level.
+     */
+    private final class EntryIterator implements Iterator<Entry<K, V>> {
+
+        private final Object[][] arrays = new Object[8][];
+        private final int[] positions = new int[8];
+        private int depth = -1;
+        private Entry<K, V> next;
+
+        EntryIterator() {
+            if (root != null) {
+                push(root);
+                advance();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            Entry<K, V> result = next;
+            if (result == null) {
+                throw new NoSuchElementException();
+            }
+            advance();
+            return result;
+        }
+
+        private void push(Node node) {
+            depth++;
+            arrays[depth] = node instanceof BitmapNode ? ((BitmapNode) node).array : ((CollisionNode) node).array;
+            positions[depth] = 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            while (depth >= 0) {
+                Object[] array = arrays[depth];
+                int position = positions[depth];
+                if (position >= array.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+                positions[depth] = position + 2;
+                if (array[position] == null) {
+                    push((Node) array[position + 1]);
+                } else {
+                    next = new SimpleImmutableEntry<>((K) array[position], (V) array[position + 1]);
+                    return;
+                }
+            }
+            next = null;
+        }
+    }
+}
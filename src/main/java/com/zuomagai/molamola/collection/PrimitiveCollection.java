@@ -0,0 +1,11 @@
+package com.zuomagai.molamola.collection;
+
+/**
+ * Common view of the primitive-specialized collections, used by the null-safe helpers in {@link CollectionUtils}.
+ */
+public interface PrimitiveCollection {
+
+    int size();
+
+    boolean isEmpty();
+}
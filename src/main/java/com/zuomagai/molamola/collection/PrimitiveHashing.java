@@ -0,0 +1,46 @@
+package com.zuomagai.molamola.collection;
+
+final class PrimitiveHashing {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private PrimitiveHashing() {
+        throw new AssertionError("No instances.");
+    }
+
+    static int tableSizeFor(int expectedSize) {
+        long required = Math.max(2L, (long) Math.ceil(expectedSize / 0.75D) + 1);
+        if (required > MAX_CAPACITY) {
+            throw new IllegalArgumentException("expectedSize too large: " + expectedSize);
+        }
+        int capacity = 2;
+        while (capacity < required) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Keeps at least one empty slot so probe loops always terminate, even for the smallest tables.
+     */
+    static int resizeThreshold(int capacity) {
+        return Math.min(capacity - 1, capacity - (capacity >>> 2));
+    }
+
+    static int grow(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("capacity limit reached: " + capacity);
+        }
+        return capacity << 1;
+    }
+
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
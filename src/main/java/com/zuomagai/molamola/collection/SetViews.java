@@ -0,0 +1,147 @@
+package com.zuomagai.molamola.collection;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Unmodifiable, live set views backing the set algebra of {@link CollectionUtils}. Sizes are
+ * computed by iteration, so callers that need the size repeatedly should copy the view.
+ */
+final class SetViews {
+
+    private SetViews() {
+        throw new AssertionError("No instances.");
+    }
+
+    static <E> Set<E> intersection(Set<? extends E> first, Set<? extends E> second) {
+        // Always probe first: swapping by size would change the result when the sets disagree on equality.
+        return new Filtered<>(second, first, true);
+    }
+
+    static <E> Set<E> difference(Set<? extends E> first, Set<?> second) {
+        return new Filtered<>(first, second, false);
+    }
+
+    static <E> Set<E> union(Set<? extends E> first, Set<? extends E> second) {
+        return new Union<>(first, second);
+    }
+
+    private abstract static class View<E> extends AbstractSet<E> {
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (Iterator<E> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+                size++;
+            }
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+    }
+
+    private static final class Filtered<E> extends View<E> {
+
+        private final Set<? extends E> source;
+        private final Set<?> filter;
+        private final boolean retain;
+
+        Filtered(Set<? extends E> source, Set<?> filter, boolean retain) {
+            this.source = source;
+            this.filter = filter;
+            this.retain = retain;
+        }
+
+        @Override
+        public boolean contains(Object obj) {
+            return source.contains(obj) && filter.contains(obj) == retain;
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            return new FilteringIterator<>(source.iterator(), filter, retain);
+        }
+    }
+
+    private static final class Union<E> extends View<E> {
+
+        private final Set<? extends E> first;
+        private final Set<? extends E> second;
+
+        Union(Set<? extends E> first, Set<? extends E> second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public boolean contains(Object obj) {
+            return first.contains(obj) || second.contains(obj);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return first.isEmpty() && second.isEmpty();
+        }
+
+        @Override
+        public Iterator<E> iterator() {
+            Iterator<? extends E> rest = new FilteringIterator<>(second.iterator(), first, false);
+            Iterator<? extends E> head = first.iterator();
+            return new Iterator<E>() {
+
+                @Override
+                public boolean hasNext() {
+                    return head.hasNext() || rest.hasNext();
+                }
+
+                @Override
+                public E next() {
+                    return head.hasNext() ? head.next() : rest.next();
+                }
+            };
+        }
+    }
+
+    private static final class FilteringIterator<E> implements Iterator<E> {
+
+        private final Iterator<? extends E> source;
+        private final Set<?> filter;
+        private final boolean retain;
+        private E next;
+        private boolean ready;
+
+        FilteringIterator(Iterator<? extends E> source, Set<?> filter, boolean retain) {
+            this.source = source;
+            this.filter = filter;
+            this.retain = retain;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!ready && source.hasNext()) {
+                E candidate = source.next();
+                if (filter.contains(candidate) == retain) {
+                    next = candidate;
+                    ready = true;
+                }
+            }
+            return ready;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ready = false;
+            E result = next;
+            next = null;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.zuomagai.molamola.config;
+
+import java.util.concurrent.CompletionStage;
+
+public interface AsyncConfigChangeListener<T> {
+
+    /**
+     * Starts applying the change and returns a stage that completes once it has been applied.
+     * A failed stage (or a thrown exception) is retried according to the listener retry policy.
+     */
+    CompletionStage<?> onChange(ConfigChangeEvent<T> event);
+}
@@ -0,0 +1,19 @@
+package com.zuomagai.molamola.config;
+
+import com.zuomagai.molamola.collection.BoundedCache;
+
+public interface ConfigAppliedListener<T> {
+
+    void onApplied(ConfigChangeEvent<T> event, int failedListeners);
+
+    /**
+     * Returns a listener that empties the cache once a new config version is published, so loaders
+     * reading {@link ConfigNotifier#getLastSnapshot()} repopulate it from that version.
+     */
+    static <T> ConfigAppliedListener<T> invalidating(BoundedCache<?, ?> cache) {
+        if (cache == null) {
+            throw new IllegalArgumentException("cache must not be null");
+        }
+        return (event, failedListeners) -> cache.invalidateAll();
+    }
+}
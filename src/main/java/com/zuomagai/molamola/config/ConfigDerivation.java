@@ -0,0 +1,105 @@
+package com.zuomagai.molamola.config;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A named value derived from a snapshot, computed at most once per snapshot and shared by all callers.
+ * Only the two most recently used snapshots (normally current and previous) are retained.
+ */
+public final class ConfigDerivation<T, R> {
+
+    private final String name;
+    private final Function<? super T, ? extends R> function;
+    private final boolean eager;
+    private final Supplier<ConfigSnapshot<T>> currentSnapshot;
+    private Entry<T, R> latest;
+    private Entry<T, R> previous;
+
+    ConfigDerivation(String name,
+                     Function<? super T, ? extends R> function,
+                     boolean eager,
+                     Supplier<ConfigSnapshot<T>> currentSnapshot) {
+        this.name = name;
+        this.function = function;
+        this.eager = eager;
+        this.currentSnapshot = currentSnapshot;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEager() {
+        return eager;
+    }
+
+    /**
+     * Returns the value derived from the notifier's last published snapshot, or null if there is none.
+     * Listeners should call {@link #get(ConfigSnapshot)} with the event's current snapshot instead.
+     */
+    public R get() {
+        return get(currentSnapshot.get());
+    }
+
+    public R get(ConfigSnapshot<T> snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        return entryFor(snapshot).get(function);
+    }
+
+    void precompute(ConfigSnapshot<T> snapshot) {
+        try {
+            get(snapshot);
+        } catch (RuntimeException ignored) {
+            // The failure is memoized and rethrown to callers of get().
+        }
+    }
+
+    private synchronized Entry<T, R> entryFor(ConfigSnapshot<T> snapshot) {
+        if (latest != null && latest.snapshot == snapshot) {
+            return latest;
+        }
+        Entry<T, R> entry;
+        if (previous != null && previous.snapshot == snapshot) {
+            entry = previous;
+        } else {
+            entry = new Entry<>(snapshot);
+        }
+        previous = latest;
+        latest = entry;
+        return entry;
+    }
+
+    private static final class Entry<T, R> {
+
+        private final ConfigSnapshot<T> snapshot;
+        private volatile boolean computed;
+        private R value;
+        private RuntimeException failure;
+
+        Entry(ConfigSnapshot<T> snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        R get(Function<? super T, ? extends R> function) {
+            if (!computed) {
+                synchronized (this) {
+                    if (!computed) {
+                        try {
+                            value = function.apply(snapshot.getValue());
+                        } catch (RuntimeException ex) {
+                            failure = ex;
+                        }
+                        computed = true;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return value;
+        }
+    }
+}
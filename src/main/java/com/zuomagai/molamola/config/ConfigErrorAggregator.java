@@ -0,0 +1,354 @@
+package com.zuomagai.molamola.config;
+
+import com.zuomagai.molamola.thread.HashedWheelTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Collapses error events from any number of notifiers into {@link ConfigErrorSummary summaries}
+ * grouped by phase, source and exception type, so an outage across many sources does not flood the
+ * error handling. The first error of a group is reported immediately; later ones are only counted
+ * and reported once per window. At most {@code maxReportsPerWindow} reports are delivered per window
+ * across all groups, groups over budget keep counting until a later window. A group without errors
+ * for a whole window is dropped, so its next error is again reported immediately. Window summaries
+ * are delivered on the summary executor, never on the timer thread.
+ * <pre>
+ * ConfigErrorAggregator aggregator = ConfigErrorAggregator.builder().summaryListener(summary -> log.warn(summary.toString())).build();
+ * notifierBuilder.addErrorListener(aggregator.listener());
+ * </pre>
+ */
+public final class ConfigErrorAggregator implements AutoCloseable {
+
+    private final ConfigErrorSummaryListener summaryListener;
+    private final Executor summaryExecutor;
+    private final long windowMillis;
+    private final int maxReportsPerWindow;
+    private final HashedWheelTimer timer;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<GroupKey, Group> groups = new ConcurrentHashMap<>();
+    private final AtomicInteger remainingReports;
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+    private final LongAdder suppressed = new LongAdder();
+    private volatile HashedWheelTimer.Timeout pendingFlush;
+    private volatile boolean closed;
+
+    private ConfigErrorAggregator(Builder builder) {
+        this.summaryListener = builder.summaryListener;
+        this.summaryExecutor = builder.summaryExecutor;
+        this.windowMillis = builder.windowMillis;
+        this.maxReportsPerWindow = builder.maxReportsPerWindow;
+        this.timer = builder.timer != null ? builder.timer : ConfigNotifier.DefaultTimerHolder.TIMER;
+        this.clock = builder.clock;
+        this.remainingReports = new AtomicInteger(maxReportsPerWindow);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Error listener feeding this aggregator; the same aggregator may serve notifiers of any type.
+     */
+    public <T> ConfigErrorListener<T> listener() {
+        return this::record;
+    }
+
+    /**
+     * Ends the current window: reports the errors counted since each group's last report, within a
+     * fresh budget, and drops idle groups. The timer does this once per window; an explicit call
+     * delivers on the calling thread.
+     */
+    public void flush() {
+        for (ConfigErrorSummary report : endWindow()) {
+            deliver(report);
+        }
+    }
+
+    private List<ConfigErrorSummary> endWindow() {
+        remainingReports.set(maxReportsPerWindow);
+        long now = clock.getAsLong();
+        List<ConfigErrorSummary> reports = new ArrayList<>();
+        for (Group group : groups.values()) {
+            synchronized (group) {
+                if (group.removed) {
+                    continue;
+                }
+                if (group.pendingCount > 0) {
+                    if (tryAcquireReport()) {
+                        reports.add(group.drain());
+                    }
+                } else if (now - group.lastErrorMillis >= windowMillis) {
+                    group.removed = true;
+                    groups.remove(group.key, group);
+                }
+            }
+        }
+        return reports;
+    }
+
+    /**
+     * Errors counted without being reported individually.
+     */
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    /**
+     * Stops the periodic flush and reports what is pending. Errors recorded afterwards are only
+     * reported by explicit {@link #flush()} calls.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        HashedWheelTimer.Timeout flush = pendingFlush;
+        if (flush != null) {
+            flush.cancel();
+        }
+        flush();
+    }
+
+    private void record(ConfigErrorEvent<?> event) {
+        long now = clock.getAsLong();
+        Throwable error = event.getError();
+        GroupKey key = new GroupKey(event.getPhase(), event.getSource(), error == null ? null : error.getClass());
+        ConfigErrorSummary report = null;
+        while (true) {
+            Group group = groups.computeIfAbsent(key, Group::new);
+            synchronized (group) {
+                if (group.removed) {
+                    // Dropped by a concurrent flush; start a fresh group.
+                    continue;
+                }
+                group.add(event, now);
+                if (!group.reported && tryAcquireReport()) {
+                    report = group.drain();
+                } else {
+                    suppressed.increment();
+                }
+            }
+            break;
+        }
+        scheduleFlush();
+        if (report != null) {
+            deliver(report);
+        }
+    }
+
+    private boolean tryAcquireReport() {
+        while (true) {
+            int remaining = remainingReports.get();
+            if (remaining <= 0) {
+                return false;
+            }
+            if (remainingReports.compareAndSet(remaining, remaining - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void scheduleFlush() {
+        if (closed || !flushScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            pendingFlush = timer.newTimeout(this::onWindow, windowMillis, TimeUnit.MILLISECONDS);
+        } catch (IllegalStateException ignored) {
+            // Timer stopped; summaries are only delivered by explicit flushes.
+            flushScheduled.set(false);
+        }
+    }
+
+    private void onWindow() {
+        // Only the bookkeeping runs on the shared timer; listeners may block on logging I/O.
+        List<ConfigErrorSummary> reports = endWindow();
+        if (!reports.isEmpty()) {
+            try {
+                summaryExecutor.execute(() -> {
+                    for (ConfigErrorSummary report : reports) {
+                        deliver(report);
+                    }
+                });
+            } catch (RejectedExecutionException ignored) {
+                // Executor shut down; this window's summaries are lost, counting continues.
+            }
+        }
+        flushScheduled.set(false);
+        // The timer only runs while there are groups left to report or expire.
+        if (!groups.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    private void deliver(ConfigErrorSummary report) {
+        try {
+            summaryListener.onSummary(report);
+        } catch (Exception ignored) {
+            // Error reporting must never fail the notifier.
+        }
+    }
+
+    private static final class GroupKey {
+
+        private final ConfigErrorEvent.Phase phase;
+        private final ConfigSource<?> source;
+        private final Class<? extends Throwable> errorType;
+
+        GroupKey(ConfigErrorEvent.Phase phase, ConfigSource<?> source, Class<? extends Throwable> errorType) {
+            this.phase = phase;
+            this.source = source;
+            this.errorType = errorType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof GroupKey)) {
+                return false;
+            }
+            GroupKey other = (GroupKey) o;
+            // Sources are compared by identity; they rarely define equality.
+            return phase == other.phase && source == other.source && errorType == other.errorType;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(phase, System.identityHashCode(source), errorType);
+        }
+    }
+
+    private static final class Group {
+
+        final GroupKey key;
+        long pendingCount;
+        long totalCount;
+        Throwable firstError;
+        Throwable lastError;
+        long firstErrorMillis;
+        long lastErrorMillis;
+        int lastAttempt;
+        boolean retrying;
+        boolean reported;
+        boolean removed;
+
+        Group(GroupKey key) {
+            this.key = key;
+        }
+
+        void add(ConfigErrorEvent<?> event, long now) {
+            if (pendingCount == 0) {
+                firstError = event.getError();
+                firstErrorMillis = now;
+            }
+            pendingCount++;
+            totalCount++;
+            lastError = event.getError();
+            lastErrorMillis = now;
+            lastAttempt = event.getAttempt();
+            retrying = event.isRetrying();
+        }
+
+        ConfigErrorSummary drain() {
+            ConfigErrorSummary summary = new ConfigErrorSummary(key.phase, key.source, key.errorType, !reported,
+                    pendingCount, totalCount, firstError, lastError, firstErrorMillis, lastErrorMillis, lastAttempt, retrying);
+            reported = true;
+            pendingCount = 0;
+            firstError = null;
+            lastError = null;
+            return summary;
+        }
+    }
+
+    public static final class Builder {
+
+        private ConfigErrorSummaryListener summaryListener;
+        private Executor summaryExecutor = ForkJoinPool.commonPool();
+        private long windowMillis = 10000L;
+        private int maxReportsPerWindow = 100;
+        private HashedWheelTimer timer;
+        private LongSupplier clock = System::currentTimeMillis;
+
+        private Builder() {
+        }
+
+        public Builder summaryListener(ConfigErrorSummaryListener summaryListener) {
+            if (summaryListener == null) {
+                throw new IllegalArgumentException("summaryListener must not be null");
+            }
+            this.summaryListener = summaryListener;
+            return this;
+        }
+
+        /**
+         * Executor delivering the summaries of each window; defaults to the common pool.
+         */
+        public Builder summaryExecutor(Executor summaryExecutor) {
+            if (summaryExecutor == null) {
+                throw new IllegalArgumentException("summaryExecutor must not be null");
+            }
+            this.summaryExecutor = summaryExecutor;
+            return this;
+        }
+
+        public Builder windowMillis(long windowMillis) {
+            if (windowMillis <= 0) {
+                throw new IllegalArgumentException("windowMillis must be > 0");
+            }
+            this.windowMillis = windowMillis;
+            return this;
+        }
+
+        public Builder maxReportsPerWindow(int maxReportsPerWindow) {
+            if (maxReportsPerWindow <= 0) {
+                throw new IllegalArgumentException("maxReportsPerWindow must be > 0");
+            }
+            this.maxReportsPerWindow = maxReportsPerWindow;
+            return this;
+        }
+
+        /**
+         * Timer that ends each window; defaults to the timer shared by notifiers.
+         */
+        public Builder timer(HashedWheelTimer timer) {
+            if (timer == null) {
+                throw new IllegalArgumentException("timer must not be null");
+            }
+            this.timer = timer;
+            return this;
+        }
+
+        /**
+         * Wall clock in milliseconds used for error timestamps and idle detection.
+         */
+        public Builder clock(LongSupplier clock) {
+            if (clock == null) {
+                throw new IllegalArgumentException("clock must not be null");
+            }
+            this.clock = clock;
+            return this;
+        }
+
+        public ConfigErrorAggregator build() {
+            if (summaryListener == null) {
+                throw new IllegalStateException("summaryListener is required");
+            }
+            return new ConfigErrorAggregator(this);
+        }
+    }
+}
@@ -13,6 +13,8 @@ public final class ConfigErrorEvent<T> {
     private final boolean retrying;
     private final ConfigChangeEvent<T> changeEvent;
     private final ConfigChangeListener<T> listener;
+    private final AsyncConfigChangeListener<T> asyncListener;
+    private final ConfigSource<T> source;
 
     public ConfigErrorEvent(Phase phase,
                             Throwable error,
@@ -20,12 +22,35 @@ public final class ConfigErrorEvent<T> {
                             boolean retrying,
                             ConfigChangeEvent<T> changeEvent,
                             ConfigChangeListener<T> listener) {
+        this(phase, error, attempt, retrying, changeEvent, listener, null);
+    }
+
+    public ConfigErrorEvent(Phase phase,
+                            Throwable error,
+                            int attempt,
+                            boolean retrying,
+                            ConfigChangeEvent<T> changeEvent,
+                            ConfigChangeListener<T> listener,
+                            AsyncConfigChangeListener<T> asyncListener) {
+        this(phase, error, attempt, retrying, changeEvent, listener, asyncListener, null);
+    }
+
+    public ConfigErrorEvent(Phase phase,
+                            Throwable error,
+                            int attempt,
+                            boolean retrying,
+                            ConfigChangeEvent<T> changeEvent,
+                            ConfigChangeListener<T> listener,
+                            AsyncConfigChangeListener<T> asyncListener,
+                            ConfigSource<T> source) {
         this.phase = phase;
         this.error = error;
         this.attempt = attempt;
         this.retrying = retrying;
         this.changeEvent = changeEvent;
         this.listener = listener;
+        this.asyncListener = asyncListener;
+        this.source = source;
     }
 
     public Phase getPhase() {
@@ -51,4 +76,15 @@ public final class ConfigErrorEvent<T> {
     public ConfigChangeListener<T> getListener() {
         return listener;
     }
+
+    public AsyncConfigChangeListener<T> getAsyncListener() {
+        return asyncListener;
+    }
+
+    /**
+     * The source of the notifier that reported the error, or null if unknown.
+     */
+    public ConfigSource<T> getSource() {
+        return source;
+    }
 }
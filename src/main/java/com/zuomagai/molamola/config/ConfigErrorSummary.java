@@ -0,0 +1,114 @@
+package com.zuomagai.molamola.config;
+
+/**
+ * Errors of one phase, source and exception type reported together by a {@link ConfigErrorAggregator}.
+ */
+public final class ConfigErrorSummary {
+
+    private final ConfigErrorEvent.Phase phase;
+    private final ConfigSource<?> source;
+    private final Class<? extends Throwable> errorType;
+    private final boolean firstOccurrence;
+    private final long count;
+    private final long totalCount;
+    private final Throwable firstError;
+    private final Throwable lastError;
+    private final long firstErrorMillis;
+    private final long lastErrorMillis;
+    private final int lastAttempt;
+    private final boolean retrying;
+
+    ConfigErrorSummary(ConfigErrorEvent.Phase phase,
+                       ConfigSource<?> source,
+                       Class<? extends Throwable> errorType,
+                       boolean firstOccurrence,
+                       long count,
+                       long totalCount,
+                       Throwable firstError,
+                       Throwable lastError,
+                       long firstErrorMillis,
+                       long lastErrorMillis,
+                       int lastAttempt,
+                       boolean retrying) {
+        this.phase = phase;
+        this.source = source;
+        this.errorType = errorType;
+        this.firstOccurrence = firstOccurrence;
+        this.count = count;
+        this.totalCount = totalCount;
+        this.firstError = firstError;
+        this.lastError = lastError;
+        this.firstErrorMillis = firstErrorMillis;
+        this.lastErrorMillis = lastErrorMillis;
+        this.lastAttempt = lastAttempt;
+        this.retrying = retrying;
+    }
+
+    public ConfigErrorEvent.Phase getPhase() {
+        return phase;
+    }
+
+    public ConfigSource<?> getSource() {
+        return source;
+    }
+
+    public Class<? extends Throwable> getErrorType() {
+        return errorType;
+    }
+
+    /**
+     * True for the first report of a group, false for the periodic summaries that follow.
+     */
+    public boolean isFirstOccurrence() {
+        return firstOccurrence;
+    }
+
+    /**
+     * Errors covered by this report, i.e. since the previous report of the group.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public Throwable getFirstError() {
+        return firstError;
+    }
+
+    public Throwable getLastError() {
+        return lastError;
+    }
+
+    public long getFirstErrorMillis() {
+        return firstErrorMillis;
+    }
+
+    public long getLastErrorMillis() {
+        return lastErrorMillis;
+    }
+
+    public int getLastAttempt() {
+        return lastAttempt;
+    }
+
+    /**
+     * Whether the notifier was still retrying after the last error.
+     */
+    public boolean isRetrying() {
+        return retrying;
+    }
+
+    @Override
+    public String toString() {
+        return "ConfigErrorSummary{phase=" + phase
+                + ", errorType=" + (errorType == null ? null : errorType.getName())
+                + ", count=" + count
+                + ", totalCount=" + totalCount
+                + ", lastAttempt=" + lastAttempt
+                + ", retrying=" + retrying
+                + ", lastError=" + lastError + "}";
+    }
+}
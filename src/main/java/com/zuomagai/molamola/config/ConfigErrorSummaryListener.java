@@ -0,0 +1,6 @@
+package com.zuomagai.molamola.config;
+
+public interface ConfigErrorSummaryListener {
+
+    void onSummary(ConfigErrorSummary summary);
+}
@@ -1,14 +1,32 @@
 package com.zuomagai.molamola.config;
 
+import com.zuomagai.molamola.config.jfr.ConfigEvents;
 import com.zuomagai.molamola.config.retry.RetryPolicy;
 import com.zuomagai.molamola.config.retry.SimpleRetryPolicy;
+import com.zuomagai.molamola.thread.HashedWheelTimer;
 import com.zuomagai.molamola.thread.NamedThreadFactory;
 
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 public final class ConfigNotifier<T> implements AutoCloseable {
 
@@ -17,13 +35,31 @@ public final class ConfigNotifier<T> implements AutoCloseable {
     private final RetryPolicy fetchRetryPolicy;
     private final RetryPolicy listenerRetryPolicy;
     private final long pollIntervalMillis;
+    private final long refreshStalenessNanos;
+    private final Executor refreshExecutor;
+    private final int asyncListenerMaxInFlight;
+    private final Executor derivationExecutor;
     private final ThreadFactory threadFactory;
+    private final Executor pollExecutor;
+    private final HashedWheelTimer timer;
     private final CopyOnWriteArrayList<ConfigChangeListener<T>> listeners;
+    private final CopyOnWriteArrayList<AsyncListenerSlot> asyncListeners;
+    private final CopyOnWriteArrayList<ConfigAppliedListener<T>> appliedListeners;
     private final CopyOnWriteArrayList<ConfigErrorListener<T>> errorListeners;
+    private final ConcurrentHashMap<String, ConfigDerivation<T, ?>> derivations = new ConcurrentHashMap<>();
     private final AtomicBoolean running = new AtomicBoolean(false);
-    private final Object pollLock = new Object();
+    private final Semaphore pollPermit = new Semaphore(1);
+    private final PollCycle cycle = new PollCycle();
+    private final AtomicReference<CompletableFuture<ConfigSnapshot<T>>> inflightRefresh = new AtomicReference<>();
     private volatile ConfigSnapshot<T> lastSnapshot;
+    private volatile long lastFetchNanos;
+    private Exception lastFetchError;
     private volatile Thread worker;
+    private volatile Thread cycleThread;
+    private volatile Executor activeExecutor;
+    private volatile ExecutorService ownedExecutor;
+    private volatile HashedWheelTimer.Timeout pendingPoll;
+    private volatile HashedWheelTimer.Timeout pendingRetry;
 
     private ConfigNotifier(Builder<T> builder) {
         this.source = builder.source;
@@ -31,8 +67,19 @@ public final class ConfigNotifier<T> implements AutoCloseable {
         this.fetchRetryPolicy = builder.fetchRetryPolicy;
         this.listenerRetryPolicy = builder.listenerRetryPolicy;
         this.pollIntervalMillis = builder.pollIntervalMillis;
+        this.refreshStalenessNanos = TimeUnit.MILLISECONDS.toNanos(builder.refreshStalenessMillis);
+        this.refreshExecutor = builder.refreshExecutor;
+        this.asyncListenerMaxInFlight = builder.asyncListenerMaxInFlight;
+        this.derivationExecutor = builder.derivationExecutor;
         this.threadFactory = builder.threadFactory;
+        this.pollExecutor = builder.pollExecutor;
+        this.timer = builder.timer;
         this.listeners = new CopyOnWriteArrayList<>(builder.listeners);
+        this.asyncListeners = new CopyOnWriteArrayList<>();
+        for (AsyncConfigChangeListener<T> listener : builder.asyncListeners) {
+            asyncListeners.add(new AsyncListenerSlot(listener));
+        }
+        this.appliedListeners = new CopyOnWriteArrayList<>(builder.appliedListeners);
         this.errorListeners = new CopyOnWriteArrayList<>(builder.errorListeners);
     }
 
@@ -46,6 +93,18 @@ public final class ConfigNotifier<T> implements AutoCloseable {
         }
     }
 
+    public void addAsyncListener(AsyncConfigChangeListener<T> listener) {
+        if (listener != null) {
+            asyncListeners.add(new AsyncListenerSlot(listener));
+        }
+    }
+
+    public void addAppliedListener(ConfigAppliedListener<T> listener) {
+        if (listener != null) {
+            appliedListeners.add(listener);
+        }
+    }
+
     public void addErrorListener(ConfigErrorListener<T> listener) {
         if (listener != null) {
             errorListeners.add(listener);
@@ -58,12 +117,56 @@ public final class ConfigNotifier<T> implements AutoCloseable {
         }
     }
 
+    public void removeAsyncListener(AsyncConfigChangeListener<T> listener) {
+        if (listener != null) {
+            asyncListeners.removeIf(slot -> slot.listener == listener);
+        }
+    }
+
+    public void removeAppliedListener(ConfigAppliedListener<T> listener) {
+        if (listener != null) {
+            appliedListeners.remove(listener);
+        }
+    }
+
     public void removeErrorListener(ConfigErrorListener<T> listener) {
         if (listener != null) {
             errorListeners.remove(listener);
         }
     }
 
+    public <R> ConfigDerivation<T, R> derive(String name, Function<? super T, ? extends R> function) {
+        return derive(name, function, false);
+    }
+
+    /**
+     * Registers a named derived value. Eager derivations are computed on the derivation executor
+     * as soon as a changed snapshot is fetched; lazy ones on first access.
+     */
+    public <R> ConfigDerivation<T, R> derive(String name, Function<? super T, ? extends R> function, boolean eager) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("derivation name must not be blank");
+        }
+        if (function == null) {
+            throw new IllegalArgumentException("function must not be null");
+        }
+        ConfigDerivation<T, R> derivation = new ConfigDerivation<>(name, function, eager, this::getLastSnapshot);
+        if (derivations.putIfAbsent(name, derivation) != null) {
+            throw new IllegalArgumentException("derivation already registered: " + name);
+        }
+        ConfigSnapshot<T> snapshot = lastSnapshot;
+        if (eager && snapshot != null) {
+            derivationExecutor.execute(() -> derivation.precompute(snapshot));
+        }
+        return derivation;
+    }
+
+    public void removeDerivation(String name) {
+        if (name != null) {
+            derivations.remove(name);
+        }
+    }
+
     public boolean isRunning() {
         return running.get();
     }
@@ -74,18 +177,38 @@ public final class ConfigNotifier<T> implements AutoCloseable {
 
     public void start() {
         if (running.compareAndSet(false, true)) {
-            Thread thread = threadFactory.newThread(this::runLoop);
-            worker = thread;
-            thread.start();
+            Executor executor = pollExecutor;
+            if (executor == null) {
+                ExecutorService owned = Executors.newSingleThreadExecutor(threadFactory);
+                ownedExecutor = owned;
+                executor = owned;
+            }
+            activeExecutor = executor;
+            submitPoll();
         }
     }
 
     public void stop() {
         running.set(false);
+        HashedWheelTimer.Timeout poll = pendingPoll;
+        if (poll != null) {
+            poll.cancel();
+        }
+        HashedWheelTimer.Timeout retry = pendingRetry;
+        if (retry != null && retry.cancel()) {
+            // The cancelled retry owned the poll permit; nothing else will release it.
+            cycle.abort();
+            pollPermit.release();
+        }
         Thread thread = worker;
         if (thread != null) {
             thread.interrupt();
         }
+        ExecutorService owned = ownedExecutor;
+        ownedExecutor = null;
+        if (owned != null) {
+            owned.shutdown();
+        }
     }
 
     @Override
@@ -94,116 +217,562 @@ public final class ConfigNotifier<T> implements AutoCloseable {
     }
 
     public boolean pollOnce() {
-        synchronized (pollLock) {
-            return doPoll(false);
+        if (cycleThread == Thread.currentThread()) {
+            // Called from a listener of the running cycle, which already holds the permit.
+            return runCycle(new PollCycle());
+        }
+        pollPermit.acquireUninterruptibly();
+        try {
+            return runCycle(cycle);
+        } finally {
+            pollPermit.release();
         }
     }
 
-    private void runLoop() {
-        while (running.get()) {
-            synchronized (pollLock) {
-                doPoll(true);
+    /**
+     * Fetches the latest snapshot, sharing one in-flight fetch between concurrent callers.
+     * Returns the current snapshot without fetching if it is younger than the staleness window.
+     */
+    public CompletableFuture<ConfigSnapshot<T>> refresh() {
+        while (true) {
+            ConfigSnapshot<T> snapshot = lastSnapshot;
+            if (snapshot != null && refreshStalenessNanos > 0
+                    && System.nanoTime() - lastFetchNanos < refreshStalenessNanos) {
+                return CompletableFuture.completedFuture(snapshot);
             }
-            if (!running.get()) {
-                break;
+            CompletableFuture<ConfigSnapshot<T>> inflight = inflightRefresh.get();
+            if (inflight != null) {
+                return inflight;
             }
-            if (pollIntervalMillis > 0) {
-                if (!sleep(pollIntervalMillis, true)) {
-                    break;
+            CompletableFuture<ConfigSnapshot<T>> future = new CompletableFuture<>();
+            if (inflightRefresh.compareAndSet(null, future)) {
+                try {
+                    refreshExecutor.execute(() -> runRefresh(future));
+                } catch (RuntimeException ex) {
+                    inflightRefresh.compareAndSet(future, null);
+                    future.completeExceptionally(ex);
                 }
+                return future;
             }
         }
     }
 
-    private boolean doPoll(boolean allowStop) {
-        ConfigSnapshot<T> snapshot = fetchWithRetry(allowStop);
-        if (snapshot == null) {
-            return false;
+    private void runRefresh(CompletableFuture<ConfigSnapshot<T>> future) {
+        long requestNanos = System.nanoTime();
+        ConfigSnapshot<T> snapshot = null;
+        Throwable error = null;
+        try {
+            boolean nested = cycleThread == Thread.currentThread();
+            if (!nested) {
+                pollPermit.acquireUninterruptibly();
+            }
+            try {
+                // A poll that finished while we waited for the permit is fresh enough.
+                if (!hasFetchedSince(requestNanos)) {
+                    runCycle(nested ? new PollCycle() : cycle);
+                }
+                if (hasFetchedSince(requestNanos)) {
+                    snapshot = lastSnapshot;
+                } else {
+                    error = lastFetchError != null ? lastFetchError : new IllegalStateException("Config fetch aborted");
+                }
+            } finally {
+                if (!nested) {
+                    pollPermit.release();
+                }
+            }
+        } catch (Throwable ex) {
+            error = ex;
+        } finally {
+            inflightRefresh.compareAndSet(future, null);
         }
-        boolean changed = changeDetector.isChanged(lastSnapshot, snapshot);
-        if (changed && !listeners.isEmpty()) {
-            ConfigChangeEvent<T> event = new ConfigChangeEvent<>(lastSnapshot, snapshot);
-            notifyListeners(event, allowStop);
+        if (error != null) {
+            future.completeExceptionally(error);
+        } else {
+            future.complete(snapshot);
         }
-        lastSnapshot = snapshot;
-        return changed;
     }
 
-    private ConfigSnapshot<T> fetchWithRetry(boolean allowStop) {
-        int attempt = 0;
-        while (true) {
-            try {
-                return source.fetch();
-            } catch (Exception ex) {
-                attempt++;
-                long delay = fetchRetryPolicy.nextDelayMillis(attempt, ex);
-                boolean retrying = delay >= 0;
-                notifyError(new ConfigErrorEvent<>(ConfigErrorEvent.Phase.FETCH, ex, attempt, retrying, null, null));
-                if (!retrying) {
-                    return null;
+    private boolean hasFetchedSince(long nanos) {
+        return lastSnapshot != null && lastFetchNanos - nanos >= 0;
+    }
+
+    private boolean runCycle(PollCycle target) {
+        target.reset(false);
+        Thread previous = cycleThread;
+        cycleThread = Thread.currentThread();
+        try {
+            while (true) {
+                long delay = target.advance();
+                if (delay < 0) {
+                    return target.changed;
                 }
-                if (allowStop && !running.get()) {
-                    return null;
+                if (!sleep(delay)) {
+                    target.abort();
+                    return target.changed;
                 }
-                if (!sleep(delay, allowStop)) {
-                    return null;
+            }
+        } finally {
+            cycleThread = previous;
+        }
+    }
+
+    private void submitPoll() {
+        try {
+            activeExecutor.execute(this::backgroundPoll);
+        } catch (RejectedExecutionException ignored) {
+            // Stopped while the next poll was being scheduled.
+        }
+    }
+
+    private void backgroundPoll() {
+        pendingPoll = null;
+        if (!running.get()) {
+            return;
+        }
+        pollPermit.acquireUninterruptibly();
+        cycle.reset(true);
+        continueCycle();
+    }
+
+    private void continueCycle() {
+        pendingRetry = null;
+        worker = Thread.currentThread();
+        cycleThread = worker;
+        long delay = -1L;
+        try {
+            while (running.get()) {
+                delay = cycle.advance();
+                if (delay != 0) {
+                    break;
                 }
             }
+            if (!running.get()) {
+                cycle.abort();
+                delay = -1L;
+                Thread.interrupted();
+            }
+        } catch (Throwable ex) {
+            cycle.abort();
+            pollPermit.release();
+            scheduleNextPoll();
+            throw ex;
+        } finally {
+            worker = null;
+            cycleThread = null;
+        }
+        if (delay > 0) {
+            try {
+                // Wait on the timer rather than a sleeping thread; the permit stays with this cycle.
+                pendingRetry = timer().newTimeout(this::dispatchRetry, delay, TimeUnit.MILLISECONDS);
+                return;
+            } catch (IllegalStateException ex) {
+                cycle.abort();
+            }
         }
+        pollPermit.release();
+        scheduleNextPoll();
     }
 
-    private void notifyListeners(ConfigChangeEvent<T> event, boolean allowStop) {
-        for (ConfigChangeListener<T> listener : listeners) {
-            int attempt = 0;
-            while (true) {
+    private void dispatchRetry() {
+        try {
+            activeExecutor.execute(this::continueCycle);
+        } catch (RejectedExecutionException ex) {
+            cycle.abort();
+            pollPermit.release();
+        }
+    }
+
+    private void scheduleNextPoll() {
+        if (!running.get()) {
+            return;
+        }
+        if (pollIntervalMillis <= 0) {
+            submitPoll();
+            return;
+        }
+        try {
+            pendingPoll = timer().newTimeout(this::submitPoll, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        } catch (IllegalStateException ignored) {
+            // Timer stopped; background polling ends.
+        }
+    }
+
+    private HashedWheelTimer timer() {
+        return timer != null ? timer : DefaultTimerHolder.TIMER;
+    }
+
+    private void precomputeDerivations(ConfigSnapshot<T> snapshot) {
+        for (ConfigDerivation<T, ?> derivation : derivations.values()) {
+            if (derivation.isEager()) {
                 try {
-                    listener.onChange(event);
-                    break;
-                } catch (Exception ex) {
-                    attempt++;
-                    long delay = listenerRetryPolicy.nextDelayMillis(attempt, ex);
-                    boolean retrying = delay >= 0;
-                    notifyError(new ConfigErrorEvent<>(ConfigErrorEvent.Phase.LISTENER, ex, attempt, retrying, event, listener));
-                    if (!retrying) {
-                        break;
-                    }
-                    if (allowStop && !running.get()) {
-                        return;
-                    }
-                    if (!sleep(delay, allowStop)) {
-                        return;
-                    }
+                    derivationExecutor.execute(() -> derivation.precompute(snapshot));
+                } catch (RejectedExecutionException ignored) {
+                    // Falls back to computing on first access.
                 }
             }
         }
     }
 
-    private void notifyError(ConfigErrorEvent<T> event) {
+    private void notifyError(ConfigErrorEvent.Phase phase,
+                             Throwable error,
+                             int attempt,
+                             boolean retrying,
+                             ConfigChangeEvent<T> changeEvent,
+                             ConfigChangeListener<T> listener,
+                             AsyncConfigChangeListener<T> asyncListener) {
         if (errorListeners.isEmpty()) {
+            // Skip building the event entirely; outages should not churn garbage when nobody listens.
             return;
         }
-        for (ConfigErrorListener<T> listener : errorListeners) {
+        ConfigErrorEvent<T> event = new ConfigErrorEvent<>(phase, error, attempt, retrying, changeEvent, listener, asyncListener, source);
+        for (ConfigErrorListener<T> errorListener : errorListeners) {
             try {
-                listener.onError(event);
+                errorListener.onError(event);
             } catch (Exception ignored) {
                 // Keep notifier alive even if error handlers fail.
             }
         }
     }
 
-    private boolean sleep(long delayMillis, boolean allowStop) {
+    private boolean sleep(long delayMillis) {
         if (delayMillis <= 0) {
-            return !(allowStop && !running.get());
+            return true;
         }
         try {
             Thread.sleep(delayMillis);
-            return !(allowStop && !running.get());
+            return true;
         } catch (InterruptedException ex) {
             Thread.currentThread().interrupt();
             return false;
         }
     }
 
+    private static Throwable unwrap(Throwable error) {
+        if (error instanceof CompletionException && error.getCause() != null) {
+            return error.getCause();
+        }
+        return error;
+    }
+
+    static final class DefaultTimerHolder {
+
+        static final HashedWheelTimer TIMER = new HashedWheelTimer("config-timer-");
+    }
+
+    /**
+     * One fetch-and-notify round, advanced step by step so retries can wait either by sleeping
+     * (pollOnce/refresh) or on the timer (background polling). Guarded by the poll permit.
+     */
+    private final class PollCycle {
+
+        private boolean allowStop;
+        private boolean fetched;
+        private boolean changed;
+        private boolean complete;
+        private int fetchAttempt;
+        private ConfigSnapshot<T> snapshot;
+        private ConfigChangeEvent<T> event;
+        private ApplyTracker tracker;
+        private Iterator<ConfigChangeListener<T>> pendingListeners;
+        private ConfigChangeListener<T> listener;
+        private int listenerAttempt;
+        private int failedListeners;
+        private Object retryEvent;
+
+        void reset(boolean allowStop) {
+            this.allowStop = allowStop;
+            retryEvent = null;
+            fetched = false;
+            changed = false;
+            complete = false;
+            fetchAttempt = 0;
+            failedListeners = 0;
+        }
+
+        /**
+         * Returns a retry delay in millis, or -1 once the cycle is complete.
+         */
+        long advance() {
+            if (retryEvent != null) {
+                ConfigEvents.endRetry(retryEvent);
+                retryEvent = null;
+            }
+            if (!fetched) {
+                long delay = fetch();
+                if (delay >= 0) {
+                    return delay;
+                }
+                if (!fetched || snapshot == null) {
+                    finish();
+                    return -1L;
+                }
+                changed = changeDetector.isChanged(lastSnapshot, snapshot);
+                if (changed) {
+                    beginDelivery();
+                }
+            }
+            if (pendingListeners != null) {
+                long delay = deliver();
+                if (delay >= 0) {
+                    return delay;
+                }
+            }
+            finish();
+            return -1L;
+        }
+
+        void abort() {
+            if (complete) {
+                return;
+            }
+            // The current listener and every one after it never applied this change.
+            if (listener != null) {
+                failedListeners++;
+                listener = null;
+            }
+            if (pendingListeners != null) {
+                while (pendingListeners.hasNext()) {
+                    pendingListeners.next();
+                    failedListeners++;
+                }
+            }
+            finish();
+        }
+
+        private long fetch() {
+            try {
+                snapshot = source.fetch();
+                fetched = true;
+                lastFetchNanos = System.nanoTime();
+                lastFetchError = null;
+                return -1L;
+            } catch (Exception ex) {
+                lastFetchError = ex;
+                fetchAttempt++;
+                long delay = fetchRetryPolicy.nextDelayMillis(fetchAttempt, ex);
+                boolean retrying = delay >= 0;
+                notifyError(ConfigErrorEvent.Phase.FETCH, ex, fetchAttempt, retrying, null, null, null);
+                if (delay > 0) {
+                    retryEvent = ConfigEvents.beginRetry(ConfigErrorEvent.Phase.FETCH, fetchAttempt, delay);
+                }
+                return retrying ? delay : -1L;
+            }
+        }
+
+        private void beginDelivery() {
+            precomputeDerivations(snapshot);
+            if (listeners.isEmpty() && asyncListeners.isEmpty() && appliedListeners.isEmpty()) {
+                return;
+            }
+            event = new ConfigChangeEvent<>(lastSnapshot, snapshot);
+            // One snapshot sizes the tracker and drives the submits, whatever is added or removed meanwhile.
+            List<AsyncListenerSlot> slots = new ArrayList<>(asyncListeners);
+            tracker = new ApplyTracker(event, slots.size() + 1);
+            for (AsyncListenerSlot slot : slots) {
+                slot.submit(new AsyncDelivery(slot, event, tracker, allowStop));
+            }
+            pendingListeners = listeners.iterator();
+        }
+
+        private long deliver() {
+            while (true) {
+                if (listener == null) {
+                    if (!pendingListeners.hasNext()) {
+                        return -1L;
+                    }
+                    listener = pendingListeners.next();
+                    listenerAttempt = 0;
+                }
+                Object listenerEvent = ConfigEvents.beginListener(listener, snapshot.getVersion(), listenerAttempt + 1);
+                try {
+                    listener.onChange(event);
+                    ConfigEvents.endListener(listenerEvent, null);
+                    listener = null;
+                } catch (Exception ex) {
+                    ConfigEvents.endListener(listenerEvent, ex);
+                    listenerAttempt++;
+                    long delay = listenerRetryPolicy.nextDelayMillis(listenerAttempt, ex);
+                    boolean retrying = delay >= 0;
+                    notifyError(ConfigErrorEvent.Phase.LISTENER, ex, listenerAttempt, retrying, event, listener, null);
+                    if (delay > 0) {
+                        retryEvent = ConfigEvents.beginRetry(ConfigErrorEvent.Phase.LISTENER, listenerAttempt, delay);
+                    }
+                    if (retrying) {
+                        return delay;
+                    }
+                    failedListeners++;
+                    listener = null;
+                }
+            }
+        }
+
+        private void finish() {
+            // Publish first so applied listeners, which may retire the previous version, never see it served.
+            if (fetched && snapshot != null) {
+                lastSnapshot = snapshot;
+            }
+            if (tracker != null) {
+                tracker.done(failedListeners);
+            }
+            complete = true;
+            // The cycle is reused, so drop references that would pin old snapshots.
+            snapshot = null;
+            event = null;
+            tracker = null;
+            pendingListeners = null;
+            listener = null;
+        }
+    }
+
+    private final class ApplyTracker {
+
+        private final ConfigChangeEvent<T> event;
+        private final AtomicInteger remaining;
+        private final AtomicInteger failed = new AtomicInteger();
+
+        ApplyTracker(ConfigChangeEvent<T> event, int parties) {
+            this.event = event;
+            this.remaining = new AtomicInteger(parties);
+        }
+
+        void done(int failures) {
+            if (failures > 0) {
+                failed.addAndGet(failures);
+            }
+            if (remaining.decrementAndGet() != 0) {
+                return;
+            }
+            for (ConfigAppliedListener<T> listener : appliedListeners) {
+                try {
+                    listener.onApplied(event, failed.get());
+                } catch (Exception ignored) {
+                    // Keep notifier alive even if applied callbacks fail.
+                }
+            }
+        }
+    }
+
+    private final class AsyncListenerSlot {
+
+        private final AsyncConfigChangeListener<T> listener;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final ConcurrentLinkedQueue<AsyncDelivery> pending = new ConcurrentLinkedQueue<>();
+
+        AsyncListenerSlot(AsyncConfigChangeListener<T> listener) {
+            this.listener = listener;
+        }
+
+        void submit(AsyncDelivery delivery) {
+            pending.offer(delivery);
+            drain();
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+            drain();
+        }
+
+        private void drain() {
+            while (!pending.isEmpty()) {
+                int current = inFlight.get();
+                if (current >= asyncListenerMaxInFlight) {
+                    return;
+                }
+                if (!inFlight.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                AsyncDelivery delivery = pending.poll();
+                if (delivery == null) {
+                    inFlight.decrementAndGet();
+                    continue;
+                }
+                delivery.attempt();
+            }
+        }
+    }
+
+    private final class AsyncDelivery {
+
+        private final AsyncListenerSlot slot;
+        private final ConfigChangeEvent<T> event;
+        private final ApplyTracker tracker;
+        private final boolean allowStop;
+        private int attempt;
+
+        AsyncDelivery(AsyncListenerSlot slot, ConfigChangeEvent<T> event, ApplyTracker tracker, boolean allowStop) {
+            this.slot = slot;
+            this.event = event;
+            this.tracker = tracker;
+            this.allowStop = allowStop;
+        }
+
+        void attempt() {
+            Object listenerEvent = ConfigEvents.beginListener(slot.listener, event.getCurrent().getVersion(), attempt + 1);
+            CompletionStage<?> stage;
+            try {
+                stage = slot.listener.onChange(event);
+            } catch (Throwable ex) {
+                ConfigEvents.endListener(listenerEvent, ex);
+                onFailure(ex);
+                return;
+            }
+            if (stage == null) {
+                ConfigEvents.endListener(listenerEvent, null);
+                finish(0);
+                return;
+            }
+            stage.whenComplete((result, error) -> {
+                Throwable cause = error == null ? null : unwrap(error);
+                ConfigEvents.endListener(listenerEvent, cause);
+                if (cause == null) {
+                    finish(0);
+                } else {
+                    onFailure(cause);
+                }
+            });
+        }
+
+        private void onFailure(Throwable error) {
+            attempt++;
+            long delay = listenerRetryPolicy.nextDelayMillis(attempt, error);
+            boolean retrying = delay >= 0 && !(allowStop && !running.get());
+            notifyError(ConfigErrorEvent.Phase.LISTENER, error, attempt, retrying, event, null, slot.listener);
+            if (!retrying) {
+                finish(1);
+                return;
+            }
+            if (delay == 0) {
+                attempt();
+                return;
+            }
+            Object retryEvent = ConfigEvents.beginRetry(ConfigErrorEvent.Phase.LISTENER, attempt, delay);
+            try {
+                timer().newTimeout(() -> {
+                    ConfigEvents.endRetry(retryEvent);
+                    resubmit();
+                }, delay, TimeUnit.MILLISECONDS);
+            } catch (IllegalStateException ex) {
+                finish(1);
+            }
+        }
+
+        private void resubmit() {
+            // The timer thread is shared by every notifier; the listener must not run on it.
+            Executor executor = activeExecutor != null ? activeExecutor : ForkJoinPool.commonPool();
+            try {
+                executor.execute(this::attempt);
+            } catch (RejectedExecutionException ex) {
+                finish(1);
+            }
+        }
+
+        private void finish(int failures) {
+            slot.release();
+            tracker.done(failures);
+        }
+    }
+
     public static final class Builder<T> {
 
         private ConfigSource<T> source;
@@ -211,8 +780,16 @@ public final class ConfigNotifier<T> implements AutoCloseable {
         private RetryPolicy fetchRetryPolicy = SimpleRetryPolicy.noRetry();
         private RetryPolicy listenerRetryPolicy = SimpleRetryPolicy.noRetry();
         private long pollIntervalMillis = 1000L;
+        private long refreshStalenessMillis = 0L;
+        private Executor refreshExecutor = Runnable::run;
+        private int asyncListenerMaxInFlight = 1;
+        private Executor derivationExecutor = ForkJoinPool.commonPool();
         private ThreadFactory threadFactory = new NamedThreadFactory("config-notify-", true);
+        private Executor pollExecutor;
+        private HashedWheelTimer timer;
         private final List<ConfigChangeListener<T>> listeners = new ArrayList<>();
+        private final List<AsyncConfigChangeListener<T>> asyncListeners = new ArrayList<>();
+        private final List<ConfigAppliedListener<T>> appliedListeners = new ArrayList<>();
         private final List<ConfigErrorListener<T>> errorListeners = new ArrayList<>();
 
         public Builder<T> source(ConfigSource<T> source) {
@@ -231,6 +808,22 @@ public final class ConfigNotifier<T> implements AutoCloseable {
             return this;
         }
 
+        public Builder<T> refreshStalenessMillis(long refreshStalenessMillis) {
+            if (refreshStalenessMillis < 0) {
+                throw new IllegalArgumentException("refreshStalenessMillis must be >= 0");
+            }
+            this.refreshStalenessMillis = refreshStalenessMillis;
+            return this;
+        }
+
+        public Builder<T> refreshExecutor(Executor refreshExecutor) {
+            if (refreshExecutor == null) {
+                throw new IllegalArgumentException("refreshExecutor must not be null");
+            }
+            this.refreshExecutor = refreshExecutor;
+            return this;
+        }
+
         public Builder<T> changeDetector(ConfigChangeDetector<T> changeDetector) {
             if (changeDetector == null) {
                 throw new IllegalArgumentException("changeDetector must not be null");
@@ -263,6 +856,28 @@ public final class ConfigNotifier<T> implements AutoCloseable {
             return this;
         }
 
+        /**
+         * Runs background polls on a shared executor instead of a dedicated thread from the thread factory.
+         */
+        public Builder<T> pollExecutor(Executor pollExecutor) {
+            if (pollExecutor == null) {
+                throw new IllegalArgumentException("pollExecutor must not be null");
+            }
+            this.pollExecutor = pollExecutor;
+            return this;
+        }
+
+        /**
+         * Timer used for poll intervals and retry backoffs; defaults to a timer shared by all notifiers.
+         */
+        public Builder<T> timer(HashedWheelTimer timer) {
+            if (timer == null) {
+                throw new IllegalArgumentException("timer must not be null");
+            }
+            this.timer = timer;
+            return this;
+        }
+
         public Builder<T> addListener(ConfigChangeListener<T> listener) {
             if (listener != null) {
                 listeners.add(listener);
@@ -270,6 +885,36 @@ public final class ConfigNotifier<T> implements AutoCloseable {
             return this;
         }
 
+        public Builder<T> addAsyncListener(AsyncConfigChangeListener<T> listener) {
+            if (listener != null) {
+                asyncListeners.add(listener);
+            }
+            return this;
+        }
+
+        public Builder<T> asyncListenerMaxInFlight(int asyncListenerMaxInFlight) {
+            if (asyncListenerMaxInFlight <= 0) {
+                throw new IllegalArgumentException("asyncListenerMaxInFlight must be > 0");
+            }
+            this.asyncListenerMaxInFlight = asyncListenerMaxInFlight;
+            return this;
+        }
+
+        public Builder<T> derivationExecutor(Executor derivationExecutor) {
+            if (derivationExecutor == null) {
+                throw new IllegalArgumentException("derivationExecutor must not be null");
+            }
+            this.derivationExecutor = derivationExecutor;
+            return this;
+        }
+
+        public Builder<T> addAppliedListener(ConfigAppliedListener<T> listener) {
+            if (listener != null) {
+                appliedListeners.add(listener);
+            }
+            return this;
+        }
+
         public Builder<T> addErrorListener(ConfigErrorListener<T> listener) {
             if (listener != null) {
                 errorListeners.add(listener);
@@ -2,12 +2,42 @@ package com.zuomagai.molamola.config;
 
 public final class ConfigSnapshot<T> {
 
+    public interface RawValueParser<T> {
+        T parse(byte[] raw) throws Exception;
+    }
+
     private final String version;
+    private final byte[] raw;
+    // Final so eager snapshots stay safely published; lazy ones hold their mutable state in a holder.
     private final T value;
+    private final LazyValue<T> lazy;
 
     public ConfigSnapshot(String version, T value) {
         this.version = version;
+        this.raw = null;
         this.value = value;
+        this.lazy = null;
+    }
+
+    private ConfigSnapshot(String version, byte[] raw, RawValueParser<T> parser) {
+        this.version = version;
+        this.raw = raw;
+        this.value = null;
+        this.lazy = new LazyValue<>(parser);
+    }
+
+    /**
+     * Creates a snapshot that keeps the raw payload and parses it on the first {@link #getValue()} call.
+     * The parsed value (or the parse failure) is memoized.
+     */
+    public static <T> ConfigSnapshot<T> lazy(String version, byte[] raw, RawValueParser<T> parser) {
+        if (raw == null) {
+            throw new IllegalArgumentException("raw must not be null");
+        }
+        if (parser == null) {
+            throw new IllegalArgumentException("parser must not be null");
+        }
+        return new ConfigSnapshot<>(version, raw, parser);
     }
 
     public String getVersion() {
@@ -15,6 +45,52 @@ public final class ConfigSnapshot<T> {
     }
 
     public T getValue() {
-        return value;
+        return lazy == null ? value : lazy.get(version, raw);
+    }
+
+    /**
+     * Returns the retained raw payload of a lazy snapshot, or null for snapshots built from a value.
+     * The array is shared and must not be modified.
+     */
+    public byte[] getRaw() {
+        return raw;
+    }
+
+    public boolean isValueLoaded() {
+        return lazy == null || lazy.parser == null;
+    }
+
+    private static final class LazyValue<T> {
+
+        private volatile RawValueParser<T> parser;
+        private T value;
+        private RuntimeException failure;
+
+        LazyValue(RawValueParser<T> parser) {
+            this.parser = parser;
+        }
+
+        T get(String version, byte[] raw) {
+            if (parser == null) {
+                return value;
+            }
+            synchronized (this) {
+                RawValueParser<T> current = parser;
+                if (current != null) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    try {
+                        value = current.parse(raw);
+                    } catch (Exception ex) {
+                        failure = new IllegalStateException("Failed to parse config value, version=" + version, ex);
+                        throw failure;
+                    }
+                    // Publishing null through the volatile write makes value visible to lock-free readers.
+                    parser = null;
+                }
+                return value;
+            }
+        }
     }
 }
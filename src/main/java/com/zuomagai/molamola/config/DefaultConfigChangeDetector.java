@@ -1,5 +1,6 @@
 package com.zuomagai.molamola.config;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 public final class DefaultConfigChangeDetector<T> implements ConfigChangeDetector<T> {
@@ -17,6 +18,10 @@ public final class DefaultConfigChangeDetector<T> implements ConfigChangeDetecto
         if (currentVersion != null || previousVersion != null) {
             return !Objects.equals(currentVersion, previousVersion);
         }
+        if (current.getRaw() != null && previous.getRaw() != null) {
+            // Compare payloads directly so lazy snapshots are not parsed just for change detection.
+            return !Arrays.equals(current.getRaw(), previous.getRaw());
+        }
         return !Objects.equals(current.getValue(), previous.getValue());
     }
 }
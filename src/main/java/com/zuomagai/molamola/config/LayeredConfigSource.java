@@ -0,0 +1,223 @@
+package com.zuomagai.molamola.config;
+
+import com.zuomagai.molamola.collection.PersistentHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Stacks key/value sources such as defaults, datacenter, cluster and host overrides into one merged
+ * map, later layers taking precedence. Each fetch polls every layer, but only the keys that changed
+ * in the layers that changed are resolved again, and the merged map is a {@link PersistentHashMap}
+ * that each version updates in place of a copy, so a small change costs time proportional to the
+ * keys it touches rather than to the merged size. Finding those keys takes a scan of the changed
+ * layer, unless the layer itself publishes {@link PersistentHashMap} versions (for example a nested
+ * layered source), in which case only the branches that differ are visited. The merged snapshot's
+ * version joins the layer versions, falling back to a per-layer change counter for layers without
+ * versions. Null values are treated as absent.
+ */
+public final class LayeredConfigSource<K, V> implements ConfigSource<Map<K, V>> {
+
+    private final String[] names;
+    private final List<ConfigSource<? extends Map<K, V>>> sources;
+    private final ConfigChangeDetector<Map<K, V>> changeDetector;
+    private final List<ConfigSnapshot<Map<K, V>>> layerSnapshots;
+    private final List<Map<K, V>> layerValues;
+    private final long[] layerGenerations;
+    private PersistentHashMap<K, V> merged = PersistentHashMap.of();
+    private ConfigSnapshot<Map<K, V>> lastSnapshot;
+    private int lastResolvedKeys;
+
+    private LayeredConfigSource(Builder<K, V> builder) {
+        this.names = builder.names.toArray(new String[0]);
+        this.sources = new ArrayList<>(builder.sources);
+        this.changeDetector = builder.changeDetector;
+        int size = names.length;
+        this.layerSnapshots = new ArrayList<>(Collections.<ConfigSnapshot<Map<K, V>>>nCopies(size, null));
+        this.layerValues = new ArrayList<>(Collections.<Map<K, V>>nCopies(size, Collections.<K, V>emptyMap()));
+        this.layerGenerations = new long[size];
+    }
+
+    public static <K, V> Builder<K, V> builder() {
+        return new Builder<>();
+    }
+
+    @Override
+    public synchronized ConfigSnapshot<Map<K, V>> fetch() throws Exception {
+        List<ConfigSnapshot<Map<K, V>>> fetched = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            ConfigSnapshot<Map<K, V>> snapshot = cast(sources.get(i).fetch());
+            if (snapshot == null) {
+                throw new IllegalStateException("layer " + names[i] + " returned no snapshot");
+            }
+            fetched.add(snapshot);
+        }
+        // Resolve values only after every layer fetched, so a failing layer leaves the state untouched.
+        Set<K> dirty = new HashSet<>();
+        boolean first = lastSnapshot == null;
+        boolean versionChanged = first;
+        for (int i = 0; i < fetched.size(); i++) {
+            ConfigSnapshot<Map<K, V>> previous = layerSnapshots.get(i);
+            ConfigSnapshot<Map<K, V>> current = fetched.get(i);
+            if (previous != null && (previous == current || !changeDetector.isChanged(previous, current))) {
+                continue;
+            }
+            Map<K, V> oldValues = layerValues.get(i);
+            Map<K, V> newValues = current.getValue() == null ? Collections.<K, V>emptyMap() : current.getValue();
+            if (!first) {
+                collectChangedKeys(i, oldValues, newValues, dirty);
+            }
+            layerSnapshots.set(i, current);
+            layerValues.set(i, newValues);
+            layerGenerations[i]++;
+            versionChanged = true;
+        }
+        if (first) {
+            for (Map<K, V> values : layerValues) {
+                for (Map.Entry<K, V> entry : values.entrySet()) {
+                    if (entry.getValue() != null) {
+                        merged = merged.plus(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            lastResolvedKeys = merged.size();
+            return publish();
+        }
+        if (!versionChanged) {
+            lastResolvedKeys = 0;
+            return lastSnapshot;
+        }
+        boolean contentChanged = false;
+        for (K key : dirty) {
+            V resolved = resolve(key, layerValues.size() - 1);
+            V existing = merged.get(key);
+            if (!Objects.equals(existing, resolved)) {
+                merged = resolved == null ? merged.minus(key) : merged.plus(key, resolved);
+                contentChanged = true;
+            }
+        }
+        lastResolvedKeys = dirty.size();
+        return contentChanged ? publish() : lastSnapshot;
+    }
+
+    /**
+     * Number of keys resolved against the layers by the last fetch; the full merged size on the
+     * first fetch and zero when no layer changed.
+     */
+    public synchronized int getLastResolvedKeyCount() {
+        return lastResolvedKeys;
+    }
+
+    private void collectChangedKeys(int layer, Map<K, V> oldValues, Map<K, V> newValues, Set<K> dirty) {
+        if (oldValues instanceof PersistentHashMap && newValues instanceof PersistentHashMap) {
+            ((PersistentHashMap<K, V>) oldValues).forEachDifference((PersistentHashMap<K, V>) newValues,
+                    key -> addIfVisible(layer, key, dirty));
+            return;
+        }
+        for (Map.Entry<K, V> entry : newValues.entrySet()) {
+            if (!Objects.equals(entry.getValue(), oldValues.get(entry.getKey()))) {
+                addIfVisible(layer, entry.getKey(), dirty);
+            }
+        }
+        for (Map.Entry<K, V> entry : oldValues.entrySet()) {
+            if (entry.getValue() != null && newValues.get(entry.getKey()) == null) {
+                addIfVisible(layer, entry.getKey(), dirty);
+            }
+        }
+    }
+
+    private void addIfVisible(int layer, K key, Set<K> dirty) {
+        // A key overridden by a higher layer keeps its merged value whatever this layer does.
+        for (int i = layerValues.size() - 1; i > layer; i--) {
+            if (layerValues.get(i).get(key) != null) {
+                return;
+            }
+        }
+        dirty.add(key);
+    }
+
+    private V resolve(K key, int from) {
+        for (int i = from; i >= 0; i--) {
+            V value = layerValues.get(i).get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private ConfigSnapshot<Map<K, V>> publish() {
+        StringBuilder version = new StringBuilder();
+        for (int i = 0; i < names.length; i++) {
+            if (i > 0) {
+                version.append(',');
+            }
+            String layerVersion = layerSnapshots.get(i).getVersion();
+            version.append(names[i]).append('=');
+            if (layerVersion == null) {
+                version.append('#').append(layerGenerations[i]);
+            } else {
+                version.append(layerVersion);
+            }
+        }
+        // The merged map is persistent, so the snapshot shares it instead of copying.
+        lastSnapshot = new ConfigSnapshot<>(version.toString(), merged);
+        return lastSnapshot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> ConfigSnapshot<Map<K, V>> cast(ConfigSnapshot<? extends Map<K, V>> snapshot) {
+        return (ConfigSnapshot<Map<K, V>>) snapshot;
+    }
+
+    public static final class Builder<K, V> {
+
+        private final List<String> names = new ArrayList<>();
+        private final List<ConfigSource<? extends Map<K, V>>> sources = new ArrayList<>();
+        private ConfigChangeDetector<Map<K, V>> changeDetector = new DefaultConfigChangeDetector<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds a layer that overrides every layer added before it.
+         */
+        public Builder<K, V> layer(String name, ConfigSource<? extends Map<K, V>> source) {
+            if (name == null || name.trim().isEmpty()) {
+                throw new IllegalArgumentException("name must not be blank");
+            }
+            if (names.contains(name)) {
+                throw new IllegalArgumentException("duplicate layer name: " + name);
+            }
+            if (source == null) {
+                throw new IllegalArgumentException("source must not be null");
+            }
+            names.add(name);
+            sources.add(source);
+            return this;
+        }
+
+        /**
+         * Decides whether a layer changed between fetches; {@link DefaultConfigChangeDetector} by default.
+         */
+        public Builder<K, V> changeDetector(ConfigChangeDetector<Map<K, V>> changeDetector) {
+            if (changeDetector == null) {
+                throw new IllegalArgumentException("changeDetector must not be null");
+            }
+            this.changeDetector = changeDetector;
+            return this;
+        }
+
+        public LayeredConfigSource<K, V> build() {
+            if (sources.isEmpty()) {
+                throw new IllegalArgumentException("at least one layer is required");
+            }
+            return new LayeredConfigSource<>(this);
+        }
+    }
+}
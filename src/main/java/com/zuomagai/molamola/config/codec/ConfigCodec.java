@@ -0,0 +1,185 @@
+package com.zuomagai.molamola.config.codec;
+
+import com.zuomagai.molamola.config.http.HttpLongPollingConfigSource;
+import com.zuomagai.molamola.string.ByteSlice;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary encoding of string key/value configs. Layout, integers big-endian and varints
+ * unsigned LEB128:
+ * <pre>
+ * magic "MMCF" | format u8 | flags u8 | version: varint (length + 1, 0 = none) + UTF-8
+ * | entry count varint | index: per entry (key offset i32, value offset i32), sorted by key bytes
+ * | string table: deduplicated (varint length + UTF-8) | CRC32 of all preceding bytes i32
+ * </pre>
+ * Offsets are absolute, so an {@link EncodedConfig} can binary-search keys and decode single values
+ * straight from the buffer.
+ */
+public final class ConfigCodec {
+
+    static final int MAGIC = 0x4D4D4346;
+    static final int FORMAT = 1;
+    static final int INDEX_ENTRY_BYTES = 8;
+
+    private ConfigCodec() {
+        throw new AssertionError("No instances.");
+    }
+
+    public static byte[] encode(String version, Map<String, String> values) {
+        if (values == null) {
+            throw new IllegalArgumentException("values must not be null");
+        }
+        List<byte[]> keys = new ArrayList<>(values.size());
+        Map<String, Integer> stringIds = new HashMap<>(values.size() * 2);
+        List<byte[]> strings = new ArrayList<>();
+        int[] keyIds = new int[values.size()];
+        int[] valueIds = new int[values.size()];
+        int count = 0;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                throw new IllegalArgumentException("keys and values must not be null");
+            }
+            keyIds[count] = intern(entry.getKey(), stringIds, strings);
+            valueIds[count] = intern(entry.getValue(), stringIds, strings);
+            keys.add(strings.get(keyIds[count]));
+            count++;
+        }
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compareUnsigned(keys.get(a), keys.get(b)));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + count * 24);
+        writeInt(out, MAGIC);
+        out.write(FORMAT);
+        out.write(0);
+        if (version == null) {
+            writeVarint(out, 0);
+        } else {
+            byte[] versionBytes = version.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, versionBytes.length + 1);
+            out.write(versionBytes, 0, versionBytes.length);
+        }
+        writeVarint(out, count);
+        int tableStart = out.size() + count * INDEX_ENTRY_BYTES;
+        int[] offsets = new int[strings.size()];
+        int position = tableStart;
+        for (int i = 0; i < strings.size(); i++) {
+            offsets[i] = position;
+            int length = strings.get(i).length;
+            position += varintSize(length) + length;
+        }
+        for (int i = 0; i < count; i++) {
+            writeInt(out, offsets[keyIds[order[i]]]);
+            writeInt(out, offsets[valueIds[order[i]]]);
+        }
+        for (byte[] string : strings) {
+            writeVarint(out, string.length);
+            out.write(string, 0, string.length);
+        }
+        CRC32 crc = new CRC32();
+        byte[] body = out.toByteArray();
+        crc.update(body, 0, body.length);
+        byte[] result = Arrays.copyOf(body, body.length + 4);
+        putInt(result, body.length, (int) crc.getValue());
+        return result;
+    }
+
+    /**
+     * Validates the header, checksum and index of the encoded bytes and returns a view over them.
+     * The buffer is not copied and must not be modified afterwards.
+     */
+    public static EncodedConfig read(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("buffer must not be null");
+        }
+        return EncodedConfig.read(buffer.slice());
+    }
+
+    public static EncodedConfig read(byte[] bytes) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("bytes must not be null");
+        }
+        return EncodedConfig.read(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * Like {@link #read(ByteBuffer)}, decoding strings straight from the slice's backing array.
+     */
+    public static EncodedConfig read(ByteSlice bytes) {
+        if (bytes == null) {
+            throw new IllegalArgumentException("bytes must not be null");
+        }
+        return EncodedConfig.read(bytes);
+    }
+
+    /**
+     * Parser for {@link HttpLongPollingConfigSource#bytesBuilder} when the server emits this
+     * encoding; the result reads directly from the response buffer.
+     */
+    public static HttpLongPollingConfigSource.BytesResponseParser<EncodedConfig> bytesParser() {
+        return (body, charset) -> read(body);
+    }
+
+    private static int intern(String str, Map<String, Integer> stringIds, List<byte[]> strings) {
+        Integer id = stringIds.get(str);
+        if (id == null) {
+            id = strings.size();
+            strings.add(str.getBytes(StandardCharsets.UTF_8));
+            stringIds.put(str, id);
+        }
+        return id;
+    }
+
+    static int compareUnsigned(byte[] a, byte[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int diff = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
@@ -0,0 +1,218 @@
+package com.zuomagai.molamola.config.codec;
+
+import com.zuomagai.molamola.string.ByteSlice;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only view over a config encoded by {@link ConfigCodec}. Lookups binary-search the sorted
+ * index and decode only the requested value; nothing is decoded up front. Thread-safe.
+ */
+public final class EncodedConfig {
+
+    private final ByteBuffer buffer;
+    // Set when read from a slice, whose read-only buffer has no accessible array to decode from.
+    private final ByteSlice bytes;
+    private final String version;
+    private final int size;
+    private final int indexStart;
+
+    private EncodedConfig(ByteBuffer buffer, ByteSlice bytes, String version, int size, int indexStart) {
+        this.buffer = buffer;
+        this.bytes = bytes;
+        this.version = version;
+        this.size = size;
+        this.indexStart = indexStart;
+    }
+
+    static EncodedConfig read(ByteBuffer buffer) {
+        return read(buffer, null);
+    }
+
+    static EncodedConfig read(ByteSlice bytes) {
+        return read(bytes.asByteBuffer(), bytes);
+    }
+
+    private static EncodedConfig read(ByteBuffer buffer, ByteSlice bytes) {
+        int limit = buffer.limit();
+        if (limit < 12 || buffer.getInt(0) != ConfigCodec.MAGIC) {
+            throw new IllegalArgumentException("not an encoded config");
+        }
+        if ((buffer.get(4) & 0xFF) != ConfigCodec.FORMAT) {
+            throw new IllegalArgumentException("unsupported format " + (buffer.get(4) & 0xFF));
+        }
+        int checksumOffset = limit - 4;
+        CRC32 crc = new CRC32();
+        ByteBuffer checked = buffer.duplicate();
+        ((Buffer) checked).position(0).limit(checksumOffset);
+        crc.update(checked);
+        if ((int) crc.getValue() != buffer.getInt(checksumOffset)) {
+            throw new IllegalArgumentException("checksum mismatch");
+        }
+        int[] position = {6};
+        int versionLength = readVarint(buffer, position, checksumOffset);
+        String version = null;
+        if (versionLength > 0) {
+            version = decode(buffer, bytes, position[0], versionLength - 1, checksumOffset);
+            position[0] += versionLength - 1;
+        }
+        int size = readVarint(buffer, position, checksumOffset);
+        int indexStart = position[0];
+        long tableStart = indexStart + (long) size * ConfigCodec.INDEX_ENTRY_BYTES;
+        if (tableStart > checksumOffset) {
+            throw new IllegalArgumentException("truncated index");
+        }
+        for (int i = 0; i < size * 2; i++) {
+            int offset = buffer.getInt(indexStart + i * 4);
+            if (offset < tableStart || offset >= checksumOffset) {
+                throw new IllegalArgumentException("string offset out of range: " + offset);
+            }
+        }
+        return new EncodedConfig(buffer, bytes, version, size, indexStart);
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(String key) {
+        return indexOf(key) >= 0;
+    }
+
+    public String get(String key) {
+        int index = indexOf(key);
+        return index < 0 ? null : valueAt(index);
+    }
+
+    public String getOrDefault(String key, String defaultValue) {
+        String value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Keys are ordered by their UTF-8 bytes.
+     */
+    public String keyAt(int index) {
+        checkIndex(index);
+        return string(buffer.getInt(indexStart + index * ConfigCodec.INDEX_ENTRY_BYTES));
+    }
+
+    public String valueAt(int index) {
+        checkIndex(index);
+        return string(buffer.getInt(indexStart + index * ConfigCodec.INDEX_ENTRY_BYTES + 4));
+    }
+
+    public void forEach(BiConsumer<String, String> action) {
+        if (action == null) {
+            throw new IllegalArgumentException("action must not be null");
+        }
+        for (int i = 0; i < size; i++) {
+            action.accept(keyAt(i), valueAt(i));
+        }
+    }
+
+    /**
+     * Decodes every entry into a new map in key order.
+     */
+    public Map<String, String> toMap() {
+        Map<String, String> map = new LinkedHashMap<>(Math.max(16, (int) (size / 0.75F) + 1));
+        forEach(map::put);
+        return map;
+    }
+
+    /**
+     * Returns the index of the key, or -1 if absent.
+     */
+    public int indexOf(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        byte[] target = key.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = compareKey(buffer.getInt(indexStart + middle * ConfigCodec.INDEX_ENTRY_BYTES), target);
+            if (compared < 0) {
+                low = middle + 1;
+            } else if (compared > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int compareKey(int offset, byte[] target) {
+        int[] position = {offset};
+        int length = readVarint(buffer, position, buffer.limit());
+        int start = position[0];
+        int common = Math.min(length, target.length);
+        for (int i = 0; i < common; i++) {
+            int diff = (buffer.get(start + i) & 0xFF) - (target[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - target.length;
+    }
+
+    private String string(int offset) {
+        int[] position = {offset};
+        int length = readVarint(buffer, position, buffer.limit() - 4);
+        return decode(buffer, bytes, position[0], length, buffer.limit() - 4);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private static String decode(ByteBuffer buffer, ByteSlice bytes, int offset, int length, int end) {
+        if (length < 0 || offset + length > end) {
+            throw new IllegalArgumentException("string exceeds the buffer");
+        }
+        if (bytes != null) {
+            return bytes.slice(offset, offset + length).decode(StandardCharsets.UTF_8);
+        }
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] copy = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        ((Buffer) view).position(offset);
+        view.get(copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarint(ByteBuffer buffer, int[] position, int end) {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (position[0] >= end) {
+                throw new IllegalArgumentException("truncated varint");
+            }
+            byte b = buffer.get(position[0]++);
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+}
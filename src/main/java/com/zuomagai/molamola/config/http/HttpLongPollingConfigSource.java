@@ -2,6 +2,8 @@ package com.zuomagai.molamola.config.http;
 
 import com.zuomagai.molamola.config.ConfigSnapshot;
 import com.zuomagai.molamola.config.ConfigSource;
+import com.zuomagai.molamola.config.jfr.ConfigEvents;
+import com.zuomagai.molamola.string.ByteSlice;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
@@ -16,45 +18,92 @@ import java.util.Map;
 
 public final class HttpLongPollingConfigSource<T> implements ConfigSource<T> {
 
+    private static final String CHARSET_PREFIX = "charset=";
+
     public interface ResponseParser<T> {
         T parse(String body) throws Exception;
     }
 
+    /**
+     * Parses the undecoded response body; {@code charset} is the one announced by the server or the default.
+     */
+    public interface BytesResponseParser<T> {
+        T parse(ByteSlice body, Charset charset) throws Exception;
+    }
+
+    /**
+     * Consumes the response body as it arrives, so large payloads need not be buffered on the heap.
+     * {@code contentLength} is -1 when the server did not announce it. The stream is closed afterwards.
+     */
+    public interface StreamResponseParser<T> {
+        T parse(InputStream body, long contentLength, Charset charset) throws Exception;
+    }
+
     private final URL url;
-    private final ResponseParser<T> parser;
+    private final BytesResponseParser<T> parser;
+    private final StreamResponseParser<T> streamParser;
     private final int connectTimeoutMillis;
     private final int readTimeoutMillis;
     private final String requestVersionHeader;
     private final String responseVersionHeader;
     private final String defaultCharset;
-    private final Map<String, String> headers;
+    private final boolean lazyParse;
+    private final String[] headerNames;
+    private final String[] headerValues;
     private ConfigSnapshot<T> lastSnapshot;
+    private String cachedContentType;
+    private String cachedCharset;
 
     private HttpLongPollingConfigSource(Builder<T> builder) {
         this.url = builder.url;
         this.parser = builder.parser;
+        this.streamParser = builder.streamParser;
         this.connectTimeoutMillis = builder.connectTimeoutMillis;
         this.readTimeoutMillis = builder.readTimeoutMillis;
         this.requestVersionHeader = builder.requestVersionHeader;
         this.responseVersionHeader = builder.responseVersionHeader;
         this.defaultCharset = builder.defaultCharset;
-        this.headers = new LinkedHashMap<>(builder.headers);
+        this.lazyParse = builder.lazyParse;
+        this.headerNames = builder.headers.keySet().toArray(new String[0]);
+        this.headerValues = builder.headers.values().toArray(new String[0]);
     }
 
     public static Builder<String> stringBuilder(String url) {
-        return new Builder<>(url, body -> body);
+        return new Builder<>(url, (body, charset) -> body.decode(charset), null);
     }
 
     public static <T> Builder<T> builder(String url, ResponseParser<T> parser) {
-        return new Builder<>(url, parser);
+        if (parser == null) {
+            throw new IllegalArgumentException("parser must not be null");
+        }
+        return new Builder<>(url, (body, charset) -> parser.parse(body.decode(charset)), null);
+    }
+
+    public static <T> Builder<T> bytesBuilder(String url, BytesResponseParser<T> parser) {
+        if (parser == null) {
+            throw new IllegalArgumentException("parser must not be null");
+        }
+        return new Builder<>(url, parser, null);
+    }
+
+    public static <T> Builder<T> streamBuilder(String url, StreamResponseParser<T> parser) {
+        if (parser == null) {
+            throw new IllegalArgumentException("parser must not be null");
+        }
+        return new Builder<>(url, null, parser);
     }
 
     @Override
     public synchronized ConfigSnapshot<T> fetch() throws Exception {
+        Object event = ConfigEvents.beginFetch(url);
+        int status = -1;
+        long bytes = -1L;
         HttpURLConnection connection = openConnection();
         try {
-            int status = connection.getResponseCode();
+            status = connection.getResponseCode();
+            ConfigEvents.fetchResponded(event);
             if (status == HttpURLConnection.HTTP_NOT_MODIFIED || status == HttpURLConnection.HTTP_NO_CONTENT) {
+                bytes = 0L;
                 ConfigSnapshot<T> snapshot = lastSnapshot;
                 if (snapshot == null) {
                     snapshot = new ConfigSnapshot<>(readVersion(connection), null);
@@ -65,13 +114,55 @@ public final class HttpLongPollingConfigSource<T> implements ConfigSource<T> {
             if (status != HttpURLConnection.HTTP_OK) {
                 throw new IOException("Unexpected response " + status + " from " + url + ": " + readErrorBody(connection));
             }
-            String body = readBody(connection);
-            T value = parser.parse(body);
-            ConfigSnapshot<T> snapshot = new ConfigSnapshot<>(readVersion(connection), value);
+            Charset charset = Charset.forName(resolveCharset(connection));
+            if (streamParser != null) {
+                T value;
+                bytes = connection.getContentLengthLong();
+                try (InputStream inputStream = new BufferedInputStream(connection.getInputStream())) {
+                    value = parseStream(inputStream, bytes, charset);
+                }
+                ConfigSnapshot<T> snapshot = new ConfigSnapshot<>(readVersion(connection), value);
+                lastSnapshot = snapshot;
+                return snapshot;
+            }
+            BodyBuffer body = readBody(connection);
+            bytes = body.size();
+            ConfigSnapshot<T> snapshot;
+            if (lazyParse) {
+                snapshot = ConfigSnapshot.lazy(readVersion(connection), body.toByteArray(),
+                        raw -> parse(ByteSlice.of(raw), charset));
+            } else {
+                snapshot = new ConfigSnapshot<>(readVersion(connection), parse(body.slice(), charset));
+            }
             lastSnapshot = snapshot;
             return snapshot;
         } finally {
             connection.disconnect();
+            ConfigEvents.endFetch(event, status, bytes);
+        }
+    }
+
+    private T parse(ByteSlice body, Charset charset) throws Exception {
+        Object event = ConfigEvents.beginParse(url, body.length());
+        boolean parsed = false;
+        try {
+            T value = parser.parse(body, charset);
+            parsed = true;
+            return value;
+        } finally {
+            ConfigEvents.endParse(event, parsed);
+        }
+    }
+
+    private T parseStream(InputStream body, long contentLength, Charset charset) throws Exception {
+        Object event = ConfigEvents.beginParse(url, contentLength);
+        boolean parsed = false;
+        try {
+            T value = streamParser.parse(body, contentLength, charset);
+            parsed = true;
+            return value;
+        } finally {
+            ConfigEvents.endParse(event, parsed);
         }
     }
 
@@ -82,10 +173,8 @@ public final class HttpLongPollingConfigSource<T> implements ConfigSource<T> {
         connection.setReadTimeout(readTimeoutMillis);
         connection.setUseCaches(false);
         connection.setDoInput(true);
-        for (Map.Entry<String, String> entry : headers.entrySet()) {
-            if (entry.getKey() != null && entry.getValue() != null) {
-                connection.setRequestProperty(entry.getKey(), entry.getValue());
-            }
+        for (int i = 0; i < headerNames.length; i++) {
+            connection.setRequestProperty(headerNames[i], headerValues[i]);
         }
         if (requestVersionHeader != null && lastSnapshot != null) {
             String version = lastSnapshot.getVersion();
@@ -104,9 +193,11 @@ public final class HttpLongPollingConfigSource<T> implements ConfigSource<T> {
         return version == null || version.isEmpty() ? null : version;
     }
 
-    private String readBody(HttpURLConnection connection) throws IOException {
+    private BodyBuffer readBody(HttpURLConnection connection) throws IOException {
         try (InputStream inputStream = new BufferedInputStream(connection.getInputStream())) {
-            return readToString(inputStream, resolveCharset(connection));
+            BodyBuffer buffer = new BodyBuffer();
+            readFully(inputStream, buffer);
+            return buffer;
         }
     }
 
@@ -116,7 +207,7 @@ public final class HttpLongPollingConfigSource<T> implements ConfigSource<T> {
             return "";
         }
         try (InputStream inputStream = new BufferedInputStream(errorStream)) {
-            return readToString(inputStream, resolveCharset(connection));
+            return new String(readBytes(inputStream), Charset.forName(resolveCharset(connection)));
         } catch (IOException ex) {
             return "";
         }
@@ -124,48 +215,91 @@ public final class HttpLongPollingConfigSource<T> implements ConfigSource<T> {
 
     private String resolveCharset(HttpURLConnection connection) {
         String contentType = connection.getContentType();
-        if (contentType != null) {
-            String[] parts = contentType.split(";");
-            for (String part : parts) {
-                String trimmed = part.trim();
-                if (trimmed.toLowerCase().startsWith("charset=")) {
-                    String charset = trimmed.substring("charset=".length()).trim();
-                    if (!charset.isEmpty()) {
-                        return charset;
-                    }
+        if (contentType == null) {
+            return defaultCharset;
+        }
+        // Servers almost always repeat the same Content-Type, so remember the last resolution. Only
+        // responses with a body get here; unchanged 304/204 polls never resolve a charset.
+        if (!contentType.equals(cachedContentType)) {
+            String charset = parseCharset(contentType);
+            cachedCharset = charset == null ? defaultCharset : charset;
+            cachedContentType = contentType;
+        }
+        return cachedCharset;
+    }
+
+    private static String parseCharset(String contentType) {
+        int length = contentType.length();
+        int index = 0;
+        while (index < length) {
+            int end = contentType.indexOf(';', index);
+            if (end < 0) {
+                end = length;
+            }
+            int start = skipWhitespace(contentType, index, end);
+            if (contentType.regionMatches(true, start, CHARSET_PREFIX, 0, CHARSET_PREFIX.length())) {
+                int valueStart = skipWhitespace(contentType, start + CHARSET_PREFIX.length(), end);
+                int valueEnd = end;
+                while (valueEnd > valueStart && Character.isWhitespace(contentType.charAt(valueEnd - 1))) {
+                    valueEnd--;
+                }
+                if (valueStart < valueEnd) {
+                    return contentType.substring(valueStart, valueEnd);
                 }
             }
+            index = end + 1;
+        }
+        return null;
+    }
+
+    private static int skipWhitespace(String str, int from, int to) {
+        int index = from;
+        while (index < to && Character.isWhitespace(str.charAt(index))) {
+            index++;
         }
-        return defaultCharset;
+        return index;
     }
 
-    private String readToString(InputStream inputStream, String charsetName) throws IOException {
-        Charset charset = Charset.forName(charsetName);
+    private byte[] readBytes(InputStream inputStream) throws IOException {
         ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        readFully(inputStream, buffer);
+        return buffer.toByteArray();
+    }
+
+    private static void readFully(InputStream inputStream, ByteArrayOutputStream buffer) throws IOException {
         byte[] data = new byte[4096];
         int read;
         while ((read = inputStream.read(data)) >= 0) {
             buffer.write(data, 0, read);
         }
-        return new String(buffer.toByteArray(), charset);
+    }
+
+    /**
+     * Lets eager parsing read the body in place instead of from a trimmed copy.
+     */
+    private static final class BodyBuffer extends ByteArrayOutputStream {
+
+        ByteSlice slice() {
+            return ByteSlice.of(buf, 0, count);
+        }
     }
 
     public static final class Builder<T> {
 
         private final URL url;
-        private final ResponseParser<T> parser;
+        private final BytesResponseParser<T> parser;
+        private final StreamResponseParser<T> streamParser;
         private int connectTimeoutMillis = 3000;
         private int readTimeoutMillis = 30000;
         private String requestVersionHeader = "If-None-Match";
         private String responseVersionHeader = "ETag";
         private String defaultCharset = "UTF-8";
+        private boolean lazyParse;
         private final Map<String, String> headers = new LinkedHashMap<>();
 
-        private Builder(String url, ResponseParser<T> parser) {
-            if (parser == null) {
-                throw new IllegalArgumentException("parser must not be null");
-            }
+        private Builder(String url, BytesResponseParser<T> parser, StreamResponseParser<T> streamParser) {
             this.parser = parser;
+            this.streamParser = streamParser;
             this.url = parseUrl(url);
         }
 
@@ -203,6 +337,11 @@ public final class HttpLongPollingConfigSource<T> implements ConfigSource<T> {
             return this;
         }
 
+        public Builder<T> lazyParse(boolean lazyParse) {
+            this.lazyParse = lazyParse;
+            return this;
+        }
+
         public Builder<T> header(String name, String value) {
             if (name == null || name.trim().isEmpty()) {
                 throw new IllegalArgumentException("header name must not be blank");
@@ -225,6 +364,9 @@ public final class HttpLongPollingConfigSource<T> implements ConfigSource<T> {
         }
 
         public HttpLongPollingConfigSource<T> build() {
+            if (lazyParse && streamParser != null) {
+                throw new IllegalArgumentException("lazyParse is not supported with a stream parser");
+            }
             return new HttpLongPollingConfigSource<>(this);
         }
 
@@ -0,0 +1,305 @@
+package com.zuomagai.molamola.config.http;
+
+import com.zuomagai.molamola.collection.ParallelCollections;
+import com.zuomagai.molamola.string.ByteSlice;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Splits a large response body into sections and parses them concurrently on a fork-join pool
+ * before assembling the final value. Sections are either separated by a delimiter or framed with a
+ * 4-byte big-endian length prefix. A section whose bytes equal a section of the previous payload
+ * reuses the object parsed then, so section values must be immutable. The parser keeps a copy of the
+ * previous sections to compare against, so use one instance per source.
+ * <pre>
+ * HttpLongPollingConfigSource.bytesBuilder(url, SectionedResponseParser.builder(sectionParser, assembler)
+ *         .delimiter("\n---\n")
+ *         .build());
+ * </pre>
+ */
+public final class SectionedResponseParser<S, T> implements HttpLongPollingConfigSource.BytesResponseParser<T> {
+
+    public interface Assembler<S, T> {
+        T assemble(List<S> sections) throws Exception;
+    }
+
+    private static final int FRAME_HEADER_BYTES = 4;
+
+    private final HttpLongPollingConfigSource.BytesResponseParser<S> sectionParser;
+    private final Assembler<S, T> assembler;
+    private final String delimiter;
+    private final boolean reuseUnchanged;
+    private final ParallelCollections parallel;
+    private volatile Map<SectionKey, ParsedSection<S>> previous = Collections.emptyMap();
+    private volatile int lastSectionCount;
+    private volatile int lastReusedCount;
+
+    private SectionedResponseParser(Builder<S, T> builder) {
+        this.sectionParser = builder.sectionParser;
+        this.assembler = builder.assembler;
+        this.delimiter = builder.delimiter;
+        this.reuseUnchanged = builder.reuseUnchanged;
+        ParallelCollections.Builder parallelBuilder = ParallelCollections.builder().sequentialThreshold(2);
+        if (builder.pool != null) {
+            parallelBuilder.pool(builder.pool);
+        }
+        this.parallel = parallelBuilder.build();
+    }
+
+    public static <S, T> Builder<S, T> builder(HttpLongPollingConfigSource.BytesResponseParser<S> sectionParser,
+                                               Assembler<S, T> assembler) {
+        return new Builder<>(sectionParser, assembler);
+    }
+
+    @Override
+    public T parse(ByteSlice body, Charset charset) throws Exception {
+        List<ByteSlice> sections = delimiter == null ? splitFrames(body) : split(body, ByteSlice.of(delimiter.getBytes(charset)));
+        Map<SectionKey, ParsedSection<S>> reusable = reuseUnchanged ? previous : Collections.<SectionKey, ParsedSection<S>>emptyMap();
+        List<ParsedSection<S>> parsed;
+        try {
+            parsed = parallel.map(sections, section -> parseSection(section, charset, reusable));
+        } catch (RuntimeException ex) {
+            throw unwrap(ex);
+        }
+        List<S> values = new ArrayList<>(parsed.size());
+        Map<SectionKey, ParsedSection<S>> current = reuseUnchanged
+                ? new HashMap<>(parsed.size() * 2) : Collections.<SectionKey, ParsedSection<S>>emptyMap();
+        int reused = 0;
+        for (ParsedSection<S> section : parsed) {
+            values.add(section.value);
+            if (section.reused) {
+                reused++;
+            }
+            if (reuseUnchanged && section.value != null) {
+                current.put(section.key, section);
+            }
+        }
+        T value = assembler.assemble(Collections.unmodifiableList(values));
+        // Only a successfully assembled payload becomes the reuse baseline.
+        previous = current;
+        lastSectionCount = parsed.size();
+        lastReusedCount = reused;
+        return value;
+    }
+
+    /**
+     * Number of sections in the last parsed payload.
+     */
+    public int getLastSectionCount() {
+        return lastSectionCount;
+    }
+
+    /**
+     * Number of sections of the last parsed payload taken over from the payload before it.
+     */
+    public int getLastReusedCount() {
+        return lastReusedCount;
+    }
+
+    private ParsedSection<S> parseSection(ByteSlice section, Charset charset, Map<SectionKey, ParsedSection<S>> reusable) {
+        SectionKey key = null;
+        if (reuseUnchanged) {
+            long hash = hash(section);
+            ParsedSection<S> match = reusable.get(new SectionKey(hash, section));
+            if (match != null) {
+                // Keep the baseline's own copy of the bytes; the body may be a reused buffer.
+                return new ParsedSection<>(match.key, match.value, true);
+            }
+            key = new SectionKey(hash, ByteSlice.of(section.toByteArray()));
+        }
+        try {
+            return new ParsedSection<>(key, sectionParser.parse(section, charset), false);
+        } catch (Exception ex) {
+            throw new SectionFailure(ex);
+        }
+    }
+
+    private static List<ByteSlice> split(ByteSlice body, ByteSlice delimiter) {
+        List<ByteSlice> sections = new ArrayList<>();
+        ByteSlice rest = body;
+        while (true) {
+            int index = rest.indexOf(delimiter);
+            if (index < 0) {
+                sections.add(rest);
+                return sections;
+            }
+            sections.add(rest.slice(0, index));
+            rest = rest.slice(index + delimiter.length(), rest.length());
+        }
+    }
+
+    private static List<ByteSlice> splitFrames(ByteSlice body) {
+        List<ByteSlice> sections = new ArrayList<>();
+        int position = 0;
+        while (position < body.length()) {
+            if (body.length() - position < FRAME_HEADER_BYTES) {
+                throw new IllegalArgumentException("truncated section header at " + position);
+            }
+            int length = (body.byteAt(position) & 0xFF) << 24
+                    | (body.byteAt(position + 1) & 0xFF) << 16
+                    | (body.byteAt(position + 2) & 0xFF) << 8
+                    | body.byteAt(position + 3) & 0xFF;
+            int start = position + FRAME_HEADER_BYTES;
+            if (length < 0 || length > body.length() - start) {
+                throw new IllegalArgumentException("section at " + position + " exceeds the body");
+            }
+            sections.add(body.slice(start, start + length));
+            position = start + length;
+        }
+        return sections;
+    }
+
+    private static long hash(ByteSlice section) {
+        ByteBuffer buffer = section.asByteBuffer();
+        int length = buffer.remaining();
+        long hash = 0x9E3779B97F4A7C15L ^ length;
+        int i = 0;
+        for (; i + 8 <= length; i += 8) {
+            hash = mix(hash ^ buffer.getLong(i));
+        }
+        for (; i < length; i++) {
+            hash = mix(hash ^ (buffer.get(i) & 0xFF));
+        }
+        return hash;
+    }
+
+    private static long mix(long value) {
+        value *= 0xBF58476D1CE4E5B9L;
+        return value ^ (value >>> 31);
+    }
+
+    private static Exception unwrap(RuntimeException ex) {
+        // Fork-join may rethrow a copy of the failure, so look through the causes.
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SectionFailure) {
+                return (Exception) cause.getCause();
+            }
+        }
+        return ex;
+    }
+
+    private static final class SectionFailure extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        SectionFailure(Exception cause) {
+            super(cause);
+        }
+    }
+
+    /**
+     * Section bytes with a precomputed hash; equal keys have equal bytes, the hash only filters.
+     */
+    private static final class SectionKey {
+
+        private final long hash;
+        private final ByteSlice bytes;
+
+        SectionKey(long hash, ByteSlice bytes) {
+            this.hash = hash;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SectionKey)) {
+                return false;
+            }
+            SectionKey other = (SectionKey) o;
+            return hash == other.hash && bytes.equals(other.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+
+    private static final class ParsedSection<S> {
+
+        final SectionKey key;
+        final S value;
+        final boolean reused;
+
+        ParsedSection(SectionKey key, S value, boolean reused) {
+            this.key = key;
+            this.value = value;
+            this.reused = reused;
+        }
+    }
+
+    public static final class Builder<S, T> {
+
+        private final HttpLongPollingConfigSource.BytesResponseParser<S> sectionParser;
+        private final Assembler<S, T> assembler;
+        private String delimiter;
+        private boolean framed;
+        private ForkJoinPool pool;
+        private boolean reuseUnchanged = true;
+
+        private Builder(HttpLongPollingConfigSource.BytesResponseParser<S> sectionParser, Assembler<S, T> assembler) {
+            if (sectionParser == null) {
+                throw new IllegalArgumentException("sectionParser must not be null");
+            }
+            if (assembler == null) {
+                throw new IllegalArgumentException("assembler must not be null");
+            }
+            this.sectionParser = sectionParser;
+            this.assembler = assembler;
+        }
+
+        /**
+         * Sections are separated by this string, encoded in the response charset.
+         */
+        public Builder<S, T> delimiter(String delimiter) {
+            if (delimiter == null || delimiter.isEmpty()) {
+                throw new IllegalArgumentException("delimiter must not be empty");
+            }
+            this.delimiter = delimiter;
+            this.framed = false;
+            return this;
+        }
+
+        /**
+         * Each section is preceded by its length as a 4-byte big-endian integer.
+         */
+        public Builder<S, T> framed() {
+            this.framed = true;
+            this.delimiter = null;
+            return this;
+        }
+
+        /**
+         * Pool the sections are parsed on; defaults to {@link ForkJoinPool#commonPool()}.
+         */
+        public Builder<S, T> pool(ForkJoinPool pool) {
+            if (pool == null) {
+                throw new IllegalArgumentException("pool must not be null");
+            }
+            this.pool = pool;
+            return this;
+        }
+
+        public Builder<S, T> reuseUnchanged(boolean reuseUnchanged) {
+            this.reuseUnchanged = reuseUnchanged;
+            return this;
+        }
+
+        public SectionedResponseParser<S, T> build() {
+            if (delimiter == null && !framed) {
+                throw new IllegalArgumentException("a delimiter or framed sections are required");
+            }
+            return new SectionedResponseParser<>(this);
+        }
+    }
+}
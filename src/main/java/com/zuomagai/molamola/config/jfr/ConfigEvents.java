@@ -0,0 +1,93 @@
+package com.zuomagai.molamola.config.jfr;
+
+import com.zuomagai.molamola.config.ConfigErrorEvent;
+
+import java.net.URL;
+
+/**
+ * Emits JDK Flight Recorder events for config fetches, parses, listener invocations and retry waits.
+ * Every {@code begin} method returns null unless a recording is running, and every other method
+ * returns immediately for a null event, so instrumentation costs a volatile read when nothing
+ * records. On JDKs without JFR all calls are no-ops.
+ */
+public final class ConfigEvents {
+
+    private static final JfrRecorder RECORDER = createRecorder();
+
+    private ConfigEvents() {
+        throw new AssertionError("No instances.");
+    }
+
+    private static JfrRecorder createRecorder() {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            return JfrRecorder.create();
+        } catch (ReflectiveOperationException | LinkageError | SecurityException ignored) {
+            // JFR needs JDK 11+ or 8u262+; events are disabled otherwise.
+            return null;
+        }
+    }
+
+    public static boolean isAvailable() {
+        return RECORDER != null;
+    }
+
+    public static boolean isRecording() {
+        return RECORDER != null && RECORDER.isRecording();
+    }
+
+    public static Object beginFetch(URL url) {
+        return isRecording() ? RECORDER.beginFetch(url) : null;
+    }
+
+    /**
+     * Marks the response headers as received; the time until then is recorded as the hold time.
+     */
+    public static void fetchResponded(Object event) {
+        if (event != null) {
+            RECORDER.fetchResponded(event);
+        }
+    }
+
+    /**
+     * Ends a fetch; the status code is -1 if no response arrived and bytes are -1 if unknown.
+     */
+    public static void endFetch(Object event, int statusCode, long bytes) {
+        if (event != null) {
+            RECORDER.endFetch(event, statusCode, bytes);
+        }
+    }
+
+    public static Object beginParse(URL url, long bytes) {
+        return isRecording() ? RECORDER.beginParse(url, bytes) : null;
+    }
+
+    public static void endParse(Object event, boolean success) {
+        if (event != null) {
+            RECORDER.endParse(event, success);
+        }
+    }
+
+    public static Object beginListener(Object listener, String version, int attempt) {
+        return isRecording() ? RECORDER.beginListener(listener, version, attempt) : null;
+    }
+
+    /**
+     * Ends a listener invocation; a null error means it succeeded.
+     */
+    public static void endListener(Object event, Throwable error) {
+        if (event != null) {
+            RECORDER.endListener(event, error);
+        }
+    }
+
+    public static Object beginRetry(ConfigErrorEvent.Phase phase, int attempt, long delayMillis) {
+        return isRecording() ? RECORDER.beginRetry(phase, attempt, delayMillis) : null;
+    }
+
+    public static void endRetry(Object event) {
+        if (event != null) {
+            RECORDER.endRetry(event);
+        }
+    }
+}
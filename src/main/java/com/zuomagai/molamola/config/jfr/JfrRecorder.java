@@ -0,0 +1,223 @@
+package com.zuomagai.molamola.config.jfr;
+
+import com.zuomagai.molamola.config.ConfigErrorEvent;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import java.net.URL;
+
+/**
+ * Only loaded once {@code jdk.jfr} is known to be present; {@link ConfigEvents} is the entry point.
+ */
+final class JfrRecorder {
+
+    private volatile boolean recording;
+
+    private JfrRecorder() {
+    }
+
+    static JfrRecorder create() {
+        if (!FlightRecorder.isAvailable()) {
+            return null;
+        }
+        FlightRecorder.register(FetchEvent.class);
+        FlightRecorder.register(ParseEvent.class);
+        FlightRecorder.register(ListenerEvent.class);
+        FlightRecorder.register(RetryEvent.class);
+        JfrRecorder recorder = new JfrRecorder();
+        FlightRecorder.addListener(new FlightRecorderListener() {
+            @Override
+            public void recorderInitialized(FlightRecorder flightRecorder) {
+                recorder.update(flightRecorder);
+            }
+
+            @Override
+            public void recordingStateChanged(Recording changed) {
+                recorder.update(FlightRecorder.getFlightRecorder());
+            }
+        });
+        return recorder;
+    }
+
+    boolean isRecording() {
+        return recording;
+    }
+
+    private void update(FlightRecorder flightRecorder) {
+        boolean running = false;
+        for (Recording candidate : flightRecorder.getRecordings()) {
+            if (candidate.getState() == RecordingState.RUNNING) {
+                running = true;
+                break;
+            }
+        }
+        recording = running;
+    }
+
+    Object beginFetch(URL url) {
+        FetchEvent event = new FetchEvent();
+        event.url = url.toString();
+        event.startNanos = System.nanoTime();
+        event.begin();
+        return event;
+    }
+
+    void fetchResponded(Object token) {
+        FetchEvent event = (FetchEvent) token;
+        event.holdTime = System.nanoTime() - event.startNanos;
+    }
+
+    void endFetch(Object token, int statusCode, long bytes) {
+        FetchEvent event = (FetchEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.statusCode = statusCode;
+            event.bytes = bytes;
+            event.commit();
+        }
+    }
+
+    Object beginParse(URL url, long bytes) {
+        ParseEvent event = new ParseEvent();
+        event.url = url.toString();
+        event.bytes = bytes;
+        event.begin();
+        return event;
+    }
+
+    void endParse(Object token, boolean success) {
+        ParseEvent event = (ParseEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    Object beginListener(Object listener, String version, int attempt) {
+        ListenerEvent event = new ListenerEvent();
+        event.listener = listener.getClass().getName();
+        event.version = version;
+        event.attempt = attempt;
+        event.begin();
+        return event;
+    }
+
+    void endListener(Object token, Throwable error) {
+        ListenerEvent event = (ListenerEvent) token;
+        event.end();
+        if (event.shouldCommit()) {
+            event.success = error == null;
+            event.error = error == null ? null : error.getClass().getName();
+            event.commit();
+        }
+    }
+
+    Object beginRetry(ConfigErrorEvent.Phase phase, int attempt, long delayMillis) {
+        RetryEvent event = new RetryEvent();
+        event.phase = phase.name();
+        event.attempt = attempt;
+        event.delay = delayMillis;
+        event.begin();
+        return event;
+    }
+
+    void endRetry(Object token) {
+        RetryEvent event = (RetryEvent) token;
+        event.end();
+        event.commit();
+    }
+
+    @Name("molamola.config.Fetch")
+    @Label("Config Fetch")
+    @Description("HTTP long-polling config request")
+    @Category({"Molamola", "Config"})
+    @StackTrace(false)
+    static final class FetchEvent extends Event {
+
+        @Label("URL")
+        String url;
+
+        @Label("Status Code")
+        int statusCode;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Hold Time")
+        @Description("Time until the server sent the response headers")
+        @Timespan(Timespan.NANOSECONDS)
+        long holdTime;
+
+        transient long startNanos;
+    }
+
+    @Name("molamola.config.Parse")
+    @Label("Config Parse")
+    @Category({"Molamola", "Config"})
+    @StackTrace(false)
+    static final class ParseEvent extends Event {
+
+        @Label("URL")
+        String url;
+
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("molamola.config.Listener")
+    @Label("Config Listener")
+    @Description("Invocation of a config change listener")
+    @Category({"Molamola", "Config"})
+    @StackTrace(false)
+    static final class ListenerEvent extends Event {
+
+        @Label("Listener")
+        String listener;
+
+        @Label("Version")
+        String version;
+
+        @Label("Attempt")
+        int attempt;
+
+        @Label("Success")
+        boolean success;
+
+        @Label("Error")
+        String error;
+    }
+
+    @Name("molamola.config.Retry")
+    @Label("Config Retry Wait")
+    @Description("Backoff between failed attempts")
+    @Category({"Molamola", "Config"})
+    @StackTrace(false)
+    static final class RetryEvent extends Event {
+
+        @Label("Phase")
+        String phase;
+
+        @Label("Attempt")
+        int attempt;
+
+        @Label("Delay")
+        @Timespan(Timespan.MILLISECONDS)
+        long delay;
+    }
+}
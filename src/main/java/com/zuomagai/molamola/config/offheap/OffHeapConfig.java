@@ -0,0 +1,568 @@
+package com.zuomagai.molamola.config.offheap;
+
+import com.zuomagai.molamola.collection.IntArrayList;
+import com.zuomagai.molamola.config.ConfigAppliedListener;
+import com.zuomagai.molamola.config.ConfigSnapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable string-keyed configuration whose keys, values and lookup index live outside the Java
+ * heap, in direct or memory-mapped buffers. Lookups hash the key's UTF-8 bytes and compare them in
+ * place; values are only copied onto the heap when a caller asks for them as strings or arrays.
+ * <p>
+ * Call {@link #release()} once a version is retired, for example through {@link #releaseRetired()},
+ * to free the memory immediately. Reads in progress finish first; reads started after release fail
+ * with {@link IllegalStateException}, so readers should fetch the current snapshot for each use
+ * rather than holding on to an old one. Unreleased instances are reclaimed by the garbage collector.
+ */
+public final class OffHeapConfig implements AutoCloseable {
+
+    public interface ValueReader<R> {
+
+        /**
+         * Receives a read-only view of the value that is only valid during the call.
+         */
+        R read(ByteBuffer value);
+    }
+
+    private static final int ENTRY_INTS = 4;
+    private static final int KEY_OFFSET = 0;
+    private static final int KEY_LENGTH = 1;
+    private static final int VALUE_OFFSET = 2;
+    private static final int VALUE_LENGTH = 3;
+    private static final int RELEASED = 1;
+    private static final int READER = 2;
+
+    private final ByteBuffer data;
+    private final ByteBuffer entryMemory;
+    private final IntBuffer entries;
+    private final ByteBuffer tableMemory;
+    private final LongBuffer table;
+    private final int tableMask;
+    private final int size;
+    private final Path mappedFile;
+    // Bit 0 marks release; the remaining bits count reads in progress.
+    private final AtomicInteger state = new AtomicInteger();
+
+    private OffHeapConfig(ByteBuffer data, ByteBuffer entryMemory, ByteBuffer tableMemory, int size, Path mappedFile) {
+        this.data = data;
+        this.entryMemory = entryMemory;
+        this.entries = entryMemory.asIntBuffer();
+        this.tableMemory = tableMemory;
+        this.table = tableMemory.asLongBuffer();
+        this.tableMask = table.capacity() - 1;
+        this.size = size;
+        this.mappedFile = mappedFile;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Reads {@code key=value} lines (UTF-8, blank lines and lines starting with {@code #} skipped,
+     * keys and values trimmed, later duplicates winning) straight into direct memory.
+     */
+    public static OffHeapConfig read(InputStream inputStream, long sizeHint) throws IOException {
+        return builder().readProperties(inputStream, sizeHint).build();
+    }
+
+    /**
+     * Releases the previous snapshot's value once every listener has seen the new one.
+     */
+    public static ConfigAppliedListener<OffHeapConfig> releaseRetired() {
+        return (event, failedListeners) -> {
+            ConfigSnapshot<OffHeapConfig> previous = event.getPrevious();
+            // A lazy value nobody read was never materialized; parsing it just to free it is wasted work.
+            if (previous == null || previous == event.getCurrent() || !previous.isValueLoaded()) {
+                return;
+            }
+            OffHeapConfig retired = previous.getValue();
+            ConfigSnapshot<OffHeapConfig> current = event.getCurrent();
+            if (retired != null && !(current.isValueLoaded() && retired == current.getValue())) {
+                retired.release();
+            }
+        };
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Off-heap bytes held for keys, values and the index.
+     */
+    public long getOffHeapBytes() {
+        return (long) data.capacity() + entryMemory.capacity() + tableMemory.capacity();
+    }
+
+    public boolean isMapped() {
+        return mappedFile != null;
+    }
+
+    public boolean containsKey(String key) {
+        acquire();
+        try {
+            return find(encode(key)) >= 0;
+        } finally {
+            done();
+        }
+    }
+
+    public String getString(String key) {
+        return getString(key, null);
+    }
+
+    public String getString(String key, String defaultValue) {
+        byte[] value = getBytes(key);
+        return value == null ? defaultValue : new String(value, StandardCharsets.UTF_8);
+    }
+
+    public byte[] getBytes(String key) {
+        acquire();
+        try {
+            int entry = find(encode(key));
+            if (entry < 0) {
+                return null;
+            }
+            byte[] value = new byte[entries.get(entry + VALUE_LENGTH)];
+            ByteBuffer view = data.duplicate();
+            ((Buffer) view).position(entries.get(entry + VALUE_OFFSET));
+            view.get(value);
+            return value;
+        } finally {
+            done();
+        }
+    }
+
+    /**
+     * Parses a decimal value in place without creating a string.
+     */
+    public long getLong(String key, long defaultValue) {
+        acquire();
+        try {
+            int entry = find(encode(key));
+            if (entry < 0) {
+                return defaultValue;
+            }
+            int offset = entries.get(entry + VALUE_OFFSET);
+            int length = entries.get(entry + VALUE_LENGTH);
+            return parseLong(offset, length);
+        } finally {
+            done();
+        }
+    }
+
+    public int getInt(String key, int defaultValue) {
+        long value = getLong(key, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("value of " + key + " is out of int range: " + value);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Hands the raw value to the reader without copying it; returns null if the key is absent.
+     */
+    public <R> R read(String key, ValueReader<R> reader) {
+        if (reader == null) {
+            throw new IllegalArgumentException("reader must not be null");
+        }
+        acquire();
+        try {
+            int entry = find(encode(key));
+            if (entry < 0) {
+                return null;
+            }
+            ByteBuffer view = data.duplicate();
+            int offset = entries.get(entry + VALUE_OFFSET);
+            ((Buffer) view).limit(offset + entries.get(entry + VALUE_LENGTH)).position(offset);
+            return reader.read(view.slice().asReadOnlyBuffer());
+        } finally {
+            done();
+        }
+    }
+
+    public boolean isReleased() {
+        return (state.get() & RELEASED) != 0;
+    }
+
+    /**
+     * Frees the off-heap memory as soon as reads in progress have finished. Idempotent.
+     */
+    public void release() {
+        int current;
+        do {
+            current = state.get();
+            if ((current & RELEASED) != 0) {
+                return;
+            }
+        } while (!state.compareAndSet(current, current | RELEASED));
+        if (current == 0) {
+            free();
+        }
+    }
+
+    @Override
+    public void close() {
+        release();
+    }
+
+    private void acquire() {
+        int current;
+        do {
+            current = state.get();
+            if ((current & RELEASED) != 0) {
+                throw new IllegalStateException("config has been released");
+            }
+        } while (!state.compareAndSet(current, current + READER));
+    }
+
+    private void done() {
+        if (state.addAndGet(-READER) == RELEASED) {
+            free();
+        }
+    }
+
+    private void free() {
+        DirectMemory.free(data);
+        DirectMemory.free(entryMemory);
+        DirectMemory.free(tableMemory);
+        if (mappedFile != null) {
+            try {
+                Files.deleteIfExists(mappedFile);
+            } catch (IOException ignored) {
+                // The file lives in a temporary directory chosen by the caller.
+            }
+        }
+    }
+
+    private int find(byte[] key) {
+        int hash = hash(key, 0, key.length);
+        int slot = spread(hash) & tableMask;
+        while (true) {
+            long packed = table.get(slot);
+            if (packed == 0) {
+                return -1;
+            }
+            if ((int) (packed >>> 32) == hash) {
+                int entry = ((int) packed - 1) * ENTRY_INTS;
+                if (keyEquals(entry, key)) {
+                    return entry;
+                }
+            }
+            slot = (slot + 1) & tableMask;
+        }
+    }
+
+    private boolean keyEquals(int entry, byte[] key) {
+        if (entries.get(entry + KEY_LENGTH) != key.length) {
+            return false;
+        }
+        int offset = entries.get(entry + KEY_OFFSET);
+        for (int i = 0; i < key.length; i++) {
+            if (data.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long parseLong(int offset, int length) {
+        if (length == 0) {
+            throw new NumberFormatException("empty value");
+        }
+        int i = 0;
+        boolean negative = data.get(offset) == '-';
+        if (negative || data.get(offset) == '+') {
+            i++;
+            if (length == 1) {
+                throw new NumberFormatException("no digits");
+            }
+        }
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = data.get(offset + i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("not a decimal number at offset " + i);
+            }
+            // Accumulate negatively so Long.MIN_VALUE parses without overflow.
+            if (result < (Long.MIN_VALUE + digit) / 10) {
+                throw new NumberFormatException("value out of long range");
+            }
+            result = result * 10 - digit;
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw new NumberFormatException("value out of long range");
+            }
+            return -result;
+        }
+        return result;
+    }
+
+    private static byte[] encode(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static int hash(byte[] bytes, int offset, int length) {
+        int hash = 1;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + bytes[i];
+        }
+        return hash;
+    }
+
+    static int hash(ByteBuffer buffer, int offset, int length) {
+        int hash = 1;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        return hash;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Stages keys and values in direct memory. Not thread-safe; each builder builds once.
+     */
+    public static final class Builder {
+
+        private static final int INITIAL_CAPACITY = 4096;
+
+        private ByteBuffer staging;
+        private final IntArrayList ranges = new IntArrayList();
+        private Path mappedDirectory;
+        private boolean built;
+
+        private Builder() {
+        }
+
+        /**
+         * Backs the built config with a memory-mapped temporary file in the directory instead of
+         * direct memory, so the operating system can page it out. The file is deleted on release.
+         */
+        public Builder mapped(Path directory) {
+            if (directory == null) {
+                throw new IllegalArgumentException("directory must not be null");
+            }
+            this.mappedDirectory = directory;
+            return this;
+        }
+
+        public Builder put(String key, String value) {
+            if (value == null) {
+                throw new IllegalArgumentException("value must not be null");
+            }
+            return put(key, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public Builder put(String key, byte[] value) {
+            if (key == null || value == null) {
+                throw new IllegalArgumentException("key and value must not be null");
+            }
+            checkNotBuilt();
+            byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            int keyOffset = append(keyBytes, 0, keyBytes.length);
+            int valueOffset = append(value, 0, value.length);
+            addRange(keyOffset, keyBytes.length, valueOffset, value.length);
+            return this;
+        }
+
+        /**
+         * Appends the {@code key=value} lines of the stream, as described for {@link OffHeapConfig#read}.
+         */
+        public Builder readProperties(InputStream inputStream, long sizeHint) throws IOException {
+            if (inputStream == null) {
+                throw new IllegalArgumentException("inputStream must not be null");
+            }
+            checkNotBuilt();
+            int start = staging == null ? 0 : staging.position();
+            ensureCapacity((int) Math.min(Integer.MAX_VALUE - 8, Math.max(sizeHint, 0L)));
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = inputStream.read(chunk)) >= 0) {
+                append(chunk, 0, read);
+            }
+            indexLines(start, staging.position());
+            return this;
+        }
+
+        public OffHeapConfig build() throws IOException {
+            checkNotBuilt();
+            built = true;
+            if (staging == null) {
+                staging = ByteBuffer.allocateDirect(0);
+            }
+            int entryCount = ranges.size() / ENTRY_INTS;
+            ByteBuffer entryMemory = ByteBuffer.allocateDirect(Math.max(entryCount, 1) * ENTRY_INTS * 4);
+            IntBuffer entries = entryMemory.asIntBuffer();
+            int capacity = Integer.highestOneBit(Math.max(entryCount, 1) * 2 - 1) << 1;
+            ByteBuffer tableMemory = ByteBuffer.allocateDirect(capacity * 8);
+            LongBuffer table = tableMemory.asLongBuffer();
+            int mask = capacity - 1;
+            int size = 0;
+            for (int id = 0; id < entryCount; id++) {
+                int base = id * ENTRY_INTS;
+                int keyOffset = ranges.get(base + KEY_OFFSET);
+                int keyLength = ranges.get(base + KEY_LENGTH);
+                for (int i = 0; i < ENTRY_INTS; i++) {
+                    entries.put(base + i, ranges.get(base + i));
+                }
+                int hash = hash(staging, keyOffset, keyLength);
+                int slot = spread(hash) & mask;
+                boolean replaced = false;
+                long packed;
+                while ((packed = table.get(slot)) != 0) {
+                    int other = ((int) packed - 1) * ENTRY_INTS;
+                    if ((int) (packed >>> 32) == hash && sameKey(entries, other, keyOffset, keyLength)) {
+                        replaced = true;
+                        break;
+                    }
+                    slot = (slot + 1) & mask;
+                }
+                table.put(slot, ((long) hash << 32) | ((id + 1) & 0xFFFFFFFFL));
+                if (!replaced) {
+                    size++;
+                }
+            }
+            ByteBuffer data = staging;
+            Path mappedFile = null;
+            if (mappedDirectory != null) {
+                mappedFile = Files.createTempFile(mappedDirectory, "offheap-config-", ".bin");
+                data = map(mappedFile, staging);
+                DirectMemory.free(staging);
+            } else if (staging.capacity() - staging.position() > staging.position() / 4) {
+                // Give back the slack of the growth strategy; the staging copy is freed right away.
+                data = ByteBuffer.allocateDirect(staging.position());
+                ByteBuffer source = staging.duplicate();
+                ((Buffer) source).flip();
+                data.put(source);
+                DirectMemory.free(staging);
+            }
+            staging = null;
+            return new OffHeapConfig(data, entryMemory, tableMemory, size, mappedFile);
+        }
+
+        private boolean sameKey(IntBuffer entries, int entry, int keyOffset, int keyLength) {
+            if (entries.get(entry + KEY_LENGTH) != keyLength) {
+                return false;
+            }
+            int otherOffset = entries.get(entry + KEY_OFFSET);
+            for (int i = 0; i < keyLength; i++) {
+                if (staging.get(otherOffset + i) != staging.get(keyOffset + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void indexLines(int start, int end) {
+            int lineStart = start;
+            for (int i = start; i <= end; i++) {
+                if (i < end && staging.get(i) != '\n') {
+                    continue;
+                }
+                int from = skipSpaces(lineStart, i);
+                int to = trimSpaces(from, i);
+                lineStart = i + 1;
+                if (from == to || staging.get(from) == '#') {
+                    continue;
+                }
+                int separator = from;
+                while (separator < to && staging.get(separator) != '=') {
+                    separator++;
+                }
+                int keyEnd = trimSpaces(from, separator);
+                int valueStart = separator < to ? skipSpaces(separator + 1, to) : to;
+                addRange(from, keyEnd - from, valueStart, to - valueStart);
+            }
+        }
+
+        private int skipSpaces(int from, int to) {
+            while (from < to && isSpace(staging.get(from))) {
+                from++;
+            }
+            return from;
+        }
+
+        private int trimSpaces(int from, int to) {
+            while (to > from && isSpace(staging.get(to - 1))) {
+                to--;
+            }
+            return to;
+        }
+
+        private static boolean isSpace(byte b) {
+            return b >= 0 && b <= ' ';
+        }
+
+        private void addRange(int keyOffset, int keyLength, int valueOffset, int valueLength) {
+            ranges.add(keyOffset);
+            ranges.add(keyLength);
+            ranges.add(valueOffset);
+            ranges.add(valueLength);
+        }
+
+        private int append(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            int position = staging.position();
+            staging.put(bytes, offset, length);
+            return position;
+        }
+
+        private void ensureCapacity(int additional) {
+            if (staging == null) {
+                staging = ByteBuffer.allocateDirect(Math.max(INITIAL_CAPACITY, additional));
+                return;
+            }
+            if (staging.remaining() >= additional) {
+                return;
+            }
+            long required = (long) staging.position() + additional;
+            if (required > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("config exceeds 2GB");
+            }
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, (long) staging.capacity() << 1));
+            ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+            ((Buffer) staging).flip();
+            grown.put(staging);
+            DirectMemory.free(staging);
+            staging = grown;
+        }
+
+        private static ByteBuffer map(Path file, ByteBuffer staging) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                ByteBuffer source = staging.duplicate();
+                ((Buffer) source).flip();
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, source.remaining());
+                mapped.put(source);
+                return mapped;
+            }
+        }
+
+        private void checkNotBuilt() {
+            if (built) {
+                throw new IllegalStateException("builder has already been used");
+            }
+        }
+    }
+}
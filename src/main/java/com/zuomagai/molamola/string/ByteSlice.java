@@ -0,0 +1,440 @@
+package com.zuomagai.molamola.string;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only window over a byte array holding ASCII or UTF-8 text, so payloads can be scanned,
+ * compared, trimmed and split without decoding them to strings first. Slices share the
+ * underlying array; it must not be modified while a slice is in use. Case-insensitive operations
+ * fold ASCII letters only, except {@link #equalsIgnoreCase(ByteSlice)}, which decodes non-ASCII
+ * content to compare it like {@link String#equalsIgnoreCase(String)}.
+ */
+public final class ByteSlice {
+
+    public interface SliceHandler {
+
+        /**
+         * Receives the slice {@code array[start, end)}. Returns false to stop splitting.
+         */
+        boolean onSlice(byte[] array, int start, int end);
+    }
+
+    private static final ByteSlice EMPTY = new ByteSlice(new byte[0], 0, 0);
+
+    private final byte[] array;
+    private final int offset;
+    private final int length;
+    private int hash;
+
+    private ByteSlice(byte[] array, int offset, int length) {
+        this.array = array;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    public static ByteSlice empty() {
+        return EMPTY;
+    }
+
+    public static ByteSlice of(byte[] array) {
+        if (array == null) {
+            throw new IllegalArgumentException("array must not be null");
+        }
+        return new ByteSlice(array, 0, array.length);
+    }
+
+    public static ByteSlice of(byte[] array, int offset, int length) {
+        if (array == null) {
+            throw new IllegalArgumentException("array must not be null");
+        }
+        if (offset < 0 || length < 0 || offset > array.length - length) {
+            throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", array=" + array.length);
+        }
+        return new ByteSlice(array, offset, length);
+    }
+
+    /**
+     * Slices the remaining bytes of the buffer without moving its position. Heap buffers are shared;
+     * direct and read-only buffers have no accessible array and are copied.
+     */
+    public static ByteSlice of(ByteBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("buffer must not be null");
+        }
+        if (buffer.hasArray()) {
+            return new ByteSlice(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        byte[] copy = new byte[buffer.remaining()];
+        buffer.duplicate().get(copy);
+        return new ByteSlice(copy, 0, copy.length);
+    }
+
+    public static ByteSlice utf8(String str) {
+        if (str == null) {
+            throw new IllegalArgumentException("str must not be null");
+        }
+        return of(str.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    public byte byteAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index=" + index + ", length=" + length);
+        }
+        return array[offset + index];
+    }
+
+    public ByteSlice slice(int from, int to) {
+        if (from < 0 || to < from || to > length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + length);
+        }
+        return from == 0 && to == length ? this : new ByteSlice(array, offset + from, to - from);
+    }
+
+    public boolean isAscii() {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (array[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks for well-formed UTF-8: no overlong forms, surrogates or code points above U+10FFFF.
+     */
+    public boolean isValidUtf8() {
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            if (array[i] >= 0) {
+                i++;
+                continue;
+            }
+            int size = sequenceLength(array, i, end);
+            if (size < 0) {
+                return false;
+            }
+            i += size;
+        }
+        return true;
+    }
+
+    /**
+     * Matches {@link StringUtils#isBlank(CharSequence)} on the decoded text; malformed bytes are not blank.
+     */
+    public boolean isBlank() {
+        int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            byte b = array[i];
+            if (b >= 0) {
+                if (!Character.isWhitespace(b)) {
+                    return false;
+                }
+                i++;
+                continue;
+            }
+            int size = sequenceLength(array, i, end);
+            if (size < 0 || !Character.isWhitespace(decodeCodePoint(array, i, size))) {
+                return false;
+            }
+            i += size;
+        }
+        return true;
+    }
+
+    /**
+     * Drops leading and trailing bytes up to and including space, matching {@link String#trim()}.
+     */
+    public ByteSlice trim() {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && array[start] >= 0 && array[start] <= ' ') {
+            start++;
+        }
+        while (end > start && array[end - 1] >= 0 && array[end - 1] <= ' ') {
+            end--;
+        }
+        return slice(start - offset, end - offset);
+    }
+
+    public int indexOf(byte value) {
+        return indexOf(value, 0);
+    }
+
+    public int indexOf(byte value, int fromIndex) {
+        for (int i = offset + Math.max(fromIndex, 0), end = offset + length; i < end; i++) {
+            if (array[i] == value) {
+                return i - offset;
+            }
+        }
+        return -1;
+    }
+
+    public int indexOf(ByteSlice needle) {
+        return indexOf(needle, false);
+    }
+
+    public int indexOfIgnoreCase(ByteSlice needle) {
+        return indexOf(needle, true);
+    }
+
+    public boolean contains(ByteSlice needle) {
+        return indexOf(needle, false) >= 0;
+    }
+
+    public boolean containsIgnoreCase(ByteSlice needle) {
+        return indexOf(needle, true) >= 0;
+    }
+
+    public boolean startsWith(ByteSlice prefix) {
+        return prefix.length <= length && regionMatches(offset, prefix, false);
+    }
+
+    public boolean startsWithIgnoreCase(ByteSlice prefix) {
+        return prefix.length <= length && regionMatches(offset, prefix, true);
+    }
+
+    /**
+     * Compares against the UTF-8 encoding of {@code str} without encoding it; unpaired surrogates never match.
+     */
+    public boolean contentEquals(CharSequence str) {
+        if (str == null) {
+            return false;
+        }
+        int position = offset;
+        int end = offset + length;
+        int count = str.length();
+        for (int i = 0; i < count; i++) {
+            char c = str.charAt(i);
+            int codePoint = c;
+            if (Character.isHighSurrogate(c) && i + 1 < count && Character.isLowSurrogate(str.charAt(i + 1))) {
+                codePoint = Character.toCodePoint(c, str.charAt(++i));
+            } else if (Character.isSurrogate(c)) {
+                return false;
+            }
+            int size = codePoint < 0x80 ? 1 : codePoint < 0x800 ? 2 : codePoint < 0x10000 ? 3 : 4;
+            if (end - position < size) {
+                return false;
+            }
+            if (size == 1) {
+                if (array[position] != codePoint) {
+                    return false;
+                }
+            } else if (sequenceLength(array, position, end) != size || decodeCodePoint(array, position, size) != codePoint) {
+                return false;
+            }
+            position += size;
+        }
+        return position == end;
+    }
+
+    public boolean equalsIgnoreCase(ByteSlice other) {
+        if (other == null) {
+            return false;
+        }
+        if (other.length == length && regionMatches(offset, other, true)) {
+            return true;
+        }
+        if (isAscii() && other.isAscii()) {
+            return false;
+        }
+        return toString().equalsIgnoreCase(other.toString());
+    }
+
+    /**
+     * Pushes every slice between separators to the handler without allocating.
+     * Returns the number of slices delivered.
+     */
+    public int split(byte separator, SliceHandler handler) {
+        if (handler == null) {
+            throw new IllegalArgumentException("handler must not be null");
+        }
+        int end = offset + length;
+        int start = offset;
+        int count = 0;
+        for (int i = offset; i <= end; i++) {
+            if (i == end || array[i] == separator) {
+                count++;
+                if (!handler.onSlice(array, start, i)) {
+                    break;
+                }
+                start = i + 1;
+            }
+        }
+        return count;
+    }
+
+    public List<ByteSlice> split(byte separator) {
+        List<ByteSlice> slices = new ArrayList<>();
+        split(separator, (bytes, start, end) -> slices.add(new ByteSlice(bytes, start, end - start)));
+        return slices;
+    }
+
+    /**
+     * Decodes leniently, replacing malformed input. ASCII content skips the charset decoder.
+     */
+    public String decode(Charset charset) {
+        if (charset == null) {
+            throw new IllegalArgumentException("charset must not be null");
+        }
+        if (isAscii() && isAsciiCompatible(charset)) {
+            return new String(array, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        return new String(array, offset, length, charset);
+    }
+
+    /**
+     * Decodes as UTF-8, failing on malformed input instead of substituting replacement chars.
+     */
+    public String decodeStrict() throws CharacterCodingException {
+        if (isAscii()) {
+            return new String(array, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        CharBuffer decoded = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT)
+                .decode(ByteBuffer.wrap(array, offset, length));
+        return decoded.toString();
+    }
+
+    public byte[] toByteArray() {
+        byte[] copy = new byte[length];
+        System.arraycopy(array, offset, copy, 0, length);
+        return copy;
+    }
+
+    public ByteBuffer asByteBuffer() {
+        return ByteBuffer.wrap(array, offset, length).slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ByteSlice)) {
+            return false;
+        }
+        ByteSlice other = (ByteSlice) obj;
+        return other.length == length && regionMatches(offset, other, false);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = 1;
+            for (int i = offset, end = offset + length; i < end; i++) {
+                result = 31 * result + array[i];
+            }
+            hash = result;
+        }
+        return result;
+    }
+
+    /**
+     * Decodes as UTF-8, replacing malformed input.
+     */
+    @Override
+    public String toString() {
+        return decode(StandardCharsets.UTF_8);
+    }
+
+    private int indexOf(ByteSlice needle, boolean ignoreCase) {
+        if (needle == null) {
+            throw new IllegalArgumentException("needle must not be null");
+        }
+        if (needle.length == 0) {
+            return 0;
+        }
+        byte first = ignoreCase ? foldAscii(needle.array[needle.offset]) : needle.array[needle.offset];
+        int max = offset + length - needle.length;
+        for (int i = offset; i <= max; i++) {
+            byte b = ignoreCase ? foldAscii(array[i]) : array[i];
+            if (b == first && regionMatches(i, needle, ignoreCase)) {
+                return i - offset;
+            }
+        }
+        return -1;
+    }
+
+    private boolean regionMatches(int start, ByteSlice other, boolean ignoreCase) {
+        byte[] otherArray = other.array;
+        for (int i = 0, j = other.offset; i < other.length; i++, j++) {
+            byte a = array[start + i];
+            byte b = otherArray[j];
+            if (a != b && (!ignoreCase || foldAscii(a) != foldAscii(b))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte foldAscii(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the length of the well-formed multi-byte sequence at {@code index}, or -1 if malformed.
+     */
+    private static int sequenceLength(byte[] bytes, int index, int end) {
+        int lead = bytes[index] & 0xFF;
+        int size;
+        int min;
+        if (lead >= 0xC2 && lead <= 0xDF) {
+            size = 2;
+            min = 0x80;
+        } else if (lead >= 0xE0 && lead <= 0xEF) {
+            size = 3;
+            min = 0x800;
+        } else if (lead >= 0xF0 && lead <= 0xF4) {
+            size = 4;
+            min = 0x10000;
+        } else {
+            return -1;
+        }
+        if (end - index < size) {
+            return -1;
+        }
+        for (int i = 1; i < size; i++) {
+            if ((bytes[index + i] & 0xC0) != 0x80) {
+                return -1;
+            }
+        }
+        int codePoint = decodeCodePoint(bytes, index, size);
+        if (codePoint < min || codePoint > Character.MAX_CODE_POINT
+                || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+            return -1;
+        }
+        return size;
+    }
+
+    private static int decodeCodePoint(byte[] bytes, int index, int size) {
+        int codePoint = bytes[index] & (0xFF >> (size + 1));
+        for (int i = 1; i < size; i++) {
+            codePoint = (codePoint << 6) | (bytes[index + i] & 0x3F);
+        }
+        return codePoint;
+    }
+}
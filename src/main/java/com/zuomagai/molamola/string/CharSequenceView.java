@@ -0,0 +1,125 @@
+package com.zuomagai.molamola.string;
+
+/**
+ * Window over a range of another char sequence that shares the source chars instead of copying them.
+ * A view can be {@link #reset reset} and reused, so it must not be kept after the code that handed
+ * it out moves on; call {@link #toString()} to take a copy. The source must not change while viewed.
+ */
+public final class CharSequenceView implements CharSequence {
+
+    private CharSequence source = "";
+    private int start;
+    private int end;
+
+    public CharSequenceView() {
+    }
+
+    public static CharSequenceView of(CharSequence source) {
+        if (source == null) {
+            throw new IllegalArgumentException("source must not be null");
+        }
+        return new CharSequenceView().reset(source, 0, source.length());
+    }
+
+    public static CharSequenceView of(CharSequence source, int start, int end) {
+        return new CharSequenceView().reset(source, start, end);
+    }
+
+    public CharSequenceView reset(CharSequence source, int start, int end) {
+        if (source == null) {
+            throw new IllegalArgumentException("source must not be null");
+        }
+        if (start < 0 || end < start || end > source.length()) {
+            throw new IndexOutOfBoundsException("start=" + start + ", end=" + end + ", length=" + source.length());
+        }
+        this.source = source;
+        this.start = start;
+        this.end = end;
+        return this;
+    }
+
+    public CharSequence getSource() {
+        return source;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public boolean isEmpty() {
+        return start == end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= end - start) {
+            throw new IndexOutOfBoundsException("index=" + index + ", length=" + (end - start));
+        }
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public CharSequenceView subSequence(int from, int to) {
+        if (from < 0 || to < from || to > end - start) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to + ", length=" + (end - start));
+        }
+        return new CharSequenceView().reset(source, start + from, start + to);
+    }
+
+    /**
+     * Narrows this view, in place, to exclude leading and trailing chars up to and including space,
+     * matching {@link String#trim()}.
+     */
+    public CharSequenceView trim() {
+        while (start < end && source.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && source.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return this;
+    }
+
+    public boolean contentEquals(CharSequence other) {
+        if (other == null || other.length() != end - start) {
+            return false;
+        }
+        for (int i = start, j = 0; i < end; i++, j++) {
+            if (source.charAt(i) != other.charAt(j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean contentEqualsIgnoreCase(CharSequence other) {
+        if (other == null || other.length() != end - start) {
+            return false;
+        }
+        for (int i = start, j = 0; i < end; i++, j++) {
+            char a = source.charAt(i);
+            char b = other.charAt(j);
+            if (a != b && StringSearcher.fold(a) != StringSearcher.fold(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        if (source instanceof String) {
+            return ((String) source).substring(start, end);
+        }
+        return new StringBuilder(end - start).append(source, start, end).toString();
+    }
+}
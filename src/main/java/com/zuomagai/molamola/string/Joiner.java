@@ -0,0 +1,167 @@
+package com.zuomagai.molamola.string;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Joins items with a delimiter, either into an exactly pre-sized string or straight into a
+ * caller-supplied builder or {@link Appendable}. Char sequence items are appended without
+ * converting them to strings first. By default null items contribute nothing, like
+ * {@link StringUtils#join(Object[], String)}.
+ */
+public final class Joiner {
+
+    private static final int ESTIMATED_ITEM_LENGTH = 16;
+
+    private final String delimiter;
+    private final boolean skipNulls;
+    private final String nullText;
+
+    private Joiner(String delimiter, boolean skipNulls, String nullText) {
+        this.delimiter = delimiter;
+        this.skipNulls = skipNulls;
+        this.nullText = nullText;
+    }
+
+    public static Joiner on(String delimiter) {
+        return new Joiner(delimiter == null ? "" : delimiter, false, "");
+    }
+
+    public static Joiner on(char delimiter) {
+        return on(String.valueOf(delimiter));
+    }
+
+    /**
+     * Leaves null items out entirely, including their delimiter.
+     */
+    public Joiner skipNulls() {
+        return new Joiner(delimiter, true, nullText);
+    }
+
+    public Joiner useForNull(String nullText) {
+        if (nullText == null) {
+            throw new IllegalArgumentException("nullText must not be null");
+        }
+        return new Joiner(delimiter, false, nullText);
+    }
+
+    public String join(Object[] items) {
+        if (items == null || items.length == 0) {
+            return "";
+        }
+        int capacity = delimiter.length() * (items.length - 1);
+        for (Object item : items) {
+            capacity += estimateLength(item);
+        }
+        return appendTo(new StringBuilder(capacity), items).toString();
+    }
+
+    public String join(Iterable<?> items) {
+        if (items == null) {
+            return "";
+        }
+        int capacity = 0;
+        if (items instanceof Collection) {
+            Collection<?> collection = (Collection<?>) items;
+            if (collection.isEmpty()) {
+                return "";
+            }
+            capacity = delimiter.length() * (collection.size() - 1);
+            for (Object item : collection) {
+                capacity += estimateLength(item);
+            }
+        }
+        return appendTo(new StringBuilder(Math.max(capacity, ESTIMATED_ITEM_LENGTH)), items).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder builder, Object[] items) {
+        if (builder == null) {
+            throw new IllegalArgumentException("builder must not be null");
+        }
+        if (items == null) {
+            return builder;
+        }
+        boolean first = true;
+        for (Object item : items) {
+            if (item == null && skipNulls) {
+                continue;
+            }
+            if (!first) {
+                builder.append(delimiter);
+            }
+            appendItem(builder, item);
+            first = false;
+        }
+        return builder;
+    }
+
+    public StringBuilder appendTo(StringBuilder builder, Iterable<?> items) {
+        if (builder == null) {
+            throw new IllegalArgumentException("builder must not be null");
+        }
+        if (items == null) {
+            return builder;
+        }
+        boolean first = true;
+        Iterator<?> iterator = items.iterator();
+        while (iterator.hasNext()) {
+            Object item = iterator.next();
+            if (item == null && skipNulls) {
+                continue;
+            }
+            if (!first) {
+                builder.append(delimiter);
+            }
+            appendItem(builder, item);
+            first = false;
+        }
+        return builder;
+    }
+
+    public <A extends Appendable> A appendTo(A appendable, Iterable<?> items) throws IOException {
+        if (appendable == null) {
+            throw new IllegalArgumentException("appendable must not be null");
+        }
+        if (items == null) {
+            return appendable;
+        }
+        boolean first = true;
+        Iterator<?> iterator = items.iterator();
+        while (iterator.hasNext()) {
+            Object item = iterator.next();
+            if (item == null && skipNulls) {
+                continue;
+            }
+            if (!first) {
+                appendable.append(delimiter);
+            }
+            if (item == null) {
+                appendable.append(nullText);
+            } else if (item instanceof CharSequence) {
+                appendable.append((CharSequence) item);
+            } else {
+                appendable.append(String.valueOf(item));
+            }
+            first = false;
+        }
+        return appendable;
+    }
+
+    private void appendItem(StringBuilder builder, Object item) {
+        if (item == null) {
+            builder.append(nullText);
+        } else if (item instanceof CharSequence) {
+            builder.append((CharSequence) item);
+        } else {
+            builder.append(item);
+        }
+    }
+
+    private int estimateLength(Object item) {
+        if (item == null) {
+            return skipNulls ? 0 : nullText.length();
+        }
+        return item instanceof CharSequence ? ((CharSequence) item).length() : ESTIMATED_ITEM_LENGTH;
+    }
+}
@@ -0,0 +1,209 @@
+package com.zuomagai.molamola.string;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+
+/**
+ * Aho-Corasick automaton that finds any of a fixed set of patterns in a single pass over the text,
+ * independent of how many patterns there are. Immutable and safe to share between threads.
+ * Case-insensitive matching folds each UTF-16 char independently, so only BMP case pairs match;
+ * supplementary-plane pairs such as U+10400/U+10428 are compared exactly. Use
+ * {@link StringSearcher#ignoreCase} when a needle needs full JDK case folding.
+ */
+public final class MultiStringSearcher {
+
+    private static final int ROOT = 0;
+
+    private final List<String> patterns;
+    private final boolean ignoreCase;
+    private final int[] rootNext = new int[128];
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] fail;
+    private final int[] match;
+    private final int[] patternLengths;
+
+    private MultiStringSearcher(List<String> patterns, boolean ignoreCase) {
+        this.patterns = patterns;
+        this.ignoreCase = ignoreCase;
+        this.patternLengths = new int[patterns.size()];
+        List<TreeMap<Character, Integer>> trie = new ArrayList<>();
+        List<Integer> terminals = new ArrayList<>();
+        trie.add(new TreeMap<>());
+        terminals.add(-1);
+        for (int p = 0; p < patterns.size(); p++) {
+            String pattern = patterns.get(p);
+            patternLengths[p] = pattern.length();
+            int state = ROOT;
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = ignoreCase ? StringSearcher.fold(pattern.charAt(i)) : pattern.charAt(i);
+                Integer next = trie.get(state).get(c);
+                if (next == null) {
+                    next = trie.size();
+                    trie.add(new TreeMap<>());
+                    terminals.add(-1);
+                    trie.get(state).put(c, next);
+                }
+                state = next;
+            }
+            if (terminals.get(state) < 0) {
+                terminals.set(state, p);
+            }
+        }
+
+        int size = trie.size();
+        this.keys = new char[size][];
+        this.targets = new int[size][];
+        this.fail = new int[size];
+        this.match = new int[size];
+        for (int state = 0; state < size; state++) {
+            Map<Character, Integer> children = trie.get(state);
+            char[] stateKeys = new char[children.size()];
+            int[] stateTargets = new int[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> child : children.entrySet()) {
+                stateKeys[i] = child.getKey();
+                stateTargets[i] = child.getValue();
+                i++;
+            }
+            keys[state] = stateKeys;
+            targets[state] = stateTargets;
+        }
+
+        // Breadth-first so every fail target is final before its dependents are computed.
+        Queue<Integer> queue = new ArrayDeque<>();
+        match[ROOT] = terminals.get(ROOT);
+        for (int child : targets[ROOT]) {
+            fail[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int own = terminals.get(state);
+            match[state] = own >= 0 ? own : match[fail[state]];
+            for (int i = 0; i < keys[state].length; i++) {
+                int child = targets[state][i];
+                fail[child] = next(fail[state], keys[state][i]);
+                queue.add(child);
+            }
+        }
+        for (char c = 0; c < 128; c++) {
+            int index = Arrays.binarySearch(keys[ROOT], c);
+            rootNext[c] = index >= 0 ? targets[ROOT][index] : ROOT;
+        }
+    }
+
+    public static MultiStringSearcher of(String... patterns) {
+        if (patterns == null) {
+            throw new IllegalArgumentException("patterns must not be null");
+        }
+        return of(Arrays.asList(patterns), false);
+    }
+
+    public static MultiStringSearcher ignoreCase(String... patterns) {
+        if (patterns == null) {
+            throw new IllegalArgumentException("patterns must not be null");
+        }
+        return of(Arrays.asList(patterns), true);
+    }
+
+    public static MultiStringSearcher of(Collection<String> patterns, boolean ignoreCase) {
+        if (patterns == null) {
+            throw new IllegalArgumentException("patterns must not be null");
+        }
+        List<String> copy = new ArrayList<>(patterns.size());
+        for (String pattern : patterns) {
+            if (pattern == null) {
+                throw new IllegalArgumentException("patterns must not contain null");
+            }
+            copy.add(pattern);
+        }
+        return new MultiStringSearcher(Collections.unmodifiableList(copy), ignoreCase);
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    public boolean containsAny(CharSequence text) {
+        return findFirst(text) != null;
+    }
+
+    /**
+     * Returns the match that ends first in the text; among matches ending at the same position,
+     * the longest pattern wins. Returns null if no pattern occurs.
+     */
+    public Match findFirst(CharSequence text) {
+        if (text == null || patterns.isEmpty()) {
+            return null;
+        }
+        if (match[ROOT] >= 0) {
+            return new Match(patterns.get(match[ROOT]), 0, 0);
+        }
+        int state = ROOT;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = ignoreCase ? StringSearcher.fold(text.charAt(i)) : text.charAt(i);
+            state = state == ROOT && c < 128 ? rootNext[c] : next(state, c);
+            int found = match[state];
+            if (found >= 0) {
+                return new Match(patterns.get(found), i + 1 - patternLengths[found], i + 1);
+            }
+        }
+        return null;
+    }
+
+    private int next(int state, char c) {
+        while (true) {
+            int index = Arrays.binarySearch(keys[state], c);
+            if (index >= 0) {
+                return targets[state][index];
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = fail[state];
+        }
+    }
+
+    public static final class Match {
+
+        private final String pattern;
+        private final int start;
+        private final int end;
+
+        Match(String pattern, int start, int end) {
+            this.pattern = pattern;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public int getStart() {
+            return start;
+        }
+
+        public int getEnd() {
+            return end;
+        }
+
+        @Override
+        public String toString() {
+            return "Match{pattern='" + pattern + "', start=" + start + ", end=" + end + '}';
+        }
+    }
+}
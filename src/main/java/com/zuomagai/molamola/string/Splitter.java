@@ -0,0 +1,226 @@
+package com.zuomagai.molamola.string;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Splits char sequences on a literal separator without regular expressions or substring copies.
+ * Tokens are reported as index ranges or {@link CharSequenceView}s over the input. Immutable and
+ * thread-safe; {@link Cursor}s are not.
+ */
+public final class Splitter {
+
+    public interface TokenHandler {
+
+        /**
+         * Receives the token {@code source[start, end)}. Returns false to stop splitting.
+         */
+        boolean onToken(CharSequence source, int start, int end);
+    }
+
+    private static final int WHITESPACE = -1;
+
+    private final int separatorChar;
+    private final String separator;
+    private final boolean trimResults;
+    private final boolean omitEmptyStrings;
+
+    private Splitter(int separatorChar, String separator, boolean trimResults, boolean omitEmptyStrings) {
+        this.separatorChar = separatorChar;
+        this.separator = separator;
+        this.trimResults = trimResults;
+        this.omitEmptyStrings = omitEmptyStrings;
+    }
+
+    public static Splitter on(char separator) {
+        return new Splitter(separator, null, false, false);
+    }
+
+    public static Splitter on(String separator) {
+        if (separator == null || separator.isEmpty()) {
+            throw new IllegalArgumentException("separator must not be empty");
+        }
+        if (separator.length() == 1) {
+            return on(separator.charAt(0));
+        }
+        return new Splitter(0, separator, false, false);
+    }
+
+    /**
+     * Splits on runs of {@link Character#isWhitespace whitespace}; empty tokens are always omitted.
+     */
+    public static Splitter onWhitespace() {
+        return new Splitter(WHITESPACE, null, false, true);
+    }
+
+    public Splitter trimResults() {
+        return new Splitter(separatorChar, separator, true, omitEmptyStrings);
+    }
+
+    public Splitter omitEmptyStrings() {
+        return new Splitter(separatorChar, separator, trimResults, true);
+    }
+
+    /**
+     * Pushes every token to the handler without creating per-token objects.
+     * Returns the number of tokens delivered.
+     */
+    public int split(CharSequence input, TokenHandler handler) {
+        if (input == null) {
+            throw new IllegalArgumentException("input must not be null");
+        }
+        if (handler == null) {
+            throw new IllegalArgumentException("handler must not be null");
+        }
+        Cursor cursor = new Cursor().reset(input);
+        int count = 0;
+        while (cursor.next()) {
+            count++;
+            if (!handler.onToken(input, cursor.start, cursor.end)) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Lazily splits the input, producing a new view per token.
+     */
+    public Iterable<CharSequence> split(CharSequence input) {
+        if (input == null) {
+            throw new IllegalArgumentException("input must not be null");
+        }
+        return () -> new Iterator<CharSequence>() {
+
+            private final Cursor cursor = cursor().reset(input);
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                if (!ready) {
+                    ready = cursor.next();
+                }
+                return ready;
+            }
+
+            @Override
+            public CharSequence next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ready = false;
+                return CharSequenceView.of(input, cursor.start(), cursor.end());
+            }
+        };
+    }
+
+    public List<String> splitToList(CharSequence input) {
+        List<String> tokens = new ArrayList<>();
+        split(input, (source, start, end) -> tokens.add(source.subSequence(start, end).toString()));
+        return tokens;
+    }
+
+    /**
+     * Creates a reusable pull-style cursor; reset it for each input.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    private int separatorLength() {
+        return separator == null ? 1 : separator.length();
+    }
+
+    private int indexOfSeparator(CharSequence input, int from, int length) {
+        if (separator == null) {
+            for (int i = from; i < length; i++) {
+                char c = input.charAt(i);
+                if (separatorChar == WHITESPACE ? Character.isWhitespace(c) : c == separatorChar) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        int separatorLength = separator.length();
+        char first = separator.charAt(0);
+        int max = length - separatorLength;
+        for (int i = from; i <= max; i++) {
+            if (input.charAt(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < separatorLength && input.charAt(i + j) == separator.charAt(j)) {
+                j++;
+            }
+            if (j == separatorLength) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public final class Cursor {
+
+        private CharSequenceView token;
+        private CharSequence input = "";
+        private int position = 1;
+        private int start;
+        private int end;
+
+        private Cursor() {
+        }
+
+        public Cursor reset(CharSequence input) {
+            if (input == null) {
+                throw new IllegalArgumentException("input must not be null");
+            }
+            this.input = input;
+            this.position = 0;
+            this.start = 0;
+            this.end = 0;
+            return this;
+        }
+
+        public boolean next() {
+            int length = input.length();
+            while (position <= length) {
+                int index = indexOfSeparator(input, position, length);
+                start = position;
+                end = index < 0 ? length : index;
+                position = index < 0 ? length + 1 : index + separatorLength();
+                if (trimResults) {
+                    while (start < end && input.charAt(start) <= ' ') {
+                        start++;
+                    }
+                    while (end > start && input.charAt(end - 1) <= ' ') {
+                        end--;
+                    }
+                }
+                if (!omitEmptyStrings || start != end) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public int start() {
+            return start;
+        }
+
+        public int end() {
+            return end;
+        }
+
+        /**
+         * The current token as a view that is reused by the next call to {@link #next()}.
+         */
+        public CharSequenceView token() {
+            if (token == null) {
+                token = new CharSequenceView();
+            }
+            return token.reset(input, start, end);
+        }
+    }
+}
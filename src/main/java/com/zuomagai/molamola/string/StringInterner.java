@@ -0,0 +1,232 @@
+package com.zuomagai.molamola.string;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.CharBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded deduplication pool that hands out one canonical instance per distinct string content.
+ * Entries are weakly referenced, so strings nobody else holds are reclaimed by the collector, and
+ * the table is split into independently locked segments. Unlike {@link String#intern()} the pool
+ * is private to its owner and can look up char sequences, such as {@link CharSequenceView}s,
+ * without creating a string when the content is already pooled. Once a segment is full new
+ * content is returned as is instead of being pooled.
+ */
+public final class StringInterner {
+
+    private static final int DEFAULT_MAXIMUM_SIZE = 1 << 16;
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public StringInterner() {
+        this(DEFAULT_MAXIMUM_SIZE, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public StringInterner(int maximumSize) {
+        this(maximumSize, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    public StringInterner(int maximumSize, int concurrencyLevel) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be > 0");
+        }
+        if (concurrencyLevel <= 0 || concurrencyLevel > (1 << 16)) {
+            throw new IllegalArgumentException("concurrencyLevel must be in (0, 65536]");
+        }
+        int segmentCount = 1;
+        while (segmentCount < concurrencyLevel) {
+            segmentCount <<= 1;
+        }
+        int perSegment = Math.max(1, (maximumSize + segmentCount - 1) / segmentCount);
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    public String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        return intern(value, value.hashCode());
+    }
+
+    public String intern(CharSequence value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof String) {
+            return intern((String) value);
+        }
+        int hash = 0;
+        for (int i = 0, length = value.length(); i < length; i++) {
+            hash = 31 * hash + value.charAt(i);
+        }
+        return intern(value, hash);
+    }
+
+    /**
+     * Interns {@code chars[offset, offset + length)}, creating a string only if the content is new.
+     */
+    public String intern(char[] chars, int offset, int length) {
+        if (chars == null) {
+            return null;
+        }
+        return intern(CharBuffer.wrap(chars, offset, length));
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0D : (double) hitCount / total;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    private String intern(CharSequence value, int hash) {
+        return segments[(hash ^ (hash >>> 16)) & segmentMask].intern(value, hash);
+    }
+
+    private static boolean contentEquals(String pooled, CharSequence value) {
+        if (value instanceof String) {
+            return pooled.equals(value);
+        }
+        int length = pooled.length();
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (pooled.charAt(i) != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class Entry extends WeakReference<String> {
+
+        private final int hash;
+        private Entry next;
+
+        Entry(String value, int hash, Entry next, ReferenceQueue<String> queue) {
+            super(value, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    private final class Segment {
+
+        private final int maximumSize;
+        private final ReferenceQueue<String> queue = new ReferenceQueue<>();
+        private Entry[] table = new Entry[16];
+        private int count;
+
+        Segment(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        synchronized String intern(CharSequence value, int hash) {
+            expungeStaleEntries();
+            int index = indexFor(hash, table.length);
+            for (Entry entry = table[index]; entry != null; entry = entry.next) {
+                if (entry.hash != hash) {
+                    continue;
+                }
+                String pooled = entry.get();
+                if (pooled != null && contentEquals(pooled, value)) {
+                    hits.increment();
+                    return pooled;
+                }
+            }
+            misses.increment();
+            String pooled = value.toString();
+            if (count >= maximumSize) {
+                return pooled;
+            }
+            table[index] = new Entry(pooled, hash, table[index], queue);
+            if (++count > table.length * 3 / 4) {
+                resize();
+            }
+            return pooled;
+        }
+
+        synchronized int size() {
+            expungeStaleEntries();
+            return count;
+        }
+
+        synchronized void clear() {
+            table = new Entry[16];
+            count = 0;
+        }
+
+        private void expungeStaleEntries() {
+            Reference<? extends String> reference;
+            while ((reference = queue.poll()) != null) {
+                Entry stale = (Entry) reference;
+                int index = indexFor(stale.hash, table.length);
+                Entry previous = null;
+                for (Entry entry = table[index]; entry != null; previous = entry, entry = entry.next) {
+                    if (entry == stale) {
+                        if (previous == null) {
+                            table[index] = entry.next;
+                        } else {
+                            previous.next = entry.next;
+                        }
+                        count--;
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void resize() {
+            Entry[] old = table;
+            Entry[] resized = new Entry[old.length << 1];
+            for (Entry head : old) {
+                Entry entry = head;
+                while (entry != null) {
+                    Entry next = entry.next;
+                    int index = indexFor(entry.hash, resized.length);
+                    entry.next = resized[index];
+                    resized[index] = entry;
+                    entry = next;
+                }
+            }
+            table = resized;
+        }
+
+        private int indexFor(int hash, int length) {
+            // The low bits pick the segment, so take the bucket from the top bits of a multiplicative hash.
+            return (hash * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(length));
+        }
+    }
+}
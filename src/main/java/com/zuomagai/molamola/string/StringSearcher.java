@@ -0,0 +1,177 @@
+package com.zuomagai.molamola.string;
+
+/**
+ * Precompiled single-needle searcher based on Boyer-Moore-Horspool. Build it once per needle and
+ * reuse it from any number of threads. Case-insensitive matching folds chars the same way as
+ * {@link String#regionMatches(boolean, int, String, int, int)}, with a table lookup for ASCII;
+ * needles containing surrogate pairs fall back to a region-matching scan so supplementary
+ * case folding stays identical to the JDK.
+ */
+public final class StringSearcher {
+
+    private static final int SHIFT_TABLE_SIZE = 256;
+    private static final char[] ASCII_FOLD = new char[128];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            ASCII_FOLD[c] = (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : c;
+        }
+    }
+
+    private final String needle;
+    private final boolean ignoreCase;
+    private final boolean regionFallback;
+    private final char[] pattern;
+    private final int[] shifts;
+
+    private StringSearcher(String needle, boolean ignoreCase) {
+        this.needle = needle;
+        this.ignoreCase = ignoreCase;
+        int length = needle.length();
+        boolean surrogates = false;
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            char c = needle.charAt(i);
+            surrogates |= Character.isSurrogate(c);
+            chars[i] = ignoreCase ? fold(c) : c;
+        }
+        this.regionFallback = ignoreCase && surrogates;
+        this.pattern = chars;
+        this.shifts = new int[SHIFT_TABLE_SIZE];
+        for (int i = 0; i < SHIFT_TABLE_SIZE; i++) {
+            shifts[i] = Math.max(length, 1);
+        }
+        // Chars sharing a low byte keep the smallest shift, which is always safe.
+        for (int i = 0; i < length - 1; i++) {
+            shifts[chars[i] & 0xFF] = length - 1 - i;
+        }
+    }
+
+    public static StringSearcher of(String needle) {
+        return of(needle, false);
+    }
+
+    public static StringSearcher ignoreCase(String needle) {
+        return of(needle, true);
+    }
+
+    public static StringSearcher of(String needle, boolean ignoreCase) {
+        if (needle == null) {
+            throw new IllegalArgumentException("needle must not be null");
+        }
+        return new StringSearcher(needle, ignoreCase);
+    }
+
+    public String getNeedle() {
+        return needle;
+    }
+
+    public boolean isIgnoreCase() {
+        return ignoreCase;
+    }
+
+    public boolean contains(CharSequence haystack) {
+        return indexOf(haystack, 0) >= 0;
+    }
+
+    public int indexOf(CharSequence haystack) {
+        return indexOf(haystack, 0);
+    }
+
+    public int indexOf(CharSequence haystack, int fromIndex) {
+        if (haystack == null) {
+            return -1;
+        }
+        int from = Math.max(fromIndex, 0);
+        int length = pattern.length;
+        int max = haystack.length() - length;
+        if (from > max) {
+            return -1;
+        }
+        if (length == 0) {
+            return from;
+        }
+        if (regionFallback) {
+            return regionIndexOf(haystack.toString(), from, max);
+        }
+        if (length == 1) {
+            return ignoreCase ? indexOfFolded(haystack, pattern[0], from, max) : indexOfChar(haystack, pattern[0], from, max);
+        }
+        return ignoreCase ? horspoolFolded(haystack, from, max) : horspool(haystack, from, max);
+    }
+
+    static char fold(char c) {
+        if (c < 128) {
+            return ASCII_FOLD[c];
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private int horspool(CharSequence haystack, int from, int max) {
+        int lastIndex = pattern.length - 1;
+        char last = pattern[lastIndex];
+        int i = from;
+        while (i <= max) {
+            char c = haystack.charAt(i + lastIndex);
+            if (c == last) {
+                int j = lastIndex - 1;
+                while (j >= 0 && haystack.charAt(i + j) == pattern[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return i;
+                }
+            }
+            i += shifts[c & 0xFF];
+        }
+        return -1;
+    }
+
+    private int horspoolFolded(CharSequence haystack, int from, int max) {
+        int lastIndex = pattern.length - 1;
+        char last = pattern[lastIndex];
+        int i = from;
+        while (i <= max) {
+            char c = fold(haystack.charAt(i + lastIndex));
+            if (c == last) {
+                int j = lastIndex - 1;
+                while (j >= 0 && fold(haystack.charAt(i + j)) == pattern[j]) {
+                    j--;
+                }
+                if (j < 0) {
+                    return i;
+                }
+            }
+            i += shifts[c & 0xFF];
+        }
+        return -1;
+    }
+
+    private static int indexOfChar(CharSequence haystack, char target, int from, int max) {
+        for (int i = from; i <= max; i++) {
+            if (haystack.charAt(i) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOfFolded(CharSequence haystack, char target, int from, int max) {
+        for (int i = from; i <= max; i++) {
+            if (fold(haystack.charAt(i)) == target) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int regionIndexOf(String haystack, int from, int max) {
+        int length = needle.length();
+        for (int i = from; i <= max; i++) {
+            if (haystack.regionMatches(true, i, needle, 0, length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
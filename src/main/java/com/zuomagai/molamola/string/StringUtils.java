@@ -1,7 +1,5 @@
 package com.zuomagai.molamola.string;
 
-import java.util.Iterator;
-
 public final class StringUtils {
 
     private StringUtils() {
@@ -65,6 +63,10 @@ public final class StringUtils {
         return str != null && search != null && str.contains(search);
     }
 
+    /**
+     * Allocation-free scan; compile a {@link StringSearcher#ignoreCase(String)} once instead when the
+     * same pattern is searched repeatedly in long text.
+     */
     public static boolean containsIgnoreCase(String str, String search) {
         if (str == null || search == null) {
             return false;
@@ -82,42 +84,27 @@ public final class StringUtils {
         return false;
     }
 
-    public static String join(Object[] items, String delimiter) {
-        if (items == null || items.length == 0) {
-            return "";
+    /**
+     * Returns {@code cs} itself when it has no leading or trailing chars up to space, otherwise a
+     * view over the trimmed range; no chars are copied either way.
+     */
+    public static CharSequence trimView(CharSequence cs) {
+        if (cs == null) {
+            return null;
         }
-        String realDelimiter = delimiter == null ? "" : delimiter;
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < items.length; i++) {
-            if (i > 0) {
-                builder.append(realDelimiter);
-            }
-            if (items[i] != null) {
-                builder.append(items[i]);
-            }
+        int length = cs.length();
+        if (length == 0 || (cs.charAt(0) > ' ' && cs.charAt(length - 1) > ' ')) {
+            return cs;
         }
-        return builder.toString();
+        return CharSequenceView.of(cs).trim();
+    }
+
+    public static String join(Object[] items, String delimiter) {
+        return Joiner.on(delimiter).join(items);
     }
 
     public static String join(Iterable<?> items, String delimiter) {
-        if (items == null) {
-            return "";
-        }
-        String realDelimiter = delimiter == null ? "" : delimiter;
-        StringBuilder builder = new StringBuilder();
-        Iterator<?> iterator = items.iterator();
-        boolean first = true;
-        while (iterator.hasNext()) {
-            if (!first) {
-                builder.append(realDelimiter);
-            }
-            Object item = iterator.next();
-            if (item != null) {
-                builder.append(item);
-            }
-            first = false;
-        }
-        return builder.toString();
+        return Joiner.on(delimiter).join(items);
     }
 
     public static String repeat(String str, int count) {
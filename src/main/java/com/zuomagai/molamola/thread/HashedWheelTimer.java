@@ -0,0 +1,319 @@
+package com.zuomagai.molamola.thread;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timer that keeps pending timeouts in a hashed wheel driven by a single ticker thread.
+ * Scheduling and cancellation are O(1); expired tasks run on the ticker thread, so they
+ * must be short and hand any blocking work off to an executor.
+ */
+public final class HashedWheelTimer implements AutoCloseable {
+
+    public interface Timeout {
+
+        boolean cancel();
+
+        boolean isCancelled();
+
+        boolean isExpired();
+    }
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_STOPPED = 2;
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Thread worker;
+    private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+    private final AtomicLong pending = new AtomicLong();
+    private final Queue<TimeoutTask> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<TimeoutTask> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final CountDownLatch started = new CountDownLatch(1);
+    private volatile long startNanos;
+    private long tick;
+
+    public HashedWheelTimer(String threadNamePrefix) {
+        this(new NamedThreadFactory(threadNamePrefix, true), 10L, TimeUnit.MILLISECONDS, 512);
+    }
+
+    public HashedWheelTimer(ThreadFactory threadFactory, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        if (threadFactory == null) {
+            throw new IllegalArgumentException("threadFactory must not be null");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("unit must not be null");
+        }
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("tickDuration must be > 0");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel must be in (0, 2^30]");
+        }
+        int size = 1;
+        while (size < ticksPerWheel) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.tickNanos = Math.max(unit.toNanos(tickDuration), TimeUnit.MILLISECONDS.toNanos(1));
+        this.worker = threadFactory.newThread(this::runWorker);
+    }
+
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new IllegalArgumentException("task must not be null");
+        }
+        if (unit == null) {
+            throw new IllegalArgumentException("unit must not be null");
+        }
+        start();
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(delay, 0L)) - startNanos;
+        if (delay > 0 && deadline < 0) {
+            deadline = Long.MAX_VALUE;
+        }
+        TimeoutTask timeout = new TimeoutTask(task, deadline);
+        pending.incrementAndGet();
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    public long pendingTimeouts() {
+        return pending.get();
+    }
+
+    public void stop() {
+        if (Thread.currentThread() == worker) {
+            throw new IllegalStateException("stop() must not be called from a timer task");
+        }
+        int previous = state.getAndSet(STATE_STOPPED);
+        if (previous != STATE_STARTED) {
+            return;
+        }
+        boolean interrupted = false;
+        while (worker.isAlive()) {
+            worker.interrupt();
+            try {
+                worker.join(100L);
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    private void start() {
+        switch (state.get()) {
+            case STATE_INIT:
+                if (state.compareAndSet(STATE_INIT, STATE_STARTED)) {
+                    worker.start();
+                }
+                break;
+            case STATE_STARTED:
+                break;
+            default:
+                throw new IllegalStateException("timer has been stopped");
+        }
+        boolean interrupted = false;
+        while (startNanos == 0) {
+            try {
+                started.await();
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWorker() {
+        long now = System.nanoTime();
+        // Zero marks "not started", so nudge a genuine zero reading.
+        startNanos = now == 0 ? 1 : now;
+        started.countDown();
+        while (state.get() == STATE_STARTED) {
+            long deadline = waitForNextTick();
+            if (deadline > 0) {
+                processCancelledTimeouts();
+                transferTimeoutsToBuckets();
+                wheel[(int) (tick & mask)].expireTimeouts(deadline);
+                tick++;
+            }
+        }
+    }
+
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long current = System.nanoTime() - startNanos;
+            long sleepMillis = (deadline - current + 999999L) / 1000000L;
+            if (sleepMillis <= 0) {
+                return current <= 0 ? 1 : current;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException ex) {
+                if (state.get() == STATE_STOPPED) {
+                    return -1L;
+                }
+            }
+        }
+    }
+
+    private void processCancelledTimeouts() {
+        TimeoutTask timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+            pending.decrementAndGet();
+        }
+    }
+
+    private void transferTimeoutsToBuckets() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            TimeoutTask timeout = newTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+
+    private final class TimeoutTask implements Timeout {
+
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        // Not private so the field updater can reach it on pre-nestmate JVMs.
+        volatile int status = INIT;
+        private long remainingRounds;
+        private TimeoutTask next;
+        private TimeoutTask prev;
+        private Bucket bucket;
+
+        TimeoutTask(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            if (!STATUS_UPDATER.compareAndSet(this, INIT, CANCELLED)) {
+                return false;
+            }
+            cancelledTimeouts.add(this);
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return status == CANCELLED;
+        }
+
+        @Override
+        public boolean isExpired() {
+            return status == EXPIRED;
+        }
+
+        void expire() {
+            if (!STATUS_UPDATER.compareAndSet(this, INIT, EXPIRED)) {
+                return;
+            }
+            pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (Throwable ignored) {
+                // A failing task must not kill the ticker thread.
+            }
+        }
+    }
+
+    private static final AtomicIntegerFieldUpdater<TimeoutTask> STATUS_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(TimeoutTask.class, "status");
+
+    private static final class Bucket {
+
+        private TimeoutTask head;
+        private TimeoutTask tail;
+
+        void add(TimeoutTask timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = timeout;
+                tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        void expireTimeouts(long deadline) {
+            TimeoutTask timeout = head;
+            while (timeout != null) {
+                TimeoutTask next = timeout.next;
+                if (timeout.isCancelled()) {
+                    // Unlinked by processCancelledTimeouts() on the next tick.
+                    timeout = next;
+                    continue;
+                }
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    remove(timeout);
+                    timeout.expire();
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        void remove(TimeoutTask timeout) {
+            TimeoutTask next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.zuomagai.molamola.thread;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread pool that records queue wait and run time histograms, counts rejections, reports
+ * saturation, and can grow or shrink its core size to keep the measured queueing delay near a target.
+ */
+public final class InstrumentedExecutor extends ThreadPoolExecutor {
+
+    public interface SaturationListener {
+
+        void onSaturated(InstrumentedExecutor executor, boolean rejected);
+    }
+
+    private final String name;
+    private final int queueCapacity;
+    private final LatencyHistogram waitTime = new LatencyHistogram();
+    private final LatencyHistogram runTime = new LatencyHistogram();
+    private final LongAdder rejected = new LongAdder();
+    private final SaturationListener saturationListener;
+    private final int saturationQueueDepth;
+    private final long saturationAlertIntervalNanos;
+    private final AtomicLong lastAlertNanos = new AtomicLong(System.nanoTime());
+    private final int minCorePoolSize;
+    private final long targetQueueWaitNanos;
+    private final long tuneIntervalNanos;
+    private final AtomicLong lastTuneNanos = new AtomicLong(System.nanoTime());
+    private long tunedCount;
+    private long tunedSum;
+    private volatile boolean alerted;
+
+    private InstrumentedExecutor(Builder builder, BlockingQueue<Runnable> queue) {
+        super(builder.corePoolSize, builder.maxPoolSize, builder.keepAliveMillis, TimeUnit.MILLISECONDS,
+                queue, builder.threadFactory, builder.rejectedHandler);
+        this.name = builder.name;
+        this.queueCapacity = builder.queueCapacity;
+        this.saturationListener = builder.saturationListener;
+        this.saturationQueueDepth = builder.saturationQueueDepth;
+        this.saturationAlertIntervalNanos = TimeUnit.MILLISECONDS.toNanos(builder.saturationAlertIntervalMillis);
+        this.minCorePoolSize = builder.corePoolSize;
+        this.targetQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(builder.targetQueueWaitMillis);
+        this.tuneIntervalNanos = TimeUnit.MILLISECONDS.toNanos(builder.tuneIntervalMillis);
+        setRejectedExecutionHandler(new CountingRejectedHandler(builder.rejectedHandler));
+        if (builder.allowCoreThreadTimeOut) {
+            allowCoreThreadTimeOut(true);
+        }
+    }
+
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public LatencyHistogram getWaitTime() {
+        return waitTime;
+    }
+
+    public LatencyHistogram getRunTime() {
+        return runTime;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException();
+        }
+        super.execute(new TimedTask(command));
+        if (saturationListener != null && saturationQueueDepth > 0 && getQueue().size() >= saturationQueueDepth) {
+            alert(false);
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> pending = super.shutdownNow();
+        List<Runnable> unwrapped = new ArrayList<>(pending.size());
+        for (Runnable runnable : pending) {
+            unwrapped.add(runnable instanceof TimedTask ? ((TimedTask) runnable).task : runnable);
+        }
+        return unwrapped;
+    }
+
+    @Override
+    protected void beforeExecute(Thread thread, Runnable runnable) {
+        if (runnable instanceof TimedTask) {
+            TimedTask task = (TimedTask) runnable;
+            task.startNanos = System.nanoTime();
+            waitTime.record(task.startNanos - task.submitNanos);
+        }
+        super.beforeExecute(thread, runnable);
+    }
+
+    @Override
+    protected void afterExecute(Runnable runnable, Throwable error) {
+        super.afterExecute(runnable, error);
+        if (runnable instanceof TimedTask) {
+            runTime.record(System.nanoTime() - ((TimedTask) runnable).startNanos);
+        }
+        if (targetQueueWaitNanos > 0) {
+            tuneCorePoolSize();
+        }
+    }
+
+    private void tuneCorePoolSize() {
+        long now = System.nanoTime();
+        long last = lastTuneNanos.get();
+        if (now - last < tuneIntervalNanos || !lastTuneNanos.compareAndSet(last, now)) {
+            return;
+        }
+        // Only the CAS winner gets here, once per interval; the CAS orders access to the window fields.
+        long count = waitTime.getCount();
+        long sum = waitTime.getSumNanos();
+        long windowCount = count - tunedCount;
+        long windowSum = sum - tunedSum;
+        tunedCount = count;
+        tunedSum = sum;
+        if (windowCount <= 0) {
+            return;
+        }
+        long meanWait = windowSum / windowCount;
+        int core = getCorePoolSize();
+        if (meanWait > targetQueueWaitNanos && core < getMaximumPoolSize()) {
+            setCorePoolSize(core + 1);
+        } else if (meanWait < targetQueueWaitNanos / 4 && core > minCorePoolSize) {
+            setCorePoolSize(core - 1);
+        }
+    }
+
+    private void alert(boolean rejection) {
+        long now = System.nanoTime();
+        long last = lastAlertNanos.get();
+        if (alerted && now - last < saturationAlertIntervalNanos) {
+            return;
+        }
+        if (!lastAlertNanos.compareAndSet(last, now)) {
+            return;
+        }
+        alerted = true;
+        try {
+            saturationListener.onSaturated(this, rejection);
+        } catch (RuntimeException ignored) {
+            // Alerting must never break task submission.
+        }
+    }
+
+    private static final class TimedTask implements Runnable {
+
+        private final Runnable task;
+        private final long submitNanos = System.nanoTime();
+        private long startNanos;
+
+        TimedTask(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    private final class CountingRejectedHandler implements RejectedExecutionHandler {
+
+        private final RejectedExecutionHandler delegate;
+
+        CountingRejectedHandler(RejectedExecutionHandler delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            rejected.increment();
+            if (saturationListener != null) {
+                alert(true);
+            }
+            Runnable task = runnable instanceof TimedTask ? ((TimedTask) runnable).task : runnable;
+            delegate.rejectedExecution(task, executor);
+        }
+    }
+
+    public static final class Builder {
+
+        private final String name;
+        private ThreadFactory threadFactory;
+        private int corePoolSize = 1;
+        private int maxPoolSize = 1;
+        private long keepAliveMillis = 60000L;
+        private boolean allowCoreThreadTimeOut;
+        private int queueCapacity = Integer.MAX_VALUE;
+        private RejectedExecutionHandler rejectedHandler = new ThreadPoolExecutor.AbortPolicy();
+        private SaturationListener saturationListener;
+        private int saturationQueueDepth;
+        private long saturationAlertIntervalMillis = 1000L;
+        private long targetQueueWaitMillis;
+        private long tuneIntervalMillis = 1000L;
+
+        private Builder(String name) {
+            if (name == null || name.trim().isEmpty()) {
+                throw new IllegalArgumentException("name must not be blank");
+            }
+            this.name = name;
+        }
+
+        public Builder threadFactory(ThreadFactory threadFactory) {
+            if (threadFactory == null) {
+                throw new IllegalArgumentException("threadFactory must not be null");
+            }
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        public Builder poolSize(int corePoolSize, int maxPoolSize) {
+            if (corePoolSize < 0) {
+                throw new IllegalArgumentException("corePoolSize must be >= 0");
+            }
+            if (maxPoolSize <= 0 || maxPoolSize < corePoolSize) {
+                throw new IllegalArgumentException("maxPoolSize must be > 0 and >= corePoolSize");
+            }
+            this.corePoolSize = corePoolSize;
+            this.maxPoolSize = maxPoolSize;
+            return this;
+        }
+
+        public Builder keepAliveMillis(long keepAliveMillis) {
+            if (keepAliveMillis < 0) {
+                throw new IllegalArgumentException("keepAliveMillis must be >= 0");
+            }
+            this.keepAliveMillis = keepAliveMillis;
+            return this;
+        }
+
+        public Builder allowCoreThreadTimeOut(boolean allowCoreThreadTimeOut) {
+            this.allowCoreThreadTimeOut = allowCoreThreadTimeOut;
+            return this;
+        }
+
+        public Builder queueCapacity(int queueCapacity) {
+            if (queueCapacity <= 0) {
+                throw new IllegalArgumentException("queueCapacity must be > 0");
+            }
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public Builder rejectedHandler(RejectedExecutionHandler rejectedHandler) {
+            if (rejectedHandler == null) {
+                throw new IllegalArgumentException("rejectedHandler must not be null");
+            }
+            this.rejectedHandler = rejectedHandler;
+            return this;
+        }
+
+        /**
+         * Invokes the listener on every rejection and whenever the queue reaches the given depth,
+         * at most once per alert interval. A depth of 0 only alerts on rejections.
+         */
+        public Builder saturationListener(SaturationListener saturationListener, int saturationQueueDepth) {
+            if (saturationListener == null) {
+                throw new IllegalArgumentException("saturationListener must not be null");
+            }
+            if (saturationQueueDepth < 0) {
+                throw new IllegalArgumentException("saturationQueueDepth must be >= 0");
+            }
+            this.saturationListener = saturationListener;
+            this.saturationQueueDepth = saturationQueueDepth;
+            return this;
+        }
+
+        public Builder saturationAlertIntervalMillis(long saturationAlertIntervalMillis) {
+            if (saturationAlertIntervalMillis < 0) {
+                throw new IllegalArgumentException("saturationAlertIntervalMillis must be >= 0");
+            }
+            this.saturationAlertIntervalMillis = saturationAlertIntervalMillis;
+            return this;
+        }
+
+        /**
+         * Enables adaptive core sizing: every tune interval the core size moves one step towards
+         * maxPoolSize while the mean queue wait exceeds the target, and back towards the configured
+         * core size once it falls below a quarter of it.
+         */
+        public Builder adaptiveCoreSize(long targetQueueWaitMillis, long tuneIntervalMillis) {
+            if (targetQueueWaitMillis <= 0) {
+                throw new IllegalArgumentException("targetQueueWaitMillis must be > 0");
+            }
+            if (tuneIntervalMillis <= 0) {
+                throw new IllegalArgumentException("tuneIntervalMillis must be > 0");
+            }
+            this.targetQueueWaitMillis = targetQueueWaitMillis;
+            this.tuneIntervalMillis = tuneIntervalMillis;
+            return this;
+        }
+
+        public InstrumentedExecutor build() {
+            if (threadFactory == null) {
+                threadFactory = new NamedThreadFactory(name + "-", true);
+            }
+            return new InstrumentedExecutor(this, new LinkedBlockingQueue<>(queueCapacity));
+        }
+    }
+}
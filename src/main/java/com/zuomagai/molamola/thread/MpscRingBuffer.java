@@ -0,0 +1,191 @@
+package com.zuomagai.molamola.thread;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, lock-free multi-producer single-consumer queue over a pre-allocated ring.
+ * Producers claim slots with a CAS on the padded producer index and publish through a per-slot
+ * sequence; the single consumer never contends with them. Only one thread may call the poll,
+ * drain and take methods at a time.
+ */
+public final class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final WaitStrategy waitStrategy;
+    private final PaddedCounter producerIndex = new PaddedCounter(0L);
+    private final PaddedCounter consumerIndex = new PaddedCounter(0L);
+
+    public MpscRingBuffer(int capacity) {
+        this(capacity, new ParkWaitStrategy(100, 10, 1000L, 1000000L));
+    }
+
+    public MpscRingBuffer(int capacity, WaitStrategy waitStrategy) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be in (0, 2^30]");
+        }
+        if (waitStrategy == null) {
+            throw new IllegalArgumentException("waitStrategy must not be null");
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.waitStrategy = waitStrategy;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0L, Math.min(size, capacity));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("element must not be null");
+        }
+        long index = producerIndex.get();
+        while (true) {
+            int slot = (int) (index & mask);
+            long difference = sequences.get(slot) - index;
+            if (difference == 0) {
+                if (producerIndex.compareAndSet(index, index + 1)) {
+                    elements.lazySet(slot, element);
+                    // Releasing the sequence publishes the element to the consumer.
+                    sequences.lazySet(slot, index + 1);
+                    return true;
+                }
+                index = producerIndex.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                index = producerIndex.get();
+            }
+        }
+    }
+
+    public void put(E element) throws InterruptedException {
+        int idleCount = 0;
+        while (!offer(element)) {
+            waitStrategy.idle(idleCount++);
+        }
+    }
+
+    public E poll() {
+        long index = consumerIndex.get();
+        int slot = (int) (index & mask);
+        if (sequences.get(slot) != index + 1) {
+            return null;
+        }
+        E element = elements.get(slot);
+        elements.lazySet(slot, null);
+        sequences.lazySet(slot, index + capacity);
+        consumerIndex.lazySet(index + 1);
+        return element;
+    }
+
+    public E take() throws InterruptedException {
+        int idleCount = 0;
+        E element;
+        while ((element = poll()) == null) {
+            waitStrategy.idle(idleCount++);
+        }
+        return element;
+    }
+
+    /**
+     * Hands up to {@code limit} available elements to the handler without waiting.
+     */
+    public int drain(Consumer<? super E> handler, int limit) {
+        if (handler == null) {
+            throw new IllegalArgumentException("handler must not be null");
+        }
+        long index = consumerIndex.get();
+        int drained = 0;
+        while (drained < limit) {
+            int slot = (int) (index & mask);
+            if (sequences.get(slot) != index + 1) {
+                break;
+            }
+            E element = elements.get(slot);
+            elements.lazySet(slot, null);
+            sequences.lazySet(slot, index + capacity);
+            index++;
+            drained++;
+            consumerIndex.lazySet(index);
+            handler.accept(element);
+        }
+        return drained;
+    }
+
+    /**
+     * Waits with the configured strategy until at least one element is available, then drains a batch.
+     */
+    public int awaitDrain(Consumer<? super E> handler, int limit) throws InterruptedException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be > 0");
+        }
+        int idleCount = 0;
+        int drained;
+        while ((drained = drain(handler, limit)) == 0) {
+            waitStrategy.idle(idleCount++);
+        }
+        return drained;
+    }
+
+    private static class LeftPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    private static class CounterValue extends LeftPadding {
+        volatile long value;
+    }
+
+    private static class RightPadding extends CounterValue {
+        long p11, p12, p13, p14, p15, p16, p17;
+    }
+
+    /**
+     * Counter padded on both sides so the producer and consumer indexes sit on separate cache lines.
+     */
+    private static final class PaddedCounter extends RightPadding {
+
+        private static final AtomicLongFieldUpdater<CounterValue> UPDATER =
+                AtomicLongFieldUpdater.newUpdater(CounterValue.class, "value");
+
+        PaddedCounter(long initial) {
+            value = initial;
+        }
+
+        long get() {
+            return value;
+        }
+
+        void lazySet(long next) {
+            UPDATER.lazySet(this, next);
+        }
+
+        boolean compareAndSet(long expected, long next) {
+            return UPDATER.compareAndSet(this, expected, next);
+        }
+    }
+}
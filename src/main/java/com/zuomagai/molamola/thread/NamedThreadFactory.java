@@ -1,13 +1,39 @@
 package com.zuomagai.molamola.thread;
 
+import java.lang.reflect.Method;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 public class NamedThreadFactory implements ThreadFactory {
 
+    private static final Method OF_VIRTUAL;
+    private static final Method UNSTARTED;
+
+    static {
+        Method ofVirtual = null;
+        Method unstarted = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+        } catch (ReflectiveOperationException | LinkageError ignored) {
+            // Virtual threads need JDK 21+; platform threads are used otherwise.
+        }
+        OF_VIRTUAL = unstarted == null ? null : ofVirtual;
+        UNSTARTED = unstarted;
+    }
+
     private String prefix;
     private Boolean daemon;
-    private static final AtomicLong id = new AtomicLong(0);
+    private final AtomicLong id = new AtomicLong(0);
+    private final int priority;
+    private final long stackSize;
+    private final ThreadGroup group;
+    private final Thread.UncaughtExceptionHandler uncaughtExceptionHandler;
+    private final boolean virtual;
+    private final AtomicInteger live = new AtomicInteger();
+    private final LongAdder uncaught = new LongAdder();
 
     public NamedThreadFactory(String prefix) {
         this(prefix, true);
@@ -16,13 +42,156 @@ public class NamedThreadFactory implements ThreadFactory {
     public NamedThreadFactory(String prefix, Boolean daemon) {
         this.prefix = prefix;
         this.daemon = daemon;
+        this.priority = Thread.NORM_PRIORITY;
+        this.stackSize = 0L;
+        this.group = null;
+        this.uncaughtExceptionHandler = null;
+        this.virtual = false;
+    }
+
+    private NamedThreadFactory(Builder builder) {
+        this.prefix = builder.prefix;
+        this.daemon = builder.daemon;
+        this.priority = builder.priority;
+        this.stackSize = builder.stackSize;
+        this.group = builder.group;
+        this.uncaughtExceptionHandler = builder.uncaughtExceptionHandler;
+        this.virtual = builder.virtual && isVirtualThreadSupported();
+    }
+
+    public static Builder builder(String prefix) {
+        return new Builder(prefix);
+    }
+
+    public static boolean isVirtualThreadSupported() {
+        return OF_VIRTUAL != null;
     }
 
     @Override
     public Thread newThread(Runnable r) {
-        Thread thread = new Thread(r);
-        thread.setDaemon(daemon);
+        Runnable tracked = () -> {
+            try {
+                r.run();
+            } finally {
+                live.decrementAndGet();
+            }
+        };
+        Thread thread = virtual ? newVirtualThread(tracked) : newPlatformThread(tracked);
         thread.setName(prefix + id.getAndIncrement());
+        thread.setUncaughtExceptionHandler(this::uncaughtException);
+        live.incrementAndGet();
         return thread;
     }
+
+    public long getCreatedCount() {
+        return id.get();
+    }
+
+    /**
+     * Threads created by this factory that have not finished their task yet, including ones not started.
+     */
+    public int getLiveCount() {
+        return live.get();
+    }
+
+    public long getUncaughtExceptionCount() {
+        return uncaught.sum();
+    }
+
+    private Thread newPlatformThread(Runnable r) {
+        Thread thread = new Thread(group, r, prefix, stackSize);
+        thread.setDaemon(daemon);
+        if (priority != Thread.NORM_PRIORITY) {
+            thread.setPriority(priority);
+        }
+        return thread;
+    }
+
+    private Thread newVirtualThread(Runnable r) {
+        try {
+            return (Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(null), r);
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("Failed to create virtual thread", ex);
+        }
+    }
+
+    private void uncaughtException(Thread thread, Throwable error) {
+        uncaught.increment();
+        if (uncaughtExceptionHandler != null) {
+            uncaughtExceptionHandler.uncaughtException(thread, error);
+        } else if (thread.getThreadGroup() != null) {
+            thread.getThreadGroup().uncaughtException(thread, error);
+        } else {
+            Thread.UncaughtExceptionHandler handler = Thread.getDefaultUncaughtExceptionHandler();
+            if (handler != null) {
+                handler.uncaughtException(thread, error);
+            }
+        }
+    }
+
+    public static final class Builder {
+
+        private final String prefix;
+        private Boolean daemon = true;
+        private int priority = Thread.NORM_PRIORITY;
+        private long stackSize;
+        private ThreadGroup group;
+        private Thread.UncaughtExceptionHandler uncaughtExceptionHandler;
+        private boolean virtual;
+
+        private Builder(String prefix) {
+            if (prefix == null) {
+                throw new IllegalArgumentException("prefix must not be null");
+            }
+            this.prefix = prefix;
+        }
+
+        public Builder daemon(boolean daemon) {
+            this.daemon = daemon;
+            return this;
+        }
+
+        public Builder priority(int priority) {
+            if (priority < Thread.MIN_PRIORITY || priority > Thread.MAX_PRIORITY) {
+                throw new IllegalArgumentException("priority must be in [" + Thread.MIN_PRIORITY + ", " + Thread.MAX_PRIORITY + "]");
+            }
+            this.priority = priority;
+            return this;
+        }
+
+        /**
+         * Requested stack size in bytes, 0 for the JVM default. Small stacks keep the reserved
+         * memory of thousands of mostly idle watcher threads down; the JVM may round or ignore it.
+         */
+        public Builder stackSize(long stackSize) {
+            if (stackSize < 0) {
+                throw new IllegalArgumentException("stackSize must be >= 0");
+            }
+            this.stackSize = stackSize;
+            return this;
+        }
+
+        public Builder threadGroup(ThreadGroup group) {
+            this.group = group;
+            return this;
+        }
+
+        public Builder uncaughtExceptionHandler(Thread.UncaughtExceptionHandler uncaughtExceptionHandler) {
+            this.uncaughtExceptionHandler = uncaughtExceptionHandler;
+            return this;
+        }
+
+        /**
+         * Produces virtual threads on JDKs that support them and platform threads elsewhere.
+         * Virtual threads are always daemon and ignore priority, stack size and thread group.
+         */
+        public Builder virtual(boolean virtual) {
+            this.virtual = virtual;
+            return this;
+        }
+
+        public NamedThreadFactory build() {
+            return new NamedThreadFactory(this);
+        }
+    }
 }
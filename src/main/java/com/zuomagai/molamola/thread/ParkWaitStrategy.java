@@ -0,0 +1,50 @@
+package com.zuomagai.molamola.thread;
+
+import java.util.concurrent.locks.LockSupport;
+
+public final class ParkWaitStrategy implements WaitStrategy {
+
+    private final int spins;
+    private final int yields;
+    private final long minParkNanos;
+    private final long maxParkNanos;
+
+    public ParkWaitStrategy(int spins, int yields, long minParkNanos, long maxParkNanos) {
+        if (spins < 0) {
+            throw new IllegalArgumentException("spins must be >= 0");
+        }
+        if (yields < 0) {
+            throw new IllegalArgumentException("yields must be >= 0");
+        }
+        if (minParkNanos <= 0) {
+            throw new IllegalArgumentException("minParkNanos must be > 0");
+        }
+        if (maxParkNanos < minParkNanos) {
+            throw new IllegalArgumentException("maxParkNanos must be >= minParkNanos");
+        }
+        this.spins = spins;
+        this.yields = yields;
+        this.minParkNanos = minParkNanos;
+        this.maxParkNanos = maxParkNanos;
+    }
+
+    @Override
+    public void idle(int idleCount) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (idleCount < spins) {
+            return;
+        }
+        if (idleCount < spins + yields) {
+            Thread.yield();
+            return;
+        }
+        // Double the park time for every idle round past the spin/yield phases, up to the cap.
+        int shift = idleCount - spins - yields;
+        long parkNanos = shift >= Long.numberOfLeadingZeros(minParkNanos) - 1
+                ? maxParkNanos
+                : Math.min(minParkNanos << shift, maxParkNanos);
+        LockSupport.parkNanos(parkNanos);
+    }
+}
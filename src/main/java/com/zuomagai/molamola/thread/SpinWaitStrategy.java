@@ -0,0 +1,11 @@
+package com.zuomagai.molamola.thread;
+
+public final class SpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public void idle(int idleCount) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.zuomagai.molamola.thread;
+
+public interface WaitStrategy {
+
+    /**
+     * Called each time a waiting caller makes no progress. {@code idleCount} starts at 0 and is reset
+     * by the caller once progress is made, so strategies can back off the longer they stay idle.
+     */
+    void idle(int idleCount) throws InterruptedException;
+}
@@ -0,0 +1,23 @@
+package com.zuomagai.molamola.thread;
+
+public final class YieldWaitStrategy implements WaitStrategy {
+
+    private final int spins;
+
+    public YieldWaitStrategy(int spins) {
+        if (spins < 0) {
+            throw new IllegalArgumentException("spins must be >= 0");
+        }
+        this.spins = spins;
+    }
+
+    @Override
+    public void idle(int idleCount) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (idleCount >= spins) {
+            Thread.yield();
+        }
+    }
+}
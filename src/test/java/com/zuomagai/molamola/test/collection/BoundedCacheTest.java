@@ -0,0 +1,215 @@
+package com.zuomagai.molamola.test.collection;
+
+import com.zuomagai.molamola.collection.BoundedCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void testPutGetInvalidate() {
+        BoundedCache<String, Integer> cache = BoundedCache.<String, Integer>builder().maximumSize(10).build();
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.put("a", 3);
+
+        Assert.assertEquals(Integer.valueOf(3), cache.get("a"));
+        Assert.assertNull(cache.get("missing"));
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(0.5D, cache.getHitRate(), 0D);
+
+        cache.invalidate("a");
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals(1L, cache.getWeightedSize());
+        cache.invalidateAll();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0L, cache.getWeightedSize());
+    }
+
+    @Test
+    public void testSizeBound() {
+        BoundedCache<Integer, Integer> cache = BoundedCache.<Integer, Integer>builder().maximumSize(100).build();
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+
+        Assert.assertEquals(100, cache.size());
+        Assert.assertEquals(100L, cache.getWeightedSize());
+        Assert.assertEquals(900L, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testUnboundedMaximumSizeAllocatesLazily() {
+        BoundedCache<Integer, Integer> cache = BoundedCache.<Integer, Integer>builder().maximumSize(Long.MAX_VALUE).build();
+        for (int i = 0; i < 10000; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+        Assert.assertEquals(10000, cache.size());
+        Assert.assertEquals(Integer.valueOf(9999), cache.get(9999));
+    }
+
+    @Test
+    public void testFrequentKeysSurviveScan() {
+        BoundedCache<Integer, Integer> cache = BoundedCache.<Integer, Integer>builder().maximumSize(100).build();
+        for (int i = 0; i < 50; i++) {
+            cache.put(i, i);
+        }
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 50; i++) {
+                cache.get(i);
+            }
+            cache.cleanUp();
+        }
+        for (int i = 1000; i < 11000; i++) {
+            cache.put(i, i);
+        }
+        cache.cleanUp();
+
+        int retained = 0;
+        for (int i = 0; i < 50; i++) {
+            if (cache.get(i) != null) {
+                retained++;
+            }
+        }
+        Assert.assertTrue(retained >= 45);
+        Assert.assertEquals(100, cache.size());
+    }
+
+    @Test
+    public void testWeightBound() {
+        BoundedCache<String, String> cache = BoundedCache.<String, String>builder()
+                .maximumWeight(10, (key, value) -> value.length())
+                .build();
+        cache.put("a", "1234");
+        cache.put("b", "1234");
+        cache.put("c", "1234");
+        cache.put("huge", "12345678901");
+        cache.cleanUp();
+
+        Assert.assertTrue(cache.getWeightedSize() <= 10);
+        Assert.assertNull(cache.get("huge"));
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testExpireAfterWrite() {
+        AtomicLong nanos = new AtomicLong();
+        BoundedCache<String, String> cache = BoundedCache.<String, String>builder()
+                .maximumSize(10)
+                .expireAfterWriteMillis(100)
+                .ticker(nanos::get)
+                .build();
+        cache.put("a", "1");
+        nanos.addAndGet(60_000_000L);
+        cache.put("b", "2");
+
+        Assert.assertEquals("1", cache.get("a"));
+        nanos.addAndGet(50_000_000L);
+        Assert.assertNull(cache.get("a"));
+        Assert.assertEquals("2", cache.get("b"));
+        cache.cleanUp();
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(0L, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testLoader() {
+        BoundedCache<String, Integer> cache = BoundedCache.<String, Integer>builder().maximumSize(10).build();
+        AtomicInteger loads = new AtomicInteger();
+
+        Assert.assertEquals(Integer.valueOf(3), cache.get("abc", key -> {
+            loads.incrementAndGet();
+            return key.length();
+        }));
+        Assert.assertEquals(Integer.valueOf(3), cache.get("abc", key -> {
+            loads.incrementAndGet();
+            return -1;
+        }));
+        Assert.assertNull(cache.get("none", key -> null));
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testConcurrentAccess() throws Exception {
+        BoundedCache<Integer, Integer> cache = BoundedCache.<Integer, Integer>builder().maximumSize(64).build();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            threads.add(new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    for (int i = 0; i < 20000; i++) {
+                        int key = random.nextInt(256);
+                        Assert.assertEquals(Integer.valueOf(key * 2), cache.get(key, k -> k * 2));
+                        if (random.nextInt(16) == 0) {
+                            cache.invalidate(key);
+                        }
+                    }
+                } catch (Throwable ex) {
+                    failure.compareAndSet(null, ex);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        cache.cleanUp();
+
+        Assert.assertNull(failure.get());
+        Assert.assertTrue(cache.size() <= 64);
+        Assert.assertEquals(cache.size(), cache.getWeightedSize());
+    }
+
+    @Test(timeout = 10000L)
+    public void testLoadOverlappingInvalidateAllIsNotCached() throws Exception {
+        BoundedCache<String, String> cache = BoundedCache.<String, String>builder().maximumSize(10).build();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+        AtomicReference<String> loaded = new AtomicReference<>();
+        Thread loader = new Thread(() -> loaded.set(cache.get("key", k -> {
+            loading.countDown();
+            try {
+                invalidated.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "stale";
+        })));
+        loader.start();
+        loading.await();
+        cache.invalidateAll();
+        invalidated.countDown();
+        loader.join();
+
+        Assert.assertEquals("stale", loaded.get());
+        Assert.assertNull(cache.get("key"));
+        Assert.assertEquals("fresh", cache.get("key", k -> "fresh"));
+        Assert.assertEquals("fresh", cache.get("key"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuilderRequiresBound() {
+        BoundedCache.builder().build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectNullValue() {
+        BoundedCache.<String, String>builder().maximumSize(1).build().put("a", null);
+    }
+}
@@ -1,6 +1,8 @@
 package com.zuomagai.molamola.test.collection;
 
 import com.zuomagai.molamola.collection.CollectionUtils;
+import com.zuomagai.molamola.collection.IntArrayList;
+import com.zuomagai.molamola.collection.IntHashSet;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -9,9 +11,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 public class CollectionUtilsTest {
 
@@ -88,4 +92,167 @@ public class CollectionUtilsTest {
         Assert.assertEquals(0, CollectionUtils.addAll(null, Arrays.asList("x")));
         Assert.assertEquals(0, CollectionUtils.addAll(target, null));
     }
+
+    @Test
+    public void testPrimitiveHelpers() {
+        Assert.assertTrue(CollectionUtils.isEmpty((IntHashSet) null));
+        Assert.assertEquals(0, CollectionUtils.size((IntArrayList) null));
+        Assert.assertFalse(CollectionUtils.contains((IntHashSet) null, 1));
+
+        IntHashSet ids = CollectionUtils.toIntHashSet(Arrays.asList(3, 1, 3));
+        Assert.assertTrue(CollectionUtils.isNotEmpty(ids));
+        Assert.assertEquals(2, CollectionUtils.size(ids));
+        Assert.assertTrue(CollectionUtils.contains(ids, 3));
+        Assert.assertArrayEquals(new long[]{5L, 6L}, CollectionUtils.toLongArray(Arrays.asList(5L, 6L)));
+        Assert.assertEquals(0, CollectionUtils.toIntArray(null).length);
+        Assert.assertTrue(CollectionUtils.contains(CollectionUtils.toLongHashSet(Arrays.asList(7L)), 7L));
+    }
+
+    @Test
+    public void testToImmutable() {
+        Map<String, Integer> source = new HashMap<>();
+        source.put("a", 1);
+        Map<String, Integer> frozen = CollectionUtils.toImmutableMap(source);
+        source.put("b", 2);
+        Assert.assertEquals(Collections.singletonMap("a", 1), frozen);
+        Assert.assertTrue(CollectionUtils.toImmutableMap(null).isEmpty());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("x", "y")), CollectionUtils.toImmutableSet(Arrays.asList("x", "y", "x")));
+    }
+
+    @Test
+    public void testLargeContainsAnyAndAll() {
+        List<Integer> allowList = new ArrayList<>();
+        for (int i = 0; i < 100000; i++) {
+            allowList.add(i * 2);
+        }
+        List<Integer> odd = Arrays.asList(1, 3, 5, 7, 9, 11, 13, 15, 17, 19);
+
+        Assert.assertFalse(CollectionUtils.containsAny(allowList, odd));
+        Assert.assertTrue(CollectionUtils.disjoint(odd, allowList));
+        Assert.assertTrue(CollectionUtils.containsAny(allowList, Arrays.asList(1, 3, 199998)));
+        Assert.assertTrue(CollectionUtils.containsAll(allowList, Arrays.asList(0, 2, 199998, 4, 6, 8, 10, 12, 14)));
+        Assert.assertFalse(CollectionUtils.containsAll(allowList, Arrays.asList(0, 2, 4, 6, 8, 10, 12, 14, 15)));
+        Assert.assertFalse(CollectionUtils.containsAny(new HashSet<>(odd), allowList.subList(0, 100)));
+        Assert.assertTrue(CollectionUtils.disjoint(null, odd));
+    }
+
+    @Test
+    public void testSortedSetMerge() {
+        TreeSet<String> first = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        TreeSet<String> second = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < 1000; i++) {
+            first.add("key-" + i);
+            second.add("KEY-" + (i + 500));
+        }
+
+        Assert.assertTrue(CollectionUtils.containsAny(first, second));
+        Assert.assertFalse(CollectionUtils.containsAll(first, second));
+        TreeSet<String> other = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < 1000; i++) {
+            other.add("other-" + i);
+        }
+        Assert.assertFalse(CollectionUtils.containsAny(first, other));
+
+        TreeSet<String> subset = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < 1000; i += 2) {
+            subset.add("KEY-" + i);
+        }
+        Assert.assertTrue(CollectionUtils.containsAll(first, subset));
+        subset.add("KEY-X");
+        Assert.assertFalse(CollectionUtils.containsAll(first, subset));
+    }
+
+    @Test
+    public void testContainsAnyKeepsReceiverMembership() {
+        TreeSet<String> caseInsensitive = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        caseInsensitive.add("key");
+        List<String> list = Collections.singletonList("KEY");
+        Set<String> hashed = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            hashed.add("KEY-" + i);
+        }
+        hashed.add("KEY");
+
+        Assert.assertFalse(CollectionUtils.containsAny(list, caseInsensitive));
+        Assert.assertTrue(CollectionUtils.containsAny(caseInsensitive, list));
+        Assert.assertTrue(CollectionUtils.containsAny(caseInsensitive, hashed));
+        Assert.assertFalse(CollectionUtils.containsAny(hashed, caseInsensitive));
+    }
+
+    @Test
+    public void testContainsAllHashesSmallerSide() {
+        List<String> large = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            large.add("key-" + i);
+        }
+        Assert.assertTrue(CollectionUtils.containsAll(large, Arrays.asList("key-9999", "key-0", "key-9999")));
+        Assert.assertFalse(CollectionUtils.containsAll(large, Collections.singletonList("missing")));
+        Assert.assertTrue(CollectionUtils.containsAll(large.subList(0, 100), large.subList(0, 50)));
+        Assert.assertFalse(CollectionUtils.containsAll(large.subList(0, 100), large));
+    }
+
+    @Test
+    public void testIntersectionKeepsFirstMembership() {
+        TreeSet<String> caseInsensitive = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        caseInsensitive.add("key");
+        Set<String> small = Collections.singleton("KEY");
+        Set<String> large = new HashSet<>(small);
+        for (int i = 0; i < 100; i++) {
+            large.add("other-" + i);
+        }
+
+        // The case-insensitive set matches whichever side is smaller; the hash sets never match "key".
+        Assert.assertEquals(Collections.singleton("KEY"), CollectionUtils.intersection(caseInsensitive, small));
+        Assert.assertEquals(Collections.singleton("KEY"), CollectionUtils.intersection(caseInsensitive, large));
+        Assert.assertTrue(CollectionUtils.intersection(small, caseInsensitive).isEmpty());
+        Assert.assertTrue(CollectionUtils.intersection(large, caseInsensitive).isEmpty());
+    }
+
+    @Test
+    public void testSetViews() {
+        Set<String> first = new LinkedHashSet<>(Arrays.asList("a", "b", "c", "d"));
+        Set<String> second = new HashSet<>(Arrays.asList("c", "d", "e"));
+
+        Set<String> intersection = CollectionUtils.intersection(first, second);
+        Set<String> union = CollectionUtils.union(first, second);
+        Set<String> difference = CollectionUtils.difference(first, second);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("c", "d")), intersection);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("a", "b", "c", "d", "e")), union);
+        Assert.assertEquals(Arrays.asList("a", "b"), new ArrayList<>(difference));
+        Assert.assertEquals(Arrays.asList("a", "b", "c", "d", "e"), new ArrayList<>(union));
+
+        second.add("a");
+        Assert.assertEquals(3, intersection.size());
+        Assert.assertTrue(intersection.contains("a"));
+        Assert.assertEquals(Collections.singleton("b"), difference);
+        Assert.assertEquals(5, union.size());
+
+        Assert.assertEquals(Arrays.asList("x", "y"), new ArrayList<>(
+                CollectionUtils.difference(Arrays.asList("x", "y", "x", "z"), Arrays.asList("z", "w"))));
+        Assert.assertEquals(Collections.singleton("z"), CollectionUtils.intersection(Arrays.asList("x", "z"), Arrays.asList("z", "z")));
+        Assert.assertTrue(CollectionUtils.intersection(null, second).isEmpty());
+        Assert.assertEquals(second, CollectionUtils.union(null, second));
+        try {
+            union.add("f");
+            Assert.fail("Expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testChunked() {
+        List<List<Integer>> batches = new ArrayList<>();
+        for (List<Integer> batch : CollectionUtils.chunked(Arrays.asList(1, 2, 3, 4, 5), 2)) {
+            batches.add(batch);
+        }
+        Assert.assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Collections.singletonList(5)), batches);
+
+        batches.clear();
+        for (List<Integer> batch : CollectionUtils.chunked(new LinkedHashSet<>(Arrays.asList(1, 2, 3)), 3)) {
+            batches.add(batch);
+        }
+        Assert.assertEquals(Collections.singletonList(Arrays.asList(1, 2, 3)), batches);
+        Assert.assertFalse(CollectionUtils.chunked(null, 1).iterator().hasNext());
+    }
 }
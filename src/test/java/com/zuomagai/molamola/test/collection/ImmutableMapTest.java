@@ -0,0 +1,75 @@
+package com.zuomagai.molamola.test.collection;
+
+import com.zuomagai.molamola.collection.ImmutableMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ImmutableMapTest {
+
+    @Test
+    public void testSmallAndIndexed() {
+        for (int size : new int[]{0, 1, 8, 9, 1000}) {
+            Map<String, Integer> expected = new LinkedHashMap<>();
+            for (int i = 0; i < size; i++) {
+                expected.put("key-" + i, i);
+            }
+            ImmutableMap<String, Integer> map = ImmutableMap.copyOf(expected);
+            Assert.assertEquals(expected, map);
+            Assert.assertEquals(map, expected);
+            Assert.assertEquals(expected.hashCode(), map.hashCode());
+            Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(map.keySet()));
+            for (int i = 0; i < size; i++) {
+                Assert.assertEquals(Integer.valueOf(i), map.get("key-" + i));
+            }
+            Assert.assertNull(map.get("missing"));
+            Assert.assertNull(map.get(null));
+            Assert.assertFalse(map.containsKey("missing"));
+            Assert.assertEquals(Integer.valueOf(-1), map.getOrDefault("missing", -1));
+        }
+    }
+
+    @Test
+    public void testBuilderAndForEach() {
+        ImmutableMap<String, String> map = ImmutableMap.<String, String>builder()
+                .put("b", "2")
+                .put("a", "1")
+                .build();
+        List<String> visited = new ArrayList<>();
+        map.forEach((key, value) -> visited.add(key + value));
+        Assert.assertEquals(Arrays.asList("b2", "a1"), visited);
+        Assert.assertSame(map, ImmutableMap.copyOf(map));
+        Assert.assertTrue(map.entrySet().contains(new AbstractMap.SimpleEntry<>("a", "1")));
+        Assert.assertEquals(ImmutableMap.of("a", "1", "b", "2"), map);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        ImmutableMap.of("a", "1").put("b", "2");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutableRemove() {
+        ImmutableMap.of("a", "1").remove("a");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateKey() {
+        ImmutableMap.of("a", "1", "a", "2");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateKeyIndexed() {
+        ImmutableMap.Builder<Integer, Integer> builder = ImmutableMap.builder();
+        for (int i = 0; i < 20; i++) {
+            builder.put(i, i);
+        }
+        builder.put(3, 3).build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.zuomagai.molamola.test.collection;
+
+import com.zuomagai.molamola.collection.CollectionUtils;
+import com.zuomagai.molamola.collection.ImmutableSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class ImmutableSetTest {
+
+    @Test
+    public void testDistinctInInsertionOrder() {
+        ImmutableSet<String> set = ImmutableSet.of("c", "a", "c", "b", "a");
+        Assert.assertEquals(Arrays.asList("c", "a", "b"), new ArrayList<>(set));
+        Assert.assertTrue(set.contains("b"));
+        Assert.assertFalse(set.contains("d"));
+        Assert.assertFalse(set.contains(null));
+    }
+
+    @Test
+    public void testLargeSet() {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            values.add(i % 300);
+        }
+        ImmutableSet<Integer> set = CollectionUtils.toImmutableSet(values);
+        Set<Integer> expected = new HashSet<>(values);
+        Assert.assertEquals(300, set.size());
+        Assert.assertEquals(expected, set);
+        Assert.assertEquals(set, expected);
+        Assert.assertEquals(expected.hashCode(), set.hashCode());
+        for (int i = 0; i < 400; i++) {
+            Assert.assertEquals(expected.contains(i), set.contains(i));
+        }
+        Assert.assertSame(ImmutableSet.of(), CollectionUtils.toImmutableSet(null));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        ImmutableSet.of("a").add("b");
+    }
+}
@@ -0,0 +1,110 @@
+package com.zuomagai.molamola.test.collection;
+
+import com.zuomagai.molamola.collection.ParallelCollections;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class ParallelCollectionsTest {
+
+    private static ForkJoinPool pool;
+    private static ParallelCollections parallel;
+
+    @BeforeClass
+    public static void setUp() {
+        pool = new ForkJoinPool(4);
+        parallel = ParallelCollections.builder().pool(pool).sequentialThreshold(16).build();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testMapAndFilter() {
+        List<Integer> source = range(100000);
+
+        List<Integer> squares = parallel.map(source, value -> value * 2);
+        Assert.assertEquals(source.stream().map(value -> value * 2).collect(Collectors.toList()), squares);
+        squares.add(-1);
+
+        List<Integer> even = parallel.filter(new LinkedList<>(source.subList(0, 1000)), value -> value % 2 == 0);
+        Assert.assertEquals(500, even.size());
+        Assert.assertEquals(Integer.valueOf(998), even.get(499));
+        Assert.assertTrue(parallel.map(null, value -> value).isEmpty());
+    }
+
+    @Test
+    public void testPartitionAndGroupBy() {
+        List<Integer> source = range(10000);
+
+        Map<Boolean, List<Integer>> parts = parallel.partition(source, value -> value < 2500);
+        Assert.assertEquals(range(2500), parts.get(Boolean.TRUE));
+        Assert.assertEquals(7500, parts.get(Boolean.FALSE).size());
+        Assert.assertEquals(Integer.valueOf(2500), parts.get(Boolean.FALSE).get(0));
+
+        Map<Integer, List<Integer>> groups = parallel.groupBy(source, value -> value % 7);
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6), new ArrayList<>(groups.keySet()));
+        Assert.assertEquals(source.stream().filter(value -> value % 7 == 3).collect(Collectors.toList()), groups.get(3));
+    }
+
+    @Test
+    public void testUsesPoolAboveThreshold() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        AtomicLong sum = new AtomicLong();
+        parallel.forEach(range(100000), value -> {
+            threads.add(Thread.currentThread().getName());
+            sum.addAndGet(value);
+        });
+        Assert.assertEquals(99999L * 100000L / 2, sum.get());
+        Assert.assertTrue(threads.stream().anyMatch(name -> name.contains("ForkJoinPool")));
+
+        Set<String> sequential = ConcurrentHashMap.newKeySet();
+        parallel.forEach(range(10), value -> sequential.add(Thread.currentThread().getName()));
+        Assert.assertEquals(Collections.singleton(Thread.currentThread().getName()), sequential);
+    }
+
+    @Test
+    public void testExceptionPropagates() {
+        try {
+            parallel.map(range(1000), value -> {
+                if (value == 777) {
+                    throw new IllegalStateException("boom");
+                }
+                return value;
+            });
+            Assert.fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            Assert.assertTrue(expected.getMessage().contains("boom"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectNullKey() {
+        parallel.groupBy(range(100), value -> value == 50 ? null : value);
+    }
+
+    @Test
+    public void testCommonPool() {
+        Assert.assertEquals(range(10), ParallelCollections.common().filter(range(20), value -> value < 10));
+    }
+
+    private static List<Integer> range(int size) {
+        return IntStream.range(0, size).boxed().collect(Collectors.toList());
+    }
+}
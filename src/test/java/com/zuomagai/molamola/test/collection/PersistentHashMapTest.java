@@ -0,0 +1,117 @@
+package com.zuomagai.molamola.test.collection;
+
+import com.zuomagai.molamola.collection.PersistentHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class PersistentHashMapTest {
+
+    @Test
+    public void testMatchesHashMap() {
+        Random random = new Random(7);
+        PersistentHashMap<Integer, String> map = PersistentHashMap.of();
+        Map<Integer, String> expected = new HashMap<>();
+        for (int i = 0; i < 100000; i++) {
+            int key = random.nextInt(5000) - 2500;
+            PersistentHashMap<Integer, String> before = map;
+            Map<Integer, String> expectedBefore = new HashMap<>(expected);
+            if (random.nextInt(3) == 0) {
+                map = map.minus(key);
+                expected.remove(key);
+            } else {
+                String value = "v" + random.nextInt(4);
+                map = map.plus(key, value);
+                expected.put(key, value);
+            }
+            Assert.assertEquals(expected.size(), map.size());
+            Assert.assertEquals(expected.get(key), map.get(key));
+            // Earlier versions are never modified.
+            Assert.assertEquals(expectedBefore.get(key), before.get(key));
+            Assert.assertEquals(expectedBefore.size(), before.size());
+        }
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(map, expected);
+        Assert.assertEquals(expected.hashCode(), map.hashCode());
+        Map<Integer, String> visited = new HashMap<>();
+        map.forEach(visited::put);
+        Assert.assertEquals(expected, visited);
+        Assert.assertEquals(expected, PersistentHashMap.copyOf(expected));
+    }
+
+    @Test
+    public void testCollidingKeys() {
+        PersistentHashMap<Collider, Integer> map = PersistentHashMap.of();
+        for (int i = 0; i < 10; i++) {
+            map = map.plus(new Collider(i, i % 2), i);
+        }
+        Assert.assertEquals(10, map.size());
+        Assert.assertEquals(Integer.valueOf(3), map.get(new Collider(3, 1)));
+        Assert.assertNull(map.get(new Collider(11, 1)));
+        map = map.minus(new Collider(3, 1)).minus(new Collider(4, 0));
+        Assert.assertEquals(8, map.size());
+        Assert.assertFalse(map.containsKey(new Collider(3, 1)));
+        Assert.assertEquals(8, map.entrySet().size());
+        Assert.assertSame(map, map.minus(new Collider(3, 1)));
+    }
+
+    @Test
+    public void testForEachDifference() {
+        PersistentHashMap<String, String> base = PersistentHashMap.of();
+        for (int i = 0; i < 10000; i++) {
+            base = base.plus("key." + i, "v");
+        }
+        PersistentHashMap<String, String> changed = base.plus("key.1", "w").minus("key.2").plus("extra", "v")
+                .plus("key.3", "v");
+
+        Set<String> differences = new HashSet<>();
+        base.forEachDifference(changed, differences::add);
+        Assert.assertEquals(new HashSet<>(Arrays.asList("key.1", "key.2", "extra")), differences);
+
+        differences.clear();
+        changed.forEachDifference(base, differences::add);
+        Assert.assertEquals(3, differences.size());
+
+        // Independently built equal maps share nothing but still report no differences.
+        differences.clear();
+        PersistentHashMap.copyOf(new HashMap<>(base)).forEachDifference(base, differences::add);
+        Assert.assertTrue(differences.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValueRejected() {
+        PersistentHashMap.<String, String>of().plus("a", null);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() {
+        PersistentHashMap.<String, String>of().plus("a", "b").put("c", "d");
+    }
+
+    private static final class Collider {
+
+        private final int id;
+        private final int hash;
+
+        Collider(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Collider && ((Collider) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
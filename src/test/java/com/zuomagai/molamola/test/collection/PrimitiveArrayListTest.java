@@ -0,0 +1,48 @@
+package com.zuomagai.molamola.test.collection;
+
+import com.zuomagai.molamola.collection.IntArrayList;
+import com.zuomagai.molamola.collection.LongArrayList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimitiveArrayListTest {
+
+    @Test
+    public void testIntList() {
+        IntArrayList list = new IntArrayList();
+        for (int i = 0; i < 100; i++) {
+            list.add(100 - i);
+        }
+        Assert.assertEquals(100, list.size());
+        Assert.assertEquals(100, list.get(0));
+        list.add(0, 500);
+        Assert.assertEquals(500, list.removeAt(0));
+        Assert.assertEquals(100, list.set(0, 1000));
+        list.sort();
+        Assert.assertEquals(1, list.get(0));
+        Assert.assertEquals(9, list.binarySearch(10));
+        Assert.assertTrue(list.contains(1000));
+        Assert.assertEquals(-1, list.indexOf(100));
+
+        int[] sum = new int[1];
+        list.forEach(value -> sum[0] += value);
+        Assert.assertEquals(5050 - 100 + 1000, sum[0]);
+        list.trimToSize();
+        Assert.assertEquals(100, list.toArray().length);
+    }
+
+    @Test
+    public void testLongList() {
+        LongArrayList list = LongArrayList.of(3L, 1L, 2L);
+        list.addAll(new long[]{5L, 4L});
+        Assert.assertEquals(LongArrayList.of(3L, 1L, 2L, 5L, 4L), list);
+        list.clear();
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertEquals("[]", list.toString());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testIndexChecked() {
+        IntArrayList.of(1, 2).get(2);
+    }
+}
@@ -0,0 +1,109 @@
+package com.zuomagai.molamola.test.collection;
+
+import com.zuomagai.molamola.collection.IntLongHashMap;
+import com.zuomagai.molamola.collection.IntObjectHashMap;
+import com.zuomagai.molamola.collection.LongIntHashMap;
+import com.zuomagai.molamola.collection.LongObjectHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class PrimitiveHashMapTest {
+
+    @Test
+    public void testIntLongMatchesHashMap() {
+        Random random = new Random(1);
+        IntLongHashMap map = new IntLongHashMap(4, -1L);
+        Map<Integer, Long> expected = new HashMap<>();
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(2000) - 1000;
+            switch (random.nextInt(4)) {
+                case 0:
+                    long value = random.nextLong();
+                    Long previous = expected.put(key, value);
+                    Assert.assertEquals(previous == null ? -1L : previous, map.put(key, value));
+                    break;
+                case 1:
+                    Long removed = expected.remove(key);
+                    Assert.assertEquals(removed == null ? -1L : removed, map.remove(key));
+                    break;
+                case 2:
+                    long sum = expected.getOrDefault(key, -1L) + 3L;
+                    expected.put(key, sum);
+                    Assert.assertEquals(sum, map.addTo(key, 3L));
+                    break;
+                default:
+                    Assert.assertEquals(expected.containsKey(key), map.containsKey(key));
+                    Assert.assertEquals(expected.getOrDefault(key, -1L).longValue(), map.get(key));
+                    break;
+            }
+            Assert.assertEquals(expected.size(), map.size());
+        }
+        Map<Integer, Long> visited = new HashMap<>();
+        map.forEach(visited::put);
+        Assert.assertEquals(expected, visited);
+        Assert.assertEquals(expected.size(), map.keysToArray().length);
+
+        map.clear();
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertEquals(-1L, map.get(0));
+    }
+
+    @Test
+    public void testLongIntAndEquality() {
+        LongIntHashMap first = new LongIntHashMap();
+        LongIntHashMap second = new LongIntHashMap(1000);
+        for (long key = -50; key < 50; key++) {
+            first.put(key * 1_000_000_007L, (int) key);
+            second.put(key * 1_000_000_007L, (int) key);
+        }
+        Assert.assertEquals(100, first.size());
+        Assert.assertEquals(first, second);
+        Assert.assertEquals(first.hashCode(), second.hashCode());
+        Assert.assertEquals(7, first.get(7_000_000_049L));
+        Assert.assertEquals(5, first.getOrDefault(1L, 5));
+        second.put(0L, 1);
+        Assert.assertNotEquals(first, second);
+    }
+
+    @Test
+    public void testObjectValues() {
+        IntObjectHashMap<String> map = new IntObjectHashMap<>();
+        Assert.assertNull(map.put(0, "zero"));
+        Assert.assertNull(map.put(42, "answer"));
+        Assert.assertEquals("zero", map.put(0, "nil"));
+        Assert.assertEquals("answer", map.get(42));
+        Assert.assertNull(map.get(7));
+        Assert.assertEquals("{0=nil, 42=answer}", map.toString());
+        Assert.assertEquals("answer", map.remove(42));
+        Assert.assertEquals(1, map.size());
+
+        LongObjectHashMap<String> routes = new LongObjectHashMap<>();
+        routes.put(Long.MAX_VALUE, "max");
+        Assert.assertEquals("max", routes.get(Long.MAX_VALUE));
+        Assert.assertEquals("fallback", routes.getOrDefault(Long.MIN_VALUE, "fallback"));
+    }
+
+    @Test(timeout = 5000)
+    public void testMissOnSmallestTable() {
+        IntLongHashMap ints = new IntLongHashMap(0);
+        ints.put(1, 10L);
+        ints.put(2, 20L);
+        Assert.assertEquals(0L, ints.get(3));
+        Assert.assertEquals(5L, ints.addTo(3, 5L));
+
+        LongObjectHashMap<String> longs = new LongObjectHashMap<>(0);
+        longs.put(1L, "one");
+        longs.put(2L, "two");
+        Assert.assertNull(longs.get(3L));
+        Assert.assertNull(longs.remove(3L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValueRejected() {
+        new IntObjectHashMap<String>().put(1, null);
+    }
+}
@@ -0,0 +1,62 @@
+package com.zuomagai.molamola.test.collection;
+
+import com.zuomagai.molamola.collection.IntHashSet;
+import com.zuomagai.molamola.collection.LongHashSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class PrimitiveHashSetTest {
+
+    @Test
+    public void testIntSetMatchesHashSet() {
+        Random random = new Random(2);
+        IntHashSet set = new IntHashSet();
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < 100000; i++) {
+            int value = random.nextInt(1000) - 500;
+            if (random.nextBoolean()) {
+                Assert.assertEquals(expected.add(value), set.add(value));
+            } else {
+                Assert.assertEquals(expected.remove(value), set.remove(value));
+            }
+            Assert.assertEquals(expected.size(), set.size());
+        }
+        Set<Integer> visited = new HashSet<>();
+        set.forEach(visited::add);
+        Assert.assertEquals(expected, visited);
+        for (int value = -500; value < 500; value++) {
+            Assert.assertEquals(expected.contains(value), set.contains(value));
+        }
+    }
+
+    @Test
+    public void testLongSet() {
+        LongHashSet set = LongHashSet.of(0L, 1L << 40, -1L, 1L << 40);
+        Assert.assertEquals(3, set.size());
+        Assert.assertTrue(set.contains(0L));
+        Assert.assertFalse(set.contains(1L));
+        Assert.assertEquals(set, LongHashSet.of(-1L, 0L, 1L << 40));
+        Assert.assertEquals(3, set.toArray().length);
+        set.clear();
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertFalse(set.contains(0L));
+    }
+
+    @Test(timeout = 5000)
+    public void testMissOnSmallestTable() {
+        IntHashSet ints = new IntHashSet(0);
+        ints.add(1);
+        ints.add(2);
+        Assert.assertFalse(ints.contains(3));
+        Assert.assertFalse(ints.remove(3));
+
+        LongHashSet longs = new LongHashSet(0);
+        longs.add(1L);
+        longs.add(2L);
+        Assert.assertFalse(longs.contains(3L));
+    }
+}
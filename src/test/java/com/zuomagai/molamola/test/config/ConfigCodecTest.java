@@ -0,0 +1,157 @@
+package com.zuomagai.molamola.test.config;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zuomagai.molamola.config.codec.ConfigCodec;
+import com.zuomagai.molamola.config.codec.EncodedConfig;
+import com.zuomagai.molamola.config.http.HttpLongPollingConfigSource;
+import com.zuomagai.molamola.string.ByteSlice;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ConfigCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            values.put("service." + i + ".timeout", i % 2 == 0 ? "1000" : "2000");
+        }
+        values.put("名称", "模拟");
+        values.put("emoji", "😀");
+        values.put("empty", "");
+
+        byte[] encoded = ConfigCodec.encode("v7", values);
+        EncodedConfig config = ConfigCodec.read(encoded);
+
+        Assert.assertEquals("v7", config.getVersion());
+        Assert.assertEquals(values.size(), config.size());
+        Assert.assertEquals(values, config.toMap());
+        Assert.assertEquals("2000", config.get("service.77.timeout"));
+        Assert.assertEquals("模拟", config.get("名称"));
+        Assert.assertEquals("", config.get("empty"));
+        Assert.assertNull(config.get("service.500.timeout"));
+        Assert.assertEquals("x", config.getOrDefault("missing", "x"));
+        Assert.assertTrue(config.containsKey("emoji"));
+        for (int i = 1; i < config.size(); i++) {
+            byte[] previous = config.keyAt(i - 1).getBytes(StandardCharsets.UTF_8);
+            byte[] current = config.keyAt(i).getBytes(StandardCharsets.UTF_8);
+            Assert.assertTrue(compareUnsigned(previous, current) < 0);
+        }
+    }
+
+    private static int compareUnsigned(byte[] a, byte[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            if (a[i] != b[i]) {
+                return (a[i] & 0xFF) - (b[i] & 0xFF);
+            }
+        }
+        return a.length - b.length;
+    }
+
+    @Test
+    public void testCompactness() {
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            values.put("k" + i, "enabled");
+        }
+        byte[] encoded = ConfigCodec.encode(null, values);
+
+        Assert.assertTrue(encoded.length < 1000 * 14);
+        EncodedConfig config = ConfigCodec.read(ByteBuffer.wrap(encoded).asReadOnlyBuffer());
+        Assert.assertNull(config.getVersion());
+        Assert.assertEquals("enabled", config.get("k999"));
+        Assert.assertTrue(ConfigCodec.read(ConfigCodec.encode(null, Collections.<String, String>emptyMap())).isEmpty());
+    }
+
+    @Test
+    public void testSliceDecodesWithoutCopy() throws Exception {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        char[] chars = new char[64 * 1024];
+        Arrays.fill(chars, 'x');
+        String large = new String(chars);
+        Map<String, String> values = new HashMap<>();
+        values.put("large", large);
+        values.put("small", "value");
+        byte[] encoded = ConfigCodec.encode("v1", values);
+        // Embed the payload at an offset, as a response buffer would hold it.
+        byte[] body = new byte[encoded.length + 7];
+        System.arraycopy(encoded, 0, body, 3, encoded.length);
+        EncodedConfig config = ConfigCodec.bytesParser().parse(ByteSlice.of(body, 3, encoded.length), StandardCharsets.UTF_8);
+        Assert.assertEquals("v1", config.getVersion());
+        Assert.assertEquals("value", config.get("small"));
+
+        long threadId = Thread.currentThread().getId();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long before = threadBean.getThreadAllocatedBytes(threadId);
+            Assert.assertEquals(large.length(), config.get("large").length());
+            best = Math.min(best, threadBean.getThreadAllocatedBytes(threadId) - before);
+        }
+        // The string itself needs one byte per char; a temporary copy of the bytes would double that.
+        Assert.assertTrue("allocated " + best + " bytes", best < large.length() * 3 / 2);
+    }
+
+    @Test
+    public void testRejectsCorruption() {
+        byte[] encoded = ConfigCodec.encode("v1", Collections.singletonMap("key", "value"));
+        for (int index : new int[]{0, 4, encoded.length - 8, encoded.length - 1}) {
+            byte[] corrupted = encoded.clone();
+            corrupted[index] ^= 0x01;
+            try {
+                ConfigCodec.read(corrupted);
+                Assert.fail("Expected IllegalArgumentException at " + index);
+            } catch (IllegalArgumentException expected) {
+                // expected
+            }
+        }
+        try {
+            ConfigCodec.read(Arrays.copyOf(encoded, 8));
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testBytesParser() throws Exception {
+        byte[] payload = ConfigCodec.encode("v3", Collections.singletonMap("mode", "FAST"));
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/config", exchange -> {
+            exchange.getResponseHeaders().add("ETag", "v3");
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(payload);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/config";
+            HttpLongPollingConfigSource<EncodedConfig> source = HttpLongPollingConfigSource
+                    .bytesBuilder(url, ConfigCodec.bytesParser())
+                    .build();
+
+            EncodedConfig config = source.fetch().getValue();
+            Assert.assertEquals("v3", config.getVersion());
+            Assert.assertEquals("FAST", config.get("mode"));
+        } finally {
+            server.stop(0);
+        }
+    }
+}
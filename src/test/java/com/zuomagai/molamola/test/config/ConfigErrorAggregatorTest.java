@@ -0,0 +1,174 @@
+package com.zuomagai.molamola.test.config;
+
+import com.zuomagai.molamola.config.ConfigErrorAggregator;
+import com.zuomagai.molamola.config.ConfigErrorEvent;
+import com.zuomagai.molamola.config.ConfigErrorListener;
+import com.zuomagai.molamola.config.ConfigErrorSummary;
+import com.zuomagai.molamola.config.ConfigNotifier;
+import com.zuomagai.molamola.config.ConfigSource;
+import com.zuomagai.molamola.config.retry.SimpleRetryPolicy;
+import com.zuomagai.molamola.thread.HashedWheelTimer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ConfigErrorAggregatorTest {
+
+    @Test
+    public void testAggregatesOutageAcrossNotifiers() {
+        AtomicLong clock = new AtomicLong(1000L);
+        List<ConfigErrorSummary> reports = new CopyOnWriteArrayList<>();
+        ConfigErrorAggregator aggregator = ConfigErrorAggregator.builder()
+                .summaryListener(reports::add)
+                .windowMillis(60000L)
+                .maxReportsPerWindow(20)
+                .clock(clock::get)
+                .build();
+        try {
+            List<ConfigNotifier<String>> notifiers = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                String host = "config-" + i;
+                ConfigSource<String> source = () -> {
+                    throw new IOException("connection refused: " + host);
+                };
+                notifiers.add(ConfigNotifier.<String>builder()
+                        .source(source)
+                        .fetchRetryPolicy(new SimpleRetryPolicy(3, 0L))
+                        .addErrorListener(aggregator.<String>listener())
+                        .build());
+            }
+            for (ConfigNotifier<String> notifier : notifiers) {
+                notifier.pollOnce();
+            }
+
+            Assert.assertEquals(50, aggregator.getGroupCount());
+            Assert.assertEquals(20, reports.size());
+            Assert.assertEquals(180, aggregator.getSuppressedCount());
+            ConfigErrorSummary first = reports.get(0);
+            Assert.assertTrue(first.isFirstOccurrence());
+            Assert.assertEquals(1, first.getCount());
+            Assert.assertEquals(ConfigErrorEvent.Phase.FETCH, first.getPhase());
+            Assert.assertEquals(IOException.class, first.getErrorType());
+            Assert.assertTrue(first.isRetrying());
+
+            clock.addAndGet(60000L);
+            aggregator.flush();
+            Assert.assertEquals(40, reports.size());
+            for (ConfigErrorSummary summary : reports.subList(20, 40)) {
+                Assert.assertEquals(summary.isFirstOccurrence() ? 4 : 3, summary.getCount());
+                Assert.assertEquals(4, summary.getTotalCount());
+                Assert.assertEquals(4, summary.getLastAttempt());
+                Assert.assertFalse(summary.isRetrying());
+                Assert.assertTrue(summary.getLastError().getMessage().startsWith("connection refused"));
+            }
+
+            // Groups over budget are carried into later windows; reported idle groups expire.
+            clock.addAndGet(60000L);
+            aggregator.flush();
+            Assert.assertEquals(60, reports.size());
+            Assert.assertEquals(30, aggregator.getGroupCount());
+            aggregator.flush();
+            Assert.assertEquals(70, reports.size());
+            Assert.assertEquals(10, aggregator.getGroupCount());
+            aggregator.flush();
+            Assert.assertEquals(70, reports.size());
+            Assert.assertEquals(0, aggregator.getGroupCount());
+        } finally {
+            aggregator.close();
+        }
+    }
+
+    @Test
+    public void testGroupsByPhaseAndErrorType() {
+        List<ConfigErrorSummary> reports = new CopyOnWriteArrayList<>();
+        ConfigErrorAggregator aggregator = ConfigErrorAggregator.builder()
+                .summaryListener(reports::add)
+                .windowMillis(60000L)
+                .build();
+        try {
+            ConfigSource<String> source = () -> null;
+            ConfigErrorListener<String> listener = aggregator.listener();
+            listener.onError(event(ConfigErrorEvent.Phase.FETCH, new IOException("a"), source));
+            listener.onError(event(ConfigErrorEvent.Phase.FETCH, new IOException("b"), source));
+            listener.onError(event(ConfigErrorEvent.Phase.FETCH, new IllegalStateException("c"), source));
+            listener.onError(event(ConfigErrorEvent.Phase.LISTENER, new IOException("d"), source));
+            Assert.assertEquals(3, aggregator.getGroupCount());
+            Assert.assertEquals(3, reports.size());
+
+            aggregator.flush();
+            Assert.assertEquals(4, reports.size());
+            ConfigErrorSummary summary = reports.get(3);
+            Assert.assertFalse(summary.isFirstOccurrence());
+            Assert.assertSame(source, summary.getSource());
+            Assert.assertEquals("b", summary.getFirstError().getMessage());
+            Assert.assertEquals(2, summary.getTotalCount());
+        } finally {
+            aggregator.close();
+        }
+    }
+
+    @Test
+    public void testFailingSummaryListenerIsIgnored() {
+        ConfigErrorAggregator aggregator = ConfigErrorAggregator.builder()
+                .summaryListener(summary -> {
+                    throw new IllegalStateException("broken");
+                })
+                .build();
+        try {
+            aggregator.<String>listener().onError(event(ConfigErrorEvent.Phase.FETCH, new IOException("a"), null));
+            Assert.assertEquals(1, aggregator.getGroupCount());
+        } finally {
+            aggregator.close();
+        }
+    }
+
+    @Test(timeout = 10000L)
+    public void testWindowSummariesLeaveTimerThread() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer("aggregator-timer-");
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "aggregator-summary"));
+        CountDownLatch windowReported = new CountDownLatch(1);
+        AtomicReference<String> deliveryThread = new AtomicReference<>();
+        ConfigErrorAggregator aggregator = ConfigErrorAggregator.builder()
+                .summaryListener(summary -> {
+                    if (!summary.isFirstOccurrence()) {
+                        deliveryThread.set(Thread.currentThread().getName());
+                        windowReported.countDown();
+                    }
+                })
+                .summaryExecutor(executor)
+                .windowMillis(20L)
+                .timer(timer)
+                .build();
+        try {
+            ConfigErrorListener<String> listener = aggregator.listener();
+            listener.onError(event(ConfigErrorEvent.Phase.FETCH, new IOException("a"), null));
+            listener.onError(event(ConfigErrorEvent.Phase.FETCH, new IOException("b"), null));
+
+            Assert.assertTrue(windowReported.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals("aggregator-summary", deliveryThread.get());
+        } finally {
+            aggregator.close();
+            executor.shutdownNow();
+            timer.stop();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSummaryListenerRequired() {
+        ConfigErrorAggregator.builder().build();
+    }
+
+    private static ConfigErrorEvent<String> event(ConfigErrorEvent.Phase phase, Throwable error, ConfigSource<String> source) {
+        return new ConfigErrorEvent<>(phase, error, 1, false, null, null, null, source);
+    }
+}
@@ -0,0 +1,105 @@
+package com.zuomagai.molamola.test.config;
+
+import com.sun.net.httpserver.HttpServer;
+import com.zuomagai.molamola.config.ConfigErrorEvent;
+import com.zuomagai.molamola.config.ConfigNotifier;
+import com.zuomagai.molamola.config.http.HttpLongPollingConfigSource;
+import com.zuomagai.molamola.config.jfr.ConfigEvents;
+import com.zuomagai.molamola.config.retry.SimpleRetryPolicy;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConfigEventsTest {
+
+    @Test
+    public void testNoEventsWithoutRecording() {
+        Assert.assertTrue(ConfigEvents.isAvailable());
+        Assert.assertFalse(ConfigEvents.isRecording());
+        Assert.assertNull(ConfigEvents.beginRetry(ConfigErrorEvent.Phase.FETCH, 1, 10L));
+        ConfigEvents.endRetry(null);
+    }
+
+    @Test
+    public void testRecordsFetchParseListenerAndRetry() throws Exception {
+        byte[] payload = "mode=FAST".getBytes(StandardCharsets.UTF_8);
+        HttpServer server = HttpServer.create(new InetSocketAddress(0), 0);
+        server.createContext("/config", exchange -> {
+            exchange.getResponseHeaders().add("ETag", "v1");
+            exchange.sendResponseHeaders(200, payload.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(payload);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+        Path file = Files.createTempFile("config-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String name : new String[]{"Fetch", "Parse", "Listener", "Retry"}) {
+                recording.enable("molamola.config." + name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            Assert.assertTrue(ConfigEvents.isRecording());
+
+            String url = "http://localhost:" + server.getAddress().getPort() + "/config";
+            AtomicInteger calls = new AtomicInteger();
+            ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                    .source(HttpLongPollingConfigSource.stringBuilder(url).build())
+                    .listenerRetryPolicy(new SimpleRetryPolicy(1, 5L))
+                    .addListener(event -> {
+                        if (calls.incrementAndGet() == 1) {
+                            throw new IllegalStateException("first attempt fails");
+                        }
+                    })
+                    .build();
+            Assert.assertTrue(notifier.pollOnce());
+            recording.stop();
+            recording.dump(file);
+            Assert.assertFalse(ConfigEvents.isRecording());
+
+            Map<String, RecordedEvent> byName = new HashMap<>();
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+            int listenerEvents = 0;
+            for (RecordedEvent event : events) {
+                String name = event.getEventType().getName();
+                if (name.equals("molamola.config.Listener")) {
+                    listenerEvents++;
+                }
+                byName.putIfAbsent(name, event);
+            }
+
+            RecordedEvent fetch = byName.get("molamola.config.Fetch");
+            Assert.assertNotNull(fetch);
+            Assert.assertEquals(200, fetch.getInt("statusCode"));
+            Assert.assertEquals(payload.length, fetch.getLong("bytes"));
+            Assert.assertEquals(url, fetch.getString("url"));
+            Assert.assertTrue(byName.get("molamola.config.Parse").getBoolean("success"));
+            RecordedEvent listener = byName.get("molamola.config.Listener");
+            Assert.assertEquals(2, listenerEvents);
+            Assert.assertEquals("v1", listener.getString("version"));
+            Assert.assertEquals(1, listener.getInt("attempt"));
+            Assert.assertFalse(listener.getBoolean("success"));
+            Assert.assertEquals(IllegalStateException.class.getName(), listener.getString("error"));
+            RecordedEvent retry = byName.get("molamola.config.Retry");
+            Assert.assertEquals("LISTENER", retry.getString("phase"));
+            Assert.assertEquals(5L, retry.getDuration("delay").toMillis());
+        } finally {
+            server.stop(0);
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -1,15 +1,28 @@
 package com.zuomagai.molamola.test.config;
 
+import com.zuomagai.molamola.collection.BoundedCache;
+import com.zuomagai.molamola.config.AsyncConfigChangeListener;
+import com.zuomagai.molamola.config.ConfigAppliedListener;
 import com.zuomagai.molamola.config.ConfigChangeEvent;
 import com.zuomagai.molamola.config.ConfigChangeListener;
+import com.zuomagai.molamola.config.ConfigDerivation;
 import com.zuomagai.molamola.config.ConfigNotifier;
 import com.zuomagai.molamola.config.ConfigSnapshot;
 import com.zuomagai.molamola.config.ConfigSource;
 import com.zuomagai.molamola.config.retry.SimpleRetryPolicy;
+import com.zuomagai.molamola.thread.HashedWheelTimer;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -48,6 +61,89 @@ public class ConfigNotifierTest {
         Assert.assertEquals("v2", second.getCurrent().getVersion());
     }
 
+    @Test(timeout = 10000L)
+    public void testNestedPollFromListener() throws Exception {
+        AtomicInteger fetchCount = new AtomicInteger();
+        ConfigSource<String> source = () -> new ConfigSnapshot<>("v" + fetchCount.incrementAndGet(), "a");
+        AtomicReference<ConfigNotifier<String>> self = new AtomicReference<>();
+        AtomicInteger nestedPolls = new AtomicInteger();
+        AtomicReference<Boolean> nestedResult = new AtomicReference<>();
+        AtomicReference<String> refreshedVersion = new AtomicReference<>();
+
+        ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                .source(source)
+                .addListener(event -> {
+                    if (nestedPolls.incrementAndGet() == 1) {
+                        nestedResult.set(self.get().pollOnce());
+                        refreshedVersion.set(self.get().refresh().get().getVersion());
+                    }
+                })
+                .pollIntervalMillis(0L)
+                .build();
+        self.set(notifier);
+
+        Assert.assertTrue(notifier.pollOnce());
+        Assert.assertEquals(Boolean.TRUE, nestedResult.get());
+        Assert.assertEquals("v3", refreshedVersion.get());
+        Assert.assertTrue(notifier.pollOnce());
+    }
+
+    @Test
+    public void testAsyncListenerRetryLeavesTimerThread() throws Exception {
+        ConfigSource<String> source = () -> new ConfigSnapshot<>("v1", "a");
+        AtomicInteger attempts = new AtomicInteger();
+        AtomicReference<Thread> retryThread = new AtomicReference<>();
+        CountDownLatch applied = new CountDownLatch(1);
+        HashedWheelTimer timer = new HashedWheelTimer("nested-retry-timer-");
+        try {
+            ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                    .source(source)
+                    .timer(timer)
+                    .listenerRetryPolicy(new SimpleRetryPolicy(1, 5L))
+                    .addAsyncListener(event -> {
+                        if (attempts.incrementAndGet() == 1) {
+                            throw new IllegalStateException("first attempt fails");
+                        }
+                        retryThread.set(Thread.currentThread());
+                        return null;
+                    })
+                    .addAppliedListener((event, failed) -> applied.countDown())
+                    .pollIntervalMillis(0L)
+                    .build();
+
+            Assert.assertTrue(notifier.pollOnce());
+            Assert.assertTrue(applied.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(2, attempts.get());
+            Assert.assertFalse(retryThread.get().getName().startsWith("nested-retry-timer-"));
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testCacheInvalidationListener() throws Exception {
+        AtomicInteger fetchCount = new AtomicInteger();
+        ConfigSource<String> source = () -> {
+            int index = fetchCount.incrementAndGet();
+            return new ConfigSnapshot<>("v" + index, "value" + index);
+        };
+        BoundedCache<String, String> cache = BoundedCache.<String, String>builder().maximumSize(10).build();
+        AtomicReference<ConfigNotifier<String>> self = new AtomicReference<>();
+        ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                .source(source)
+                // A reader racing the change reloads as soon as the cache is emptied.
+                .addAppliedListener(ConfigAppliedListener.invalidating(cache))
+                .addAppliedListener((event, failed) -> cache.get("key", k -> self.get().getLastSnapshot().getValue()))
+                .pollIntervalMillis(0L)
+                .build();
+        self.set(notifier);
+
+        Assert.assertTrue(notifier.pollOnce());
+        Assert.assertEquals("value1", cache.get("key"));
+        Assert.assertTrue(notifier.pollOnce());
+        Assert.assertEquals("value2", cache.get("key"));
+    }
+
     @Test
     public void testListenerRetrySuccess() throws Exception {
         ConfigSource<String> source = () -> new ConfigSnapshot<>("v1", "a");
@@ -93,4 +189,256 @@ public class ConfigNotifierTest {
         Assert.assertEquals(3, fetchAttempts.get());
         Assert.assertEquals(1, changes.get());
     }
+
+    @Test
+    public void testRefreshJoinsInflightFetch() throws Exception {
+        AtomicInteger fetchCount = new AtomicInteger();
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        ConfigSource<String> source = () -> {
+            fetchCount.incrementAndGet();
+            fetchStarted.countDown();
+            releaseFetch.await(5, TimeUnit.SECONDS);
+            return new ConfigSnapshot<>("v1", "a");
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                    .source(source)
+                    .refreshExecutor(executor)
+                    .build();
+
+            CompletableFuture<ConfigSnapshot<String>> first = notifier.refresh();
+            Assert.assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+            CompletableFuture<ConfigSnapshot<String>> second = notifier.refresh();
+            Assert.assertSame(first, second);
+
+            releaseFetch.countDown();
+            Assert.assertEquals("v1", first.get(5, TimeUnit.SECONDS).getVersion());
+            Assert.assertEquals(1, fetchCount.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRefreshWithinStalenessSkipsFetch() throws Exception {
+        AtomicInteger fetchCount = new AtomicInteger();
+        ConfigSource<String> source = () -> new ConfigSnapshot<>("v" + fetchCount.incrementAndGet(), "a");
+
+        ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                .source(source)
+                .refreshStalenessMillis(60000L)
+                .build();
+
+        Assert.assertEquals("v1", notifier.refresh().get().getVersion());
+        Assert.assertEquals("v1", notifier.refresh().get().getVersion());
+        Assert.assertEquals(1, fetchCount.get());
+    }
+
+    @Test
+    public void testRefreshFailureCompletesExceptionally() throws Exception {
+        ConfigSource<String> source = () -> {
+            throw new IllegalStateException("down");
+        };
+
+        ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                .source(source)
+                .build();
+
+        CompletableFuture<ConfigSnapshot<String>> future = notifier.refresh();
+        Assert.assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            Assert.fail();
+        } catch (ExecutionException ex) {
+            Assert.assertEquals("down", ex.getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testAsyncListenerRetryAndApplied() throws Exception {
+        ConfigSource<String> source = () -> new ConfigSnapshot<>("v1", "a");
+        AtomicInteger calls = new AtomicInteger();
+        AsyncConfigChangeListener<String> listener = event -> {
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            if (calls.getAndIncrement() < 2) {
+                future.completeExceptionally(new RuntimeException("fail"));
+            } else {
+                future.complete(null);
+            }
+            return future;
+        };
+
+        CountDownLatch applied = new CountDownLatch(1);
+        AtomicInteger failedListeners = new AtomicInteger(-1);
+        ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                .source(source)
+                .addAsyncListener(listener)
+                .addAppliedListener((event, failed) -> {
+                    failedListeners.set(failed);
+                    applied.countDown();
+                })
+                .listenerRetryPolicy(new SimpleRetryPolicy(2, 0L))
+                .build();
+        try {
+            Assert.assertTrue(notifier.pollOnce());
+            Assert.assertTrue(applied.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(3, calls.get());
+            Assert.assertEquals(0, failedListeners.get());
+        } finally {
+            notifier.close();
+        }
+    }
+
+    @Test
+    public void testAsyncListenerMaxInFlight() throws Exception {
+        AtomicInteger fetchCount = new AtomicInteger();
+        ConfigSource<String> source = () -> new ConfigSnapshot<>("v" + fetchCount.incrementAndGet(), "a");
+        AtomicInteger started = new AtomicInteger();
+        AtomicReference<CompletableFuture<Void>> pending = new AtomicReference<>();
+        AsyncConfigChangeListener<String> listener = event -> {
+            started.incrementAndGet();
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            pending.set(future);
+            return future;
+        };
+
+        AtomicInteger applied = new AtomicInteger();
+        ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                .source(source)
+                .addAsyncListener(listener)
+                .asyncListenerMaxInFlight(1)
+                .addAppliedListener((event, failed) -> applied.incrementAndGet())
+                .build();
+
+        Assert.assertTrue(notifier.pollOnce());
+        Assert.assertTrue(notifier.pollOnce());
+        Assert.assertEquals(1, started.get());
+        Assert.assertEquals(0, applied.get());
+
+        pending.get().complete(null);
+        Assert.assertEquals(2, started.get());
+        Assert.assertEquals(1, applied.get());
+
+        pending.get().complete(null);
+        Assert.assertEquals(2, applied.get());
+    }
+
+    @Test
+    public void testDerivationSharedAcrossListeners() throws Exception {
+        AtomicInteger fetchCount = new AtomicInteger();
+        ConfigSource<String> source = () -> {
+            int index = fetchCount.incrementAndGet();
+            return new ConfigSnapshot<>("v" + index, "value-" + index);
+        };
+        ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                .source(source)
+                .derivationExecutor(Runnable::run)
+                .build();
+
+        AtomicInteger computations = new AtomicInteger();
+        ConfigDerivation<String, Integer> length = notifier.derive("length", value -> {
+            computations.incrementAndGet();
+            return value.length();
+        }, true);
+
+        AtomicInteger observed = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            notifier.addListener(event -> observed.addAndGet(length.get(event.getCurrent())));
+        }
+
+        Assert.assertTrue(notifier.pollOnce());
+        Assert.assertEquals(1, computations.get());
+        Assert.assertEquals(21, observed.get());
+        Assert.assertEquals(Integer.valueOf(7), length.get());
+        Assert.assertEquals(1, computations.get());
+
+        Assert.assertTrue(notifier.pollOnce());
+        Assert.assertEquals(2, computations.get());
+
+        try {
+            notifier.derive("length", String::length);
+            Assert.fail();
+        } catch (IllegalArgumentException expected) {
+            // duplicate names are rejected
+        }
+    }
+
+    @Test
+    public void testUnchangedPollDoesNotAllocate() throws Exception {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        // Covers the notifier's own unchanged path; the HTTP 304 path is measured in HttpLongPollingConfigSourceTest.
+        ConfigSnapshot<String> snapshot = new ConfigSnapshot<>("v1", "a");
+        ConfigSource<String> source = () -> snapshot;
+        AtomicInteger changes = new AtomicInteger();
+        ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                .source(source)
+                .addListener(event -> changes.incrementAndGet())
+                .build();
+
+        for (int i = 0; i < 20000; i++) {
+            notifier.pollOnce();
+        }
+        long threadId = Thread.currentThread().getId();
+        int polls = 10000;
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < polls; i++) {
+            notifier.pollOnce();
+        }
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        Assert.assertEquals(1, changes.get());
+        Assert.assertTrue("allocated " + allocated + " bytes for " + polls + " polls", allocated < polls);
+    }
+
+    @Test
+    public void testBackgroundPollingRetriesOnTimer() throws Exception {
+        AtomicInteger fetchAttempts = new AtomicInteger();
+        ConfigSource<String> source = () -> {
+            int attempt = fetchAttempts.getAndIncrement();
+            if (attempt < 2) {
+                throw new RuntimeException("fetch");
+            }
+            return new ConfigSnapshot<>(attempt < 4 ? "v1" : "v2", "a");
+        };
+
+        CountDownLatch changed = new CountDownLatch(2);
+        AtomicReference<String> lastVersion = new AtomicReference<>();
+        HashedWheelTimer timer = new HashedWheelTimer(r -> {
+            Thread thread = new Thread(r, "notifier-test-timer");
+            thread.setDaemon(true);
+            return thread;
+        }, 5L, TimeUnit.MILLISECONDS, 64);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                .source(source)
+                .addListener(event -> {
+                    lastVersion.set(event.getCurrent().getVersion());
+                    changed.countDown();
+                })
+                .fetchRetryPolicy(new SimpleRetryPolicy(2, 20L))
+                .pollIntervalMillis(10L)
+                .pollExecutor(executor)
+                .timer(timer)
+                .build();
+        try {
+            notifier.start();
+            Assert.assertTrue(changed.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals("v2", lastVersion.get());
+            Assert.assertTrue(fetchAttempts.get() >= 5);
+            notifier.close();
+            // The poll permit is handed back once background polling has stopped.
+            Assert.assertFalse(notifier.pollOnce());
+        } finally {
+            notifier.close();
+            executor.shutdownNow();
+            timer.stop();
+        }
+    }
 }
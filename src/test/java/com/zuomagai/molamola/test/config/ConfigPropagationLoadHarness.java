@@ -0,0 +1,347 @@
+package com.zuomagai.molamola.test.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.zuomagai.molamola.config.ConfigNotifier;
+import com.zuomagai.molamola.config.http.HttpLongPollingConfigSource;
+import com.zuomagai.molamola.thread.NamedThreadFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how versions published by a long-polling server reach thousands of {@link ConfigNotifier}
+ * watchers in one JVM: propagation latency percentiles, throughput, threads, heap and GC. The server
+ * is an in-process stub that parks requests whose ETag is current until the next version or the hold
+ * timeout. Not a unit test; run {@link #main(String[])} from the test classpath, for example
+ * {@code clients=10000 versions=50 intervalMillis=200 payloadBytes=65536}.
+ */
+public final class ConfigPropagationLoadHarness {
+
+    private final int clients;
+    private final int versions;
+    private final long intervalMillis;
+    private final int payloadBytes;
+    private final long holdMillis;
+    private final boolean virtualThreads;
+    private final AtomicReference<Version> current = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Map<String, Long> publishedAt = new ConcurrentHashMap<>();
+    private final LatencyRecorder latencies;
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder fullResponses = new LongAdder();
+    private final LongAdder notModifiedResponses = new LongAdder();
+    private final LongAdder finalVersionClients = new LongAdder();
+    private final LongAdder initialVersionClients = new LongAdder();
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ScheduledExecutorService sweeper;
+
+    private ConfigPropagationLoadHarness(Map<String, String> options) {
+        this.clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        this.versions = Integer.parseInt(options.getOrDefault("versions", "20"));
+        this.intervalMillis = Long.parseLong(options.getOrDefault("intervalMillis", "500"));
+        this.payloadBytes = Integer.parseInt(options.getOrDefault("payloadBytes", "4096"));
+        this.holdMillis = Long.parseLong(options.getOrDefault("holdMillis", "30000"));
+        this.virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtualThreads", "true"));
+        this.latencies = new LatencyRecorder(clients * Math.max(versions, 1));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            options.put(arg.substring(arg.startsWith("--") ? 2 : 0, separator), arg.substring(separator + 1));
+        }
+        new ConfigPropagationLoadHarness(options).run();
+    }
+
+    private void run() throws Exception {
+        startServer();
+        publish(0);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        NamedThreadFactory factory = NamedThreadFactory.builder("load-watcher-")
+                .daemon(true)
+                .stackSize(256 * 1024)
+                .virtual(virtualThreads)
+                .build();
+        ExecutorService pollExecutor = Executors.newCachedThreadPool(factory);
+        List<ConfigNotifier<String>> notifiers = new ArrayList<>(clients);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/config";
+        String finalTag = tag(versions);
+        try {
+            for (int i = 0; i < clients; i++) {
+                HttpLongPollingConfigSource<String> source = HttpLongPollingConfigSource.stringBuilder(url)
+                        .connectTimeoutMillis(10000)
+                        .readTimeoutMillis((int) Math.min(Integer.MAX_VALUE, holdMillis + 30000))
+                        .build();
+                ConfigNotifier<String> notifier = ConfigNotifier.<String>builder()
+                        .source(source)
+                        .pollIntervalMillis(0)
+                        .pollExecutor(pollExecutor)
+                        .addListener(event -> onChange(event.getCurrent().getVersion(), finalTag))
+                        .build();
+                notifiers.add(notifier);
+                notifier.start();
+            }
+            if (!await(initialVersionClients, clients, TimeUnit.SECONDS.toNanos(120))) {
+                System.out.printf("warning: only %d of %d watchers received the initial version%n",
+                        initialVersionClients.sum(), clients);
+            }
+
+            MemoryUsage heapBefore = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+            long[] gcBefore = gcTotals();
+            delivered.reset();
+            long start = System.nanoTime();
+            for (int version = 1; version <= versions; version++) {
+                publish(version);
+                if (version < versions) {
+                    TimeUnit.MILLISECONDS.sleep(intervalMillis);
+                }
+            }
+            boolean complete = await(finalVersionClients, clients, TimeUnit.SECONDS.toNanos(60));
+            long elapsed = System.nanoTime() - start;
+            long[] gcAfter = gcTotals();
+            MemoryUsage heapAfter = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+
+            report(elapsed, complete, heapBefore, heapAfter, gcBefore, gcAfter, threads);
+        } finally {
+            for (ConfigNotifier<String> notifier : notifiers) {
+                notifier.stop();
+            }
+            pollExecutor.shutdownNow();
+            stopServer();
+        }
+    }
+
+    private void onChange(String version, String finalTag) {
+        Long published = publishedAt.get(version);
+        if (published == null) {
+            return;
+        }
+        if (tag(0).equals(version)) {
+            initialVersionClients.increment();
+            return;
+        }
+        latencies.record(System.nanoTime() - published);
+        delivered.increment();
+        if (finalTag.equals(version)) {
+            finalVersionClients.increment();
+        }
+    }
+
+    private void report(long elapsedNanos, boolean complete, MemoryUsage heapBefore, MemoryUsage heapAfter,
+                        long[] gcBefore, long[] gcAfter, ThreadMXBean threads) {
+        double seconds = elapsedNanos / 1e9;
+        long[] samples = latencies.sorted();
+        System.out.printf("watchers=%d versions=%d intervalMillis=%d payloadBytes=%d virtualThreads=%s%n",
+                clients, versions, intervalMillis, payloadBytes, virtualThreads && NamedThreadFactory.isVirtualThreadSupported());
+        System.out.printf("final version reached by %d/%d watchers%s%n",
+                finalVersionClients.sum(), clients, complete ? "" : " (timed out)");
+        System.out.printf("notifications=%d (%.0f/s), responses 200=%d 304=%d%n",
+                delivered.sum(), delivered.sum() / seconds, fullResponses.sum(), notModifiedResponses.sum());
+        System.out.printf("propagation latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                percentile(samples, 0.50), percentile(samples, 0.90), percentile(samples, 0.99),
+                percentile(samples, 0.999), samples.length == 0 ? 0D : samples[samples.length - 1] / 1e6);
+        System.out.printf("threads live=%d peak=%d%n", threads.getThreadCount(), threads.getPeakThreadCount());
+        System.out.printf("heap used MB before=%.1f after=%.1f max=%.1f%n",
+                heapBefore.getUsed() / 1048576D, heapAfter.getUsed() / 1048576D, heapAfter.getMax() / 1048576D);
+        System.out.printf("gc collections=%d time=%dms%n", gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+    }
+
+    private void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 8192);
+        serverExecutor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()),
+                new NamedThreadFactory("load-server-", true));
+        server.setExecutor(serverExecutor);
+        server.createContext("/config", this::handle);
+        server.start();
+        sweeper = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("load-sweeper-", true));
+        sweeper.scheduleWithFixedDelay(this::expireWaiters, 1, 1, TimeUnit.SECONDS);
+    }
+
+    private void stopServer() {
+        sweeper.shutdownNow();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) {
+        Version version = current.get();
+        String tag = exchange.getRequestHeaders().getFirst("If-None-Match");
+        if (!version.tag.equals(tag)) {
+            respond(exchange, version);
+            return;
+        }
+        Waiter waiter = new Waiter(exchange);
+        waiters.add(waiter);
+        // A version published between the check and the enqueue would otherwise wait for the hold timeout.
+        Version latest = current.get();
+        if (latest != version && waiter.claim()) {
+            respond(exchange, latest);
+        }
+    }
+
+    private void publish(int number) {
+        Version version = new Version(tag(number), payload(number));
+        publishedAt.put(version.tag, System.nanoTime());
+        current.set(version);
+        Waiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            if (waiter.claim()) {
+                Waiter parked = waiter;
+                serverExecutor.execute(() -> respond(parked.exchange, version));
+            }
+        }
+    }
+
+    private void expireWaiters() {
+        long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(holdMillis);
+        for (Iterator<Waiter> iterator = waiters.iterator(); iterator.hasNext(); ) {
+            Waiter waiter = iterator.next();
+            if (waiter.parkedAt - deadline <= 0 && waiter.claim()) {
+                iterator.remove();
+                respondNotModified(waiter.exchange);
+            }
+        }
+    }
+
+    private void respond(HttpExchange exchange, Version version) {
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            exchange.getResponseHeaders().add("ETag", version.tag);
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=UTF-8");
+            exchange.sendResponseHeaders(200, version.body.length);
+            outputStream.write(version.body);
+            fullResponses.increment();
+        } catch (IOException ignored) {
+            // The watcher went away; it will poll again.
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void respondNotModified(HttpExchange exchange) {
+        try {
+            exchange.sendResponseHeaders(304, -1);
+            notModifiedResponses.increment();
+        } catch (IOException ignored) {
+            // The watcher went away; it will poll again.
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private byte[] payload(int number) {
+        byte[] body = new byte[Math.max(payloadBytes, 16)];
+        Arrays.fill(body, (byte) 'x');
+        byte[] header = ("version=" + number + "\n").getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(header, 0, body, 0, Math.min(header.length, body.length));
+        return body;
+    }
+
+    private static String tag(int number) {
+        return "v" + number;
+    }
+
+    private static boolean await(LongAdder counter, long expected, long timeoutNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (counter.sum() < expected) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        return true;
+    }
+
+    private static long[] gcTotals() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return new long[]{count, time};
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0D;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private static final class Version {
+
+        final String tag;
+        final byte[] body;
+
+        Version(String tag, byte[] body) {
+            this.tag = tag;
+            this.body = body;
+        }
+    }
+
+    private static final class Waiter {
+
+        final HttpExchange exchange;
+        final long parkedAt = System.nanoTime();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Waiter(HttpExchange exchange) {
+            this.exchange = exchange;
+        }
+
+        boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+    }
+
+    private static final class LatencyRecorder {
+
+        private long[] samples;
+        private int count;
+
+        LatencyRecorder(int expected) {
+            this.samples = new long[Math.max(expected, 16)];
+        }
+
+        synchronized void record(long nanos) {
+            if (count == samples.length) {
+                samples = Arrays.copyOf(samples, samples.length << 1);
+            }
+            samples[count++] = nanos;
+        }
+
+        synchronized long[] sorted() {
+            long[] copy = Arrays.copyOf(samples, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
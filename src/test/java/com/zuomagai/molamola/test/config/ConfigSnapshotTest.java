@@ -0,0 +1,62 @@
+package com.zuomagai.molamola.test.config;
+
+import com.zuomagai.molamola.config.ConfigSnapshot;
+import com.zuomagai.molamola.config.DefaultConfigChangeDetector;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConfigSnapshotTest {
+
+    @Test
+    public void testLazyValueParsedOnce() {
+        AtomicInteger parses = new AtomicInteger();
+        byte[] raw = "alpha".getBytes(StandardCharsets.UTF_8);
+        ConfigSnapshot<String> snapshot = ConfigSnapshot.lazy("v1", raw, bytes -> {
+            parses.incrementAndGet();
+            return new String(bytes, StandardCharsets.UTF_8);
+        });
+
+        Assert.assertFalse(snapshot.isValueLoaded());
+        Assert.assertSame(raw, snapshot.getRaw());
+        Assert.assertEquals(0, parses.get());
+        Assert.assertEquals("alpha", snapshot.getValue());
+        Assert.assertEquals("alpha", snapshot.getValue());
+        Assert.assertTrue(snapshot.isValueLoaded());
+        Assert.assertEquals(1, parses.get());
+    }
+
+    @Test
+    public void testLazyParseFailureMemoized() {
+        AtomicInteger parses = new AtomicInteger();
+        ConfigSnapshot<String> snapshot = ConfigSnapshot.lazy("v1", new byte[0], bytes -> {
+            parses.incrementAndGet();
+            throw new IllegalArgumentException("bad");
+        });
+        for (int i = 0; i < 2; i++) {
+            try {
+                snapshot.getValue();
+                Assert.fail();
+            } catch (IllegalStateException ex) {
+                Assert.assertEquals("bad", ex.getCause().getMessage());
+            }
+        }
+        Assert.assertEquals(1, parses.get());
+    }
+
+    @Test
+    public void testDetectorComparesRawWithoutParsing() {
+        ConfigSnapshot.RawValueParser<String> failing = bytes -> {
+            throw new AssertionError("should not parse");
+        };
+        ConfigSnapshot<String> a = ConfigSnapshot.lazy(null, new byte[]{1, 2}, failing);
+        ConfigSnapshot<String> b = ConfigSnapshot.lazy(null, new byte[]{1, 2}, failing);
+        ConfigSnapshot<String> c = ConfigSnapshot.lazy(null, new byte[]{1, 3}, failing);
+
+        DefaultConfigChangeDetector<String> detector = new DefaultConfigChangeDetector<>();
+        Assert.assertFalse(detector.isChanged(a, b));
+        Assert.assertTrue(detector.isChanged(a, c));
+    }
+}
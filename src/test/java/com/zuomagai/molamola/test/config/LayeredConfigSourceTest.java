@@ -0,0 +1,187 @@
+package com.zuomagai.molamola.test.config;
+
+import com.zuomagai.molamola.collection.PersistentHashMap;
+import com.zuomagai.molamola.config.ConfigSnapshot;
+import com.zuomagai.molamola.config.LayeredConfigSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class LayeredConfigSourceTest {
+
+    @Test
+    public void testPrecedenceAndIncrementalMerge() throws Exception {
+        Map<String, String> defaults = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            defaults.put("key." + i, "default");
+        }
+        AtomicReference<ConfigSnapshot<Map<String, String>>> defaultLayer = new AtomicReference<>(new ConfigSnapshot<>("d1", defaults));
+        AtomicReference<ConfigSnapshot<Map<String, String>>> hostLayer = new AtomicReference<>(
+                new ConfigSnapshot<>("h1", map("key.1", "host", "key.2", "host")));
+        LayeredConfigSource<String, String> source = LayeredConfigSource.<String, String>builder()
+                .layer("defaults", defaultLayer::get)
+                .layer("host", hostLayer::get)
+                .build();
+
+        ConfigSnapshot<Map<String, String>> first = source.fetch();
+        Assert.assertEquals("defaults=d1,host=h1", first.getVersion());
+        Assert.assertEquals(1000, first.getValue().size());
+        Assert.assertEquals("host", first.getValue().get("key.1"));
+        Assert.assertEquals("default", first.getValue().get("key.3"));
+
+        Assert.assertSame(first, source.fetch());
+        Assert.assertEquals(0, source.getLastResolvedKeyCount());
+
+        hostLayer.set(new ConfigSnapshot<>("h2", map("key.2", "host", "extra", "host")));
+        ConfigSnapshot<Map<String, String>> second = source.fetch();
+        Assert.assertEquals("defaults=d1,host=h2", second.getVersion());
+        Assert.assertEquals(2, source.getLastResolvedKeyCount());
+        Assert.assertEquals("default", second.getValue().get("key.1"));
+        Assert.assertEquals("host", second.getValue().get("extra"));
+        Assert.assertEquals(1001, second.getValue().size());
+        Assert.assertEquals("host", first.getValue().get("key.1"));
+
+        Map<String, String> changedDefaults = new HashMap<>(defaults);
+        changedDefaults.put("key.2", "changed");
+        changedDefaults.put("key.5", "changed");
+        changedDefaults.remove("key.6");
+        defaultLayer.set(new ConfigSnapshot<>("d2", changedDefaults));
+        ConfigSnapshot<Map<String, String>> third = source.fetch();
+        Assert.assertEquals(2, source.getLastResolvedKeyCount());
+        Assert.assertEquals("host", third.getValue().get("key.2"));
+        Assert.assertEquals("changed", third.getValue().get("key.5"));
+        Assert.assertNull(third.getValue().get("key.6"));
+    }
+
+    @Test
+    public void testUnversionedLayersAndNoopChanges() throws Exception {
+        AtomicReference<ConfigSnapshot<Map<String, String>>> base = new AtomicReference<>(new ConfigSnapshot<>(null, map("a", "1")));
+        AtomicReference<ConfigSnapshot<Map<String, String>>> top = new AtomicReference<>(new ConfigSnapshot<>(null, map("a", "2")));
+        LayeredConfigSource<String, String> source = LayeredConfigSource.<String, String>builder()
+                .layer("base", base::get)
+                .layer("top", top::get)
+                .build();
+
+        ConfigSnapshot<Map<String, String>> first = source.fetch();
+        Assert.assertEquals("base=#1,top=#1", first.getVersion());
+        Assert.assertEquals("2", first.getValue().get("a"));
+
+        base.set(new ConfigSnapshot<>(null, map("a", "3")));
+        Assert.assertSame(first, source.fetch());
+        Assert.assertEquals(0, source.getLastResolvedKeyCount());
+
+        top.set(new ConfigSnapshot<>(null, null));
+        ConfigSnapshot<Map<String, String>> second = source.fetch();
+        Assert.assertEquals("base=#2,top=#2", second.getVersion());
+        Assert.assertEquals("3", second.getValue().get("a"));
+    }
+
+    @Test
+    public void testFailingLayerKeepsState() throws Exception {
+        AtomicReference<ConfigSnapshot<Map<String, String>>> base = new AtomicReference<>(new ConfigSnapshot<>("1", map("a", "1")));
+        boolean[] fail = {false};
+        LayeredConfigSource<String, String> source = LayeredConfigSource.<String, String>builder()
+                .layer("base", base::get)
+                .layer("remote", () -> {
+                    if (fail[0]) {
+                        throw new IllegalStateException("unavailable");
+                    }
+                    return new ConfigSnapshot<>("r1", map("b", "2"));
+                })
+                .build();
+        ConfigSnapshot<Map<String, String>> first = source.fetch();
+
+        base.set(new ConfigSnapshot<>("2", map("a", "9")));
+        fail[0] = true;
+        try {
+            source.fetch();
+            Assert.fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        fail[0] = false;
+        ConfigSnapshot<Map<String, String>> second = source.fetch();
+        Assert.assertEquals("base=2,remote=r1", second.getVersion());
+        Assert.assertEquals("9", second.getValue().get("a"));
+        Assert.assertEquals("1", first.getValue().get("a"));
+    }
+
+    @Test
+    public void testOneKeyChangeDoesNotScaleWithSize() throws Exception {
+        int small = keyOperationsForOneKeyChange(1000);
+        int large = keyOperationsForOneKeyChange(100000);
+        // Hashing and equality calls on keys stand in for work; a copy or full diff would touch every key.
+        Assert.assertTrue("small=" + small, small < 100);
+        Assert.assertTrue("large=" + large, large < 100);
+    }
+
+    private static int keyOperationsForOneKeyChange(int size) throws Exception {
+        AtomicInteger operations = new AtomicInteger();
+        PersistentHashMap<CountingKey, String> defaults = PersistentHashMap.of();
+        for (int i = 0; i < size; i++) {
+            defaults = defaults.plus(new CountingKey(i, operations), "default");
+        }
+        Map<CountingKey, String> host = new HashMap<>();
+        host.put(new CountingKey(1, operations), "host");
+        AtomicReference<ConfigSnapshot<Map<CountingKey, String>>> defaultLayer = new AtomicReference<>(
+                new ConfigSnapshot<>("d1", defaults));
+        LayeredConfigSource<CountingKey, String> source = LayeredConfigSource.<CountingKey, String>builder()
+                .layer("defaults", defaultLayer::get)
+                .layer("host", () -> new ConfigSnapshot<>("h1", host))
+                .build();
+        ConfigSnapshot<Map<CountingKey, String>> first = source.fetch();
+
+        operations.set(0);
+        defaultLayer.set(new ConfigSnapshot<>("d2", defaults.plus(new CountingKey(2, operations), "changed")));
+        ConfigSnapshot<Map<CountingKey, String>> second = source.fetch();
+        int result = operations.get();
+
+        Assert.assertEquals(1, source.getLastResolvedKeyCount());
+        Assert.assertEquals("changed", second.getValue().get(new CountingKey(2, operations)));
+        Assert.assertEquals("default", first.getValue().get(new CountingKey(2, operations)));
+        Assert.assertEquals(size, second.getValue().size());
+        return result;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateLayerName() {
+        LayeredConfigSource.<String, String>builder()
+                .layer("a", () -> null)
+                .layer("a", () -> null);
+    }
+
+    private static Map<String, String> map(String... keyValues) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put(keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+
+    private static final class CountingKey {
+
+        private final int id;
+        private final AtomicInteger operations;
+
+        CountingKey(int id, AtomicInteger operations) {
+            this.id = id;
+            this.operations = operations;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            operations.incrementAndGet();
+            return o instanceof CountingKey && ((CountingKey) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            operations.incrementAndGet();
+            return id;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.zuomagai.molamola.test.config;
+
+import com.zuomagai.molamola.config.ConfigChangeEvent;
+import com.zuomagai.molamola.config.ConfigNotifier;
+import com.zuomagai.molamola.config.ConfigSnapshot;
+import com.zuomagai.molamola.config.offheap.OffHeapConfig;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class OffHeapConfigTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testLookups() throws Exception {
+        OffHeapConfig config = OffHeapConfig.builder()
+                .put("name", "模拟")
+                .put("limit", "-9223372036854775808")
+                .put("raw", new byte[]{1, 2, 3})
+                .put("name", "molamola")
+                .build();
+
+        Assert.assertEquals(3, config.size());
+        Assert.assertTrue(config.containsKey("raw"));
+        Assert.assertFalse(config.containsKey("missing"));
+        Assert.assertEquals("molamola", config.getString("name"));
+        Assert.assertEquals("fallback", config.getString("missing", "fallback"));
+        Assert.assertEquals(Long.MIN_VALUE, config.getLong("limit", 0L));
+        Assert.assertEquals(7, config.getInt("missing", 7));
+        Assert.assertArrayEquals(new byte[]{1, 2, 3}, config.getBytes("raw"));
+        Assert.assertEquals(Integer.valueOf(3), config.read("raw", value -> value.remaining()));
+        Assert.assertNull(config.read("missing", value -> value.remaining()));
+        config.release();
+    }
+
+    @Test
+    public void testReadProperties() throws Exception {
+        StringBuilder payload = new StringBuilder("# header\n\n  spaced key =  spaced value \r\nempty=\nflag\n");
+        for (int i = 0; i < 10000; i++) {
+            payload.append("key.").append(i).append('=').append(i).append('\n');
+        }
+        payload.append("key.5=override");
+        byte[] bytes = payload.toString().getBytes(StandardCharsets.UTF_8);
+
+        try (OffHeapConfig config = OffHeapConfig.read(new ByteArrayInputStream(bytes), bytes.length)) {
+            Assert.assertEquals(10003, config.size());
+            Assert.assertEquals("spaced value", config.getString("spaced key"));
+            Assert.assertEquals("", config.getString("empty"));
+            Assert.assertEquals("", config.getString("flag"));
+            Assert.assertEquals(9999L, config.getLong("key.9999", -1L));
+            Assert.assertEquals("override", config.getString("key.5"));
+            Assert.assertFalse(config.containsKey("# header"));
+            Assert.assertTrue(config.getOffHeapBytes() >= bytes.length / 2);
+        }
+    }
+
+    @Test
+    public void testInvalidNumbers() throws Exception {
+        try (OffHeapConfig config = OffHeapConfig.builder()
+                .put("text", "12a")
+                .put("big", "9223372036854775808")
+                .put("int", "2147483648")
+                .build()) {
+            assertNumberFormat(() -> config.getLong("text", 0L));
+            assertNumberFormat(() -> config.getLong("big", 0L));
+            assertNumberFormat(() -> config.getInt("int", 0));
+        }
+    }
+
+    @Test
+    public void testReleaseWaitsForReaders() throws Exception {
+        OffHeapConfig config = OffHeapConfig.builder().put("key", "value").build();
+
+        String value = config.read("key", buffer -> {
+            config.release();
+            Assert.assertTrue(config.isReleased());
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        });
+
+        Assert.assertEquals("value", value);
+        try {
+            config.getString("key");
+            Assert.fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        config.release();
+    }
+
+    @Test
+    public void testMapped() throws Exception {
+        OffHeapConfig config = OffHeapConfig.builder()
+                .mapped(folder.getRoot().toPath())
+                .put("key", "value")
+                .build();
+
+        Assert.assertTrue(config.isMapped());
+        Assert.assertEquals("value", config.getString("key"));
+        Assert.assertEquals(1, folder.getRoot().list().length);
+        config.release();
+        Assert.assertEquals(0, folder.getRoot().list().length);
+    }
+
+    @Test
+    public void testReleaseRetired() throws Exception {
+        OffHeapConfig previous = OffHeapConfig.builder().put("key", "v1").build();
+        OffHeapConfig current = OffHeapConfig.builder().put("key", "v2").build();
+
+        OffHeapConfig.releaseRetired().onApplied(new ConfigChangeEvent<>(
+                new ConfigSnapshot<>("v1", previous), new ConfigSnapshot<>("v2", current)), 0);
+
+        Assert.assertTrue(previous.isReleased());
+        Assert.assertFalse(current.isReleased());
+        OffHeapConfig.releaseRetired().onApplied(new ConfigChangeEvent<>(null, new ConfigSnapshot<>("v2", current)), 0);
+        Assert.assertFalse(current.isReleased());
+        current.release();
+    }
+
+    @Test
+    public void testLastSnapshotReadableAfterRelease() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        AtomicReference<String> seen = new AtomicReference<>();
+        ConfigNotifier<OffHeapConfig> notifier = ConfigNotifier.<OffHeapConfig>builder()
+                .source(() -> {
+                    String version = "v" + fetches.incrementAndGet();
+                    return new ConfigSnapshot<>(version, OffHeapConfig.builder().put("key", version).build());
+                })
+                .addAppliedListener(OffHeapConfig.releaseRetired())
+                .pollIntervalMillis(0L)
+                .build();
+        AtomicReference<ConfigNotifier<OffHeapConfig>> self = new AtomicReference<>(notifier);
+        notifier.addAppliedListener((event, failed) -> seen.set(self.get().getLastSnapshot().getValue().getString("key")));
+
+        Assert.assertTrue(notifier.pollOnce());
+        Assert.assertTrue(notifier.pollOnce());
+
+        Assert.assertEquals("v2", seen.get());
+        Assert.assertEquals("v2", notifier.getLastSnapshot().getValue().getString("key"));
+        notifier.getLastSnapshot().getValue().release();
+    }
+
+    @Test
+    public void testReleaseRetiredSkipsUnparsedLazySnapshots() throws Exception {
+        AtomicInteger parses = new AtomicInteger();
+        ConfigSnapshot<OffHeapConfig> unread = ConfigSnapshot.lazy("v1", new byte[0], raw -> {
+            parses.incrementAndGet();
+            return OffHeapConfig.builder().put("key", "v1").build();
+        });
+        ConfigSnapshot<OffHeapConfig> broken = ConfigSnapshot.lazy("v2", new byte[0], raw -> {
+            throw new IllegalArgumentException("bad payload");
+        });
+        try {
+            broken.getValue();
+            Assert.fail("Expected IllegalStateException");
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+        OffHeapConfig current = OffHeapConfig.builder().put("key", "v3").build();
+
+        OffHeapConfig.releaseRetired().onApplied(new ConfigChangeEvent<>(unread, broken), 0);
+        OffHeapConfig.releaseRetired().onApplied(new ConfigChangeEvent<>(broken, new ConfigSnapshot<>("v3", current)), 0);
+
+        Assert.assertEquals(0, parses.get());
+        Assert.assertFalse(current.isReleased());
+        current.release();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testBuilderSingleUse() throws Exception {
+        OffHeapConfig.Builder builder = OffHeapConfig.builder().put("key", "value");
+        builder.build().release();
+        builder.put("other", "value");
+    }
+
+    private static void assertNumberFormat(Runnable runnable) {
+        try {
+            runnable.run();
+            Assert.fail("Expected NumberFormatException");
+        } catch (NumberFormatException expected) {
+            // expected
+        }
+    }
+}
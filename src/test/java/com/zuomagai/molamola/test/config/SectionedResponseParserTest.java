@@ -0,0 +1,186 @@
+package com.zuomagai.molamola.test.config;
+
+import com.zuomagai.molamola.config.http.HttpLongPollingConfigSource;
+import com.zuomagai.molamola.config.http.SectionedResponseParser;
+import com.zuomagai.molamola.string.ByteSlice;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SectionedResponseParserTest {
+
+    @Test
+    public void testParsesSectionsAndReusesUnchanged() throws Exception {
+        AtomicInteger parses = new AtomicInteger();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            SectionedResponseParser<Map<String, String>, List<Map<String, String>>> parser = SectionedResponseParser
+                    .builder(countingParser(parses), (List<Map<String, String>> sections) -> sections)
+                    .delimiter("\n---\n")
+                    .pool(pool)
+                    .build();
+
+            StringBuilder body = new StringBuilder();
+            for (int i = 0; i < 64; i++) {
+                if (i > 0) {
+                    body.append("\n---\n");
+                }
+                body.append("section=").append(i).append("\nvalue=old");
+            }
+            List<Map<String, String>> first = parser.parse(ByteSlice.utf8(body.toString()), StandardCharsets.UTF_8);
+            Assert.assertEquals(64, first.size());
+            Assert.assertEquals("17", first.get(17).get("section"));
+            Assert.assertEquals(64, parses.get());
+            Assert.assertEquals(0, parser.getLastReusedCount());
+
+            String changed = body.toString().replace("section=5\nvalue=old", "section=5\nvalue=new");
+            List<Map<String, String>> second = parser.parse(ByteSlice.utf8(changed), StandardCharsets.UTF_8);
+            Assert.assertEquals(65, parses.get());
+            Assert.assertEquals(64, parser.getLastSectionCount());
+            Assert.assertEquals(63, parser.getLastReusedCount());
+            Assert.assertEquals("new", second.get(5).get("value"));
+            Assert.assertSame(first.get(6), second.get(6));
+            Assert.assertNotSame(first.get(5), second.get(5));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testFramedSections() throws Exception {
+        SectionedResponseParser<Map<String, String>, Map<String, String>> parser = SectionedResponseParser
+                .builder(countingParser(new AtomicInteger()), SectionedResponseParserTest::merge)
+                .framed()
+                .build();
+        byte[] body = frames("a=1", "", "b=2\nc=3");
+
+        Map<String, String> merged = parser.parse(ByteSlice.of(body), StandardCharsets.UTF_8);
+        Assert.assertEquals(3, parser.getLastSectionCount());
+        Assert.assertEquals("1", merged.get("a"));
+        Assert.assertEquals("3", merged.get("c"));
+
+        try {
+            parser.parse(ByteSlice.of(body, 0, body.length - 1), StandardCharsets.UTF_8);
+            Assert.fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSectionFailureKeepsBaseline() throws Exception {
+        AtomicInteger parses = new AtomicInteger();
+        HttpLongPollingConfigSource.BytesResponseParser<Map<String, String>> sectionParser = (section, charset) -> {
+            if (section.contentEquals("broken")) {
+                throw new IOException("bad section");
+            }
+            return countingParser(parses).parse(section, charset);
+        };
+        SectionedResponseParser<Map<String, String>, Map<String, String>> parser = SectionedResponseParser
+                .builder(sectionParser, SectionedResponseParserTest::merge)
+                .delimiter(";")
+                .build();
+
+        parser.parse(ByteSlice.utf8("a=1;b=2"), StandardCharsets.UTF_8);
+        try {
+            parser.parse(ByteSlice.utf8("a=1;broken"), StandardCharsets.UTF_8);
+            Assert.fail("Expected IOException");
+        } catch (IOException expected) {
+            Assert.assertEquals("bad section", expected.getMessage());
+        }
+        parser.parse(ByteSlice.utf8("a=1;b=2"), StandardCharsets.UTF_8);
+        Assert.assertEquals(2, parser.getLastReusedCount());
+        Assert.assertEquals(2, parses.get());
+    }
+
+    @Test
+    public void testHashCollisionIsNotReused() throws Exception {
+        // Two 16-byte sections whose 64-bit hashes collide: the second word cancels the first.
+        long seed = 0x9E3779B97F4A7C15L ^ 16;
+        long first = 1L;
+        long second = 2L;
+        long tail = 42L;
+        long collidingTail = mix(seed ^ first) ^ mix(seed ^ second) ^ tail;
+        byte[] original = ByteBuffer.allocate(16).putLong(first).putLong(tail).array();
+        byte[] colliding = ByteBuffer.allocate(16).putLong(second).putLong(collidingTail).array();
+
+        AtomicInteger parses = new AtomicInteger();
+        SectionedResponseParser<String, List<String>> parser = SectionedResponseParser
+                .builder((section, charset) -> {
+                    parses.incrementAndGet();
+                    return Arrays.toString(section.toByteArray());
+                }, (List<String> sections) -> sections)
+                .framed()
+                .build();
+
+        List<String> before = parser.parse(ByteSlice.of(frames(original)), StandardCharsets.UTF_8);
+        List<String> after = parser.parse(ByteSlice.of(frames(colliding)), StandardCharsets.UTF_8);
+
+        Assert.assertEquals(2, parses.get());
+        Assert.assertEquals(0, parser.getLastReusedCount());
+        Assert.assertEquals(Arrays.toString(original), before.get(0));
+        Assert.assertEquals(Arrays.toString(colliding), after.get(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSplitModeRequired() {
+        SectionedResponseParser.builder(countingParser(new AtomicInteger()), SectionedResponseParserTest::merge).build();
+    }
+
+    private static HttpLongPollingConfigSource.BytesResponseParser<Map<String, String>> countingParser(AtomicInteger parses) {
+        return (section, charset) -> {
+            parses.incrementAndGet();
+            Map<String, String> values = new HashMap<>();
+            for (ByteSlice line : section.split((byte) '\n')) {
+                int separator = line.indexOf((byte) '=');
+                if (separator > 0) {
+                    values.put(line.slice(0, separator).decode(charset), line.slice(separator + 1, line.length()).decode(charset));
+                }
+            }
+            return values;
+        };
+    }
+
+    private static Map<String, String> merge(List<Map<String, String>> sections) {
+        Map<String, String> merged = new HashMap<>();
+        for (Map<String, String> section : sections) {
+            merged.putAll(section);
+        }
+        return merged;
+    }
+
+    private static long mix(long value) {
+        value *= 0xBF58476D1CE4E5B9L;
+        return value ^ (value >>> 31);
+    }
+
+    private static byte[] frames(String... sections) {
+        byte[][] encoded = new byte[sections.length][];
+        for (int i = 0; i < sections.length; i++) {
+            encoded[i] = sections[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return frames(encoded);
+    }
+
+    private static byte[] frames(byte[]... sections) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] bytes : sections) {
+            out.write(bytes.length >>> 24);
+            out.write(bytes.length >>> 16);
+            out.write(bytes.length >>> 8);
+            out.write(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        return out.toByteArray();
+    }
+}
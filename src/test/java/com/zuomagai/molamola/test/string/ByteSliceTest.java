@@ -0,0 +1,79 @@
+package com.zuomagai.molamola.test.string;
+
+import com.zuomagai.molamola.string.ByteSlice;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+public class ByteSliceTest {
+
+    @Test
+    public void testBlankAndTrim() {
+        Assert.assertTrue(ByteSlice.utf8(" \t\r\n").isBlank());
+        Assert.assertTrue(ByteSlice.utf8("  ").isBlank());
+        Assert.assertFalse(ByteSlice.utf8(" a ").isBlank());
+        Assert.assertFalse(ByteSlice.of(new byte[]{(byte) 0xE2}).isValidUtf8());
+        Assert.assertFalse(ByteSlice.of(new byte[]{(byte) 0xE2}).isBlank());
+        Assert.assertEquals("a b", ByteSlice.utf8("  a b \n").trim().toString());
+        ByteSlice trimmed = ByteSlice.utf8("ab");
+        Assert.assertSame(trimmed, trimmed.trim());
+    }
+
+    @Test
+    public void testSearchAndCompare() {
+        ByteSlice header = ByteSlice.utf8("Content-Type: application/JSON; charset=utf-8");
+        Assert.assertEquals(14, header.indexOfIgnoreCase(ByteSlice.utf8("APPLICATION/json")));
+        Assert.assertEquals(-1, header.indexOf(ByteSlice.utf8("APPLICATION/json")));
+        Assert.assertTrue(header.startsWithIgnoreCase(ByteSlice.utf8("content-type")));
+        Assert.assertFalse(header.startsWith(ByteSlice.utf8("content-type")));
+        Assert.assertTrue(header.contains(ByteSlice.utf8("charset")));
+        Assert.assertEquals(12, header.indexOf((byte) ':'));
+
+        Assert.assertTrue(ByteSlice.utf8("ÄBC").equalsIgnoreCase(ByteSlice.utf8("äbc")));
+        Assert.assertFalse(ByteSlice.utf8("ABC").equalsIgnoreCase(ByteSlice.utf8("abd")));
+        Assert.assertTrue(ByteSlice.utf8("名字😀").contentEquals("名字😀"));
+        Assert.assertFalse(ByteSlice.utf8("名字").contentEquals("名"));
+        Assert.assertFalse(ByteSlice.utf8("?").contentEquals("\uD800"));
+
+        Assert.assertEquals(ByteSlice.utf8("key"), ByteSlice.utf8("a key").slice(2, 5));
+        Assert.assertEquals(ByteSlice.utf8("key").hashCode(), ByteSlice.utf8("a key").slice(2, 5).hashCode());
+    }
+
+    @Test
+    public void testSplit() {
+        List<ByteSlice> parts = ByteSlice.utf8("a,,b,").split((byte) ',');
+        Assert.assertEquals(Arrays.asList(ByteSlice.utf8("a"), ByteSlice.empty(), ByteSlice.utf8("b"), ByteSlice.empty()), parts);
+        int[] seen = new int[1];
+        int count = ByteSlice.utf8("x;y;z").split((byte) ';', (array, start, end) -> ++seen[0] < 2);
+        Assert.assertEquals(2, count);
+    }
+
+    @Test
+    public void testDecode() throws Exception {
+        byte[] bytes = "配置=value".getBytes(StandardCharsets.UTF_8);
+        ByteSlice slice = ByteSlice.of(ByteBuffer.wrap(bytes));
+        Assert.assertTrue(slice.isValidUtf8());
+        Assert.assertFalse(slice.isAscii());
+        Assert.assertEquals("配置=value", slice.decodeStrict());
+        Assert.assertEquals("value", slice.slice(7, slice.length()).decode(StandardCharsets.US_ASCII));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(3);
+        direct.put("abc".getBytes(StandardCharsets.US_ASCII)).flip();
+        Assert.assertEquals("abc", ByteSlice.of(direct).toString());
+        Assert.assertEquals(0, direct.position());
+
+        Assert.assertFalse(ByteSlice.of(new byte[]{(byte) 0xC0, (byte) 0x80}).isValidUtf8());
+        Assert.assertFalse(ByteSlice.of(new byte[]{(byte) 0xED, (byte) 0xA0, (byte) 0x80}).isValidUtf8());
+        try {
+            ByteSlice.of(new byte[]{'a', (byte) 0xFF}).decodeStrict();
+            Assert.fail();
+        } catch (CharacterCodingException expected) {
+            // expected
+        }
+    }
+}
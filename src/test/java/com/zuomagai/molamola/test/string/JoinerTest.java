@@ -0,0 +1,32 @@
+package com.zuomagai.molamola.test.string;
+
+import com.zuomagai.molamola.string.Joiner;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+public class JoinerTest {
+
+    @Test
+    public void testJoin() {
+        Assert.assertEquals("a,,1", Joiner.on(',').join(new Object[]{"a", null, 1}));
+        Assert.assertEquals("a,1", Joiner.on(',').skipNulls().join(Arrays.asList("a", null, 1)));
+        Assert.assertEquals("a-null-1", Joiner.on("-").useForNull("null").join(Arrays.asList("a", null, 1)));
+        Assert.assertEquals("", Joiner.on(',').join((Object[]) null));
+        Assert.assertEquals("ab", Joiner.on(null).join(new Object[]{"a", "b"}));
+    }
+
+    @Test
+    public void testAppendTo() throws Exception {
+        List<Object> items = Arrays.asList(new StringBuilder("x"), "y", 2);
+        StringBuilder builder = new StringBuilder("items=");
+        Assert.assertSame(builder, Joiner.on(", ").appendTo(builder, items));
+        Assert.assertEquals("items=x, y, 2", builder.toString());
+
+        StringWriter writer = Joiner.on('|').skipNulls().appendTo(new StringWriter(), Arrays.asList(null, "a", null, "b"));
+        Assert.assertEquals("a|b", writer.toString());
+    }
+}
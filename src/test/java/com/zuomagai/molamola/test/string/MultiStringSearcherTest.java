@@ -0,0 +1,52 @@
+package com.zuomagai.molamola.test.string;
+
+import com.zuomagai.molamola.string.MultiStringSearcher;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class MultiStringSearcherTest {
+
+    @Test
+    public void testFindFirst() {
+        MultiStringSearcher searcher = MultiStringSearcher.of("he", "she", "his", "hers");
+        MultiStringSearcher.Match match = searcher.findFirst("ushers");
+        Assert.assertEquals("she", match.getPattern());
+        Assert.assertEquals(1, match.getStart());
+        Assert.assertEquals(4, match.getEnd());
+        Assert.assertTrue(searcher.containsAny("this"));
+        Assert.assertFalse(searcher.containsAny("hxs"));
+        Assert.assertNull(searcher.findFirst(null));
+    }
+
+    @Test
+    public void testIgnoreCase() {
+        MultiStringSearcher searcher = MultiStringSearcher.ignoreCase("<script", "javascript:", "onerror=");
+        MultiStringSearcher.Match match = searcher.findFirst("<a href=\"JavaScript:alert(1)\">");
+        Assert.assertEquals("javascript:", match.getPattern());
+        Assert.assertEquals(9, match.getStart());
+        Assert.assertTrue(searcher.containsAny("<IMG ONERROR=x>"));
+        Assert.assertFalse(MultiStringSearcher.of("<script").containsAny("<SCRIPT>"));
+    }
+
+    @Test
+    public void testFailureLinks() {
+        MultiStringSearcher searcher = MultiStringSearcher.of(Arrays.asList("abcd", "bcx", "c中"), false);
+        Assert.assertEquals("bcx", searcher.findFirst("abcx").getPattern());
+        Assert.assertEquals("c中", searcher.findFirst("abc中").getPattern());
+        Assert.assertFalse(searcher.containsAny("abc"));
+    }
+
+    @Test
+    public void testEdgeCases() {
+        Assert.assertFalse(MultiStringSearcher.of(Collections.<String>emptyList(), false).containsAny("abc"));
+        Assert.assertEquals(0, MultiStringSearcher.of("", "a").findFirst("bbb").getEnd());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullPattern() {
+        MultiStringSearcher.of("a", null);
+    }
+}
@@ -0,0 +1,67 @@
+package com.zuomagai.molamola.test.string;
+
+import com.zuomagai.molamola.string.CharSequenceView;
+import com.zuomagai.molamola.string.Splitter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SplitterTest {
+
+    @Test
+    public void testSplitOnChar() {
+        Assert.assertEquals(Arrays.asList("a", "", "b", ""), Splitter.on(',').splitToList("a,,b,"));
+        Assert.assertEquals(Collections.singletonList(""), Splitter.on(',').splitToList(""));
+        Assert.assertEquals(Arrays.asList("a", "b"), Splitter.on(',').trimResults().omitEmptyStrings().splitToList(" a , ,b ,"));
+    }
+
+    @Test
+    public void testSplitOnStringAndWhitespace() {
+        Assert.assertEquals(Arrays.asList("k", "v", "", "w"), Splitter.on("::").splitToList("k::v::::w"));
+        Assert.assertEquals(Arrays.asList("GET", "/index", "HTTP/1.1"), Splitter.onWhitespace().splitToList(" GET \t/index  HTTP/1.1\r\n"));
+    }
+
+    @Test
+    public void testHandlerStopsEarly() {
+        StringBuilder line = new StringBuilder("a;b;c;d");
+        List<String> tokens = new ArrayList<>();
+        int count = Splitter.on(';').split(line, (source, start, end) -> {
+            tokens.add(source.subSequence(start, end).toString());
+            return tokens.size() < 2;
+        });
+        Assert.assertEquals(2, count);
+        Assert.assertEquals(Arrays.asList("a", "b"), tokens);
+    }
+
+    @Test
+    public void testCursorReusesView() {
+        Splitter.Cursor cursor = Splitter.on('=').trimResults().cursor();
+        cursor.reset("key = value");
+        Assert.assertTrue(cursor.next());
+        CharSequenceView key = cursor.token();
+        Assert.assertTrue(key.contentEquals("key"));
+        Assert.assertTrue(cursor.next());
+        Assert.assertSame(key, cursor.token());
+        Assert.assertTrue(key.contentEqualsIgnoreCase("VALUE"));
+        Assert.assertEquals(6, cursor.start());
+        Assert.assertFalse(cursor.next());
+
+        cursor.reset("x");
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals("x", cursor.token().toString());
+    }
+
+    @Test
+    public void testIterableViews() {
+        List<String> tokens = new ArrayList<>();
+        for (CharSequence token : Splitter.on('/').omitEmptyStrings().split("/a/b/")) {
+            Assert.assertTrue(token instanceof CharSequenceView);
+            tokens.add(token.toString());
+        }
+        Assert.assertEquals(Arrays.asList("a", "b"), tokens);
+    }
+}
@@ -0,0 +1,83 @@
+package com.zuomagai.molamola.test.string;
+
+import com.zuomagai.molamola.string.CharSequenceView;
+import com.zuomagai.molamola.string.StringInterner;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class StringInternerTest {
+
+    @Test
+    public void testIntern() {
+        StringInterner interner = new StringInterner();
+        String first = interner.intern(new String("timeout"));
+        Assert.assertSame(first, interner.intern(new String("timeout")));
+        Assert.assertSame(first, interner.intern(new StringBuilder("timeout")));
+        Assert.assertSame(first, interner.intern(CharSequenceView.of("connect.timeout", 8, 15)));
+        Assert.assertSame(first, interner.intern("xtimeoutx".toCharArray(), 1, 7));
+        Assert.assertNull(interner.intern((String) null));
+
+        Assert.assertEquals(1, interner.size());
+        Assert.assertEquals(4, interner.getHitCount());
+        Assert.assertEquals(1, interner.getMissCount());
+        Assert.assertEquals(0.8D, interner.getHitRate(), 0.0001D);
+
+        interner.clear();
+        Assert.assertEquals(0, interner.size());
+        Assert.assertNotSame(first, interner.intern(new String("timeout")));
+    }
+
+    @Test
+    public void testBounded() {
+        StringInterner interner = new StringInterner(4, 1);
+        List<String> pooled = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            pooled.add(interner.intern("key-" + i));
+        }
+        Assert.assertEquals(4, interner.size());
+        Assert.assertSame(pooled.get(0), interner.intern(new String("key-0")));
+        Assert.assertNotSame(pooled.get(7), interner.intern(new String("key-7")));
+    }
+
+    @Test
+    public void testConcurrentIntern() throws Exception {
+        StringInterner interner = new StringInterner(1024, 4);
+        ConcurrentHashMap<String, String> canonical = new ConcurrentHashMap<>();
+        int threads = 4;
+        CountDownLatch done = new CountDownLatch(threads);
+        List<Throwable> errors = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < 10000; i++) {
+                        String value = interner.intern(new StringBuilder("value-").append(i % 100));
+                        String previous = canonical.putIfAbsent(value, value);
+                        if (previous != null && previous != value) {
+                            throw new AssertionError("duplicate instance for " + value);
+                        }
+                    }
+                } catch (Throwable ex) {
+                    synchronized (errors) {
+                        errors.add(ex);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        Assert.assertTrue(done.await(30, TimeUnit.SECONDS));
+        Assert.assertTrue(errors.toString(), errors.isEmpty());
+        Assert.assertEquals(100, interner.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaximumSize() {
+        new StringInterner(0);
+    }
+}
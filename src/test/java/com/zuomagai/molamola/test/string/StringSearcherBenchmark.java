@@ -0,0 +1,81 @@
+package com.zuomagai.molamola.test.string;
+
+import com.zuomagai.molamola.string.MultiStringSearcher;
+import com.zuomagai.molamola.string.StringSearcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Case-insensitive search for a missing needle in a long body: naive regionMatches scan versus
+ * the precompiled searchers. Not a unit test; run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringSearcherBenchmark {
+
+    private static final String NEEDLE = "X-Forwarded-Prefix";
+
+    @Param({"16384"})
+    public int length;
+
+    private String haystack;
+    private StringSearcher searcher;
+    private MultiStringSearcher blocklist;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        StringBuilder builder = new StringBuilder(length);
+        while (builder.length() < length) {
+            builder.append((char) ('a' + random.nextInt(26)));
+        }
+        haystack = builder.toString();
+        searcher = StringSearcher.ignoreCase(NEEDLE);
+        blocklist = MultiStringSearcher.ignoreCase(NEEDLE, "<script", "javascript:", "union select", "../");
+    }
+
+    @Benchmark
+    public boolean regionMatches() {
+        int max = haystack.length() - NEEDLE.length();
+        for (int i = 0; i <= max; i++) {
+            if (haystack.regionMatches(true, i, NEEDLE, 0, NEEDLE.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean searcher() {
+        return searcher.contains(haystack);
+    }
+
+    @Benchmark
+    public boolean blocklist() {
+        return blocklist.containsAny(haystack);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(StringSearcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
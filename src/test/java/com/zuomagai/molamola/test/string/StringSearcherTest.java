@@ -0,0 +1,64 @@
+package com.zuomagai.molamola.test.string;
+
+import com.zuomagai.molamola.string.StringSearcher;
+import com.zuomagai.molamola.string.StringUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class StringSearcherTest {
+
+    private static final String ALPHABET = "abcABC xyzKıſİiIkKsS𐐀𐐨";
+
+    @Test
+    public void testCaseSensitive() {
+        StringSearcher searcher = StringSearcher.of("needle");
+        Assert.assertEquals(9, searcher.indexOf("haystack needle needle"));
+        Assert.assertEquals(16, searcher.indexOf("haystack needle needle", 10));
+        Assert.assertEquals(-1, searcher.indexOf("haystack NEEDLE"));
+        Assert.assertEquals(-1, searcher.indexOf(null));
+        Assert.assertTrue(searcher.contains(new StringBuilder("a needle")));
+        Assert.assertEquals(3, StringSearcher.of("").indexOf("abc", 3));
+        Assert.assertEquals(-1, StringSearcher.of("").indexOf("abc", 4));
+    }
+
+    @Test
+    public void testIgnoreCase() {
+        StringSearcher searcher = StringSearcher.ignoreCase("Content-Type");
+        Assert.assertEquals(7, searcher.indexOf("accept CONTENT-type: text/plain"));
+        Assert.assertTrue(StringSearcher.ignoreCase("kelvin").contains("Kelvin"));
+        Assert.assertTrue(StringSearcher.ignoreCase("𐐀").contains("x𐐨"));
+    }
+
+    @Test
+    public void testMatchesRegionMatches() {
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            String haystack = randomString(random, random.nextInt(200));
+            String needle = random.nextInt(4) == 0 && haystack.length() > 3
+                    ? haystack.substring(haystack.length() / 3, haystack.length() / 3 + random.nextInt(3) + 1)
+                    : randomString(random, random.nextInt(4) + 1);
+            Assert.assertEquals(haystack.indexOf(needle), StringSearcher.of(needle).indexOf(haystack));
+            Assert.assertEquals(regionIndexOf(haystack, needle), StringSearcher.ignoreCase(needle).indexOf(haystack));
+            Assert.assertEquals(regionIndexOf(haystack, needle) >= 0, StringUtils.containsIgnoreCase(haystack, needle));
+        }
+    }
+
+    private static int regionIndexOf(String haystack, String needle) {
+        for (int i = 0; i <= haystack.length() - needle.length(); i++) {
+            if (haystack.regionMatches(true, i, needle, 0, needle.length())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return builder.toString();
+    }
+}
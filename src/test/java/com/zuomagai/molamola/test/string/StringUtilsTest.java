@@ -27,6 +27,10 @@ public class StringUtilsTest {
         Assert.assertEquals("a", StringUtils.trimToEmpty(" a "));
         Assert.assertNull(StringUtils.trimToNull("  "));
         Assert.assertEquals("a", StringUtils.trimToNull(" a "));
+        String untrimmed = "value";
+        Assert.assertSame(untrimmed, StringUtils.trimView(untrimmed));
+        Assert.assertEquals("a b", StringUtils.trimView("\t a b \n").toString());
+        Assert.assertNull(StringUtils.trimView(null));
 
         Assert.assertEquals("x", StringUtils.defaultIfNull(null, "x"));
         Assert.assertEquals("y", StringUtils.defaultIfNull("y", "x"));
@@ -0,0 +1,72 @@
+package com.zuomagai.molamola.test.thread;
+
+import com.zuomagai.molamola.thread.HashedWheelTimer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HashedWheelTimerTest {
+
+    private static final ThreadFactory THREAD_FACTORY = r -> {
+        Thread thread = new Thread(r, "wheel-timer-test");
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    @Test
+    public void testTimeoutsExpire() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(THREAD_FACTORY, 5L, TimeUnit.MILLISECONDS, 8);
+        try {
+            int count = 1000;
+            CountDownLatch latch = new CountDownLatch(count);
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                timer.newTimeout(latch::countDown, 20L + (i % 100), TimeUnit.MILLISECONDS);
+            }
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20L));
+            Assert.assertEquals(0L, timer.pendingTimeouts());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(THREAD_FACTORY, 5L, TimeUnit.MILLISECONDS, 8);
+        try {
+            AtomicInteger fired = new AtomicInteger();
+            HashedWheelTimer.Timeout cancelled = timer.newTimeout(fired::incrementAndGet, 50L, TimeUnit.MILLISECONDS);
+            CountDownLatch latch = new CountDownLatch(1);
+            HashedWheelTimer.Timeout kept = timer.newTimeout(latch::countDown, 100L, TimeUnit.MILLISECONDS);
+
+            Assert.assertTrue(cancelled.cancel());
+            Assert.assertFalse(cancelled.cancel());
+            Assert.assertTrue(cancelled.isCancelled());
+
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(kept.isExpired());
+            Assert.assertFalse(kept.cancel());
+            Assert.assertEquals(0, fired.get());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testStoppedTimerRejectsTimeouts() {
+        HashedWheelTimer timer = new HashedWheelTimer(THREAD_FACTORY, 5L, TimeUnit.MILLISECONDS, 8);
+        timer.newTimeout(() -> { }, 1L, TimeUnit.SECONDS);
+        timer.stop();
+        try {
+            timer.newTimeout(() -> { }, 1L, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+            // stopped timers cannot be reused
+        }
+    }
+}
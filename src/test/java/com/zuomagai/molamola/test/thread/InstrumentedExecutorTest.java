@@ -0,0 +1,117 @@
+package com.zuomagai.molamola.test.thread;
+
+import com.zuomagai.molamola.thread.InstrumentedExecutor;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class InstrumentedExecutorTest {
+
+    private static final ThreadFactory THREAD_FACTORY = r -> {
+        Thread thread = new Thread(r, "instrumented-test");
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    @Test
+    public void testRecordsWaitAndRunTime() throws Exception {
+        InstrumentedExecutor executor = InstrumentedExecutor.builder("metrics")
+                .threadFactory(THREAD_FACTORY)
+                .poolSize(1, 1)
+                .build();
+        try {
+            CountDownLatch done = new CountDownLatch(10);
+            for (int i = 0; i < 10; i++) {
+                executor.execute(() -> {
+                    sleep(2L);
+                    done.countDown();
+                });
+            }
+            Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+            executor.shutdown();
+            Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+            Assert.assertEquals(10L, executor.getRunTime().getCount());
+            Assert.assertEquals(10L, executor.getWaitTime().getCount());
+            Assert.assertTrue(executor.getRunTime().getPercentileNanos(0.5d) >= TimeUnit.MILLISECONDS.toNanos(1L));
+            Assert.assertTrue(executor.getWaitTime().getMaxNanos() >= TimeUnit.MILLISECONDS.toNanos(2L));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testRejectionCountedAndAlerted() throws Exception {
+        AtomicInteger rejections = new AtomicInteger();
+        InstrumentedExecutor executor = InstrumentedExecutor.builder("bounded")
+                .threadFactory(THREAD_FACTORY)
+                .poolSize(1, 1)
+                .queueCapacity(1)
+                .saturationListener((pool, rejected) -> {
+                    if (rejected) {
+                        rejections.incrementAndGet();
+                    }
+                }, 0)
+                .build();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release));
+            executor.execute(() -> await(release));
+            try {
+                executor.execute(() -> { });
+                Assert.fail();
+            } catch (RejectedExecutionException expected) {
+                // queue is full
+            }
+            Assert.assertEquals(1L, executor.getRejectedCount());
+            Assert.assertEquals(1, rejections.get());
+            Assert.assertEquals(1, executor.getQueueDepth());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAdaptiveCoreSizeGrowsUnderQueueing() throws Exception {
+        InstrumentedExecutor executor = InstrumentedExecutor.builder("adaptive")
+                .threadFactory(THREAD_FACTORY)
+                .poolSize(1, 4)
+                .adaptiveCoreSize(1L, 1L)
+                .build();
+        try {
+            CountDownLatch done = new CountDownLatch(200);
+            for (int i = 0; i < 200; i++) {
+                executor.execute(() -> {
+                    sleep(1L);
+                    done.countDown();
+                });
+            }
+            Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+            Assert.assertTrue(executor.getCorePoolSize() > 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.zuomagai.molamola.test.thread;
+
+import com.zuomagai.molamola.thread.MpscRingBuffer;
+import com.zuomagai.molamola.thread.SpinWaitStrategy;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Three producers and one consumer exchanging events through the ring buffer and bounded JDK queues.
+ * Not a unit test; run {@link #main(String[])} from the test classpath.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MpscRingBufferBenchmark {
+
+    private static final Integer EVENT = 1;
+
+    @Param({"1024"})
+    public int capacity;
+
+    private MpscRingBuffer<Integer> ringBuffer;
+    private Queue<Integer> arrayBlockingQueue;
+    private Queue<Integer> linkedBlockingQueue;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        ringBuffer = new MpscRingBuffer<>(capacity, new SpinWaitStrategy());
+        arrayBlockingQueue = new ArrayBlockingQueue<>(capacity);
+        linkedBlockingQueue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Benchmark
+    @Group("ringBuffer")
+    @GroupThreads(3)
+    public void ringBufferOffer(Counters counters) {
+        if (ringBuffer.offer(EVENT)) {
+            counters.offered++;
+        }
+    }
+
+    @Benchmark
+    @Group("ringBuffer")
+    @GroupThreads(1)
+    public void ringBufferDrain(Counters counters, Blackhole blackhole) {
+        counters.consumed += ringBuffer.drain(blackhole::consume, 256);
+    }
+
+    @Benchmark
+    @Group("arrayBlockingQueue")
+    @GroupThreads(3)
+    public void arrayBlockingQueueOffer(Counters counters) {
+        if (arrayBlockingQueue.offer(EVENT)) {
+            counters.offered++;
+        }
+    }
+
+    @Benchmark
+    @Group("arrayBlockingQueue")
+    @GroupThreads(1)
+    public void arrayBlockingQueuePoll(Counters counters, Blackhole blackhole) {
+        Integer event = arrayBlockingQueue.poll();
+        if (event != null) {
+            counters.consumed++;
+            blackhole.consume(event);
+        }
+    }
+
+    @Benchmark
+    @Group("linkedBlockingQueue")
+    @GroupThreads(3)
+    public void linkedBlockingQueueOffer(Counters counters) {
+        if (linkedBlockingQueue.offer(EVENT)) {
+            counters.offered++;
+        }
+    }
+
+    @Benchmark
+    @Group("linkedBlockingQueue")
+    @GroupThreads(1)
+    public void linkedBlockingQueuePoll(Counters counters, Blackhole blackhole) {
+        Integer event = linkedBlockingQueue.poll();
+        if (event != null) {
+            counters.consumed++;
+            blackhole.consume(event);
+        }
+    }
+
+    /**
+     * Only successful hand-offs are counted, so offers rejected by a full queue do not inflate the score.
+     */
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Counters {
+
+        public long offered;
+        public long consumed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            offered = 0;
+            consumed = 0;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(MpscRingBufferBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+package com.zuomagai.molamola.test.thread;
+
+import com.zuomagai.molamola.thread.MpscRingBuffer;
+import com.zuomagai.molamola.thread.YieldWaitStrategy;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class MpscRingBufferTest {
+
+    @Test
+    public void testOfferPollAndCapacity() {
+        MpscRingBuffer<String> buffer = new MpscRingBuffer<>(3);
+        Assert.assertEquals(4, buffer.capacity());
+        Assert.assertTrue(buffer.isEmpty());
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer("e" + i));
+        }
+        Assert.assertFalse(buffer.offer("overflow"));
+        Assert.assertEquals(4, buffer.size());
+        Assert.assertEquals("e0", buffer.poll());
+        Assert.assertTrue(buffer.offer("e4"));
+
+        List<String> drained = new ArrayList<>();
+        Assert.assertEquals(2, buffer.drain(drained::add, 2));
+        Assert.assertEquals(2, buffer.drain(drained::add, 10));
+        Assert.assertEquals(0, buffer.drain(drained::add, 10));
+        Assert.assertNull(buffer.poll());
+        Assert.assertEquals(4, drained.size());
+        Assert.assertEquals("e1", drained.get(0));
+        Assert.assertEquals("e4", drained.get(3));
+    }
+
+    @Test
+    public void testConcurrentProducersPreserveEachProducersOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 50000;
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(256, new YieldWaitStrategy(10));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        buffer.put(new long[]{producer, i});
+                    }
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+
+        long[] next = new long[producers];
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(20);
+        while (received < producers * perProducer) {
+            Assert.assertTrue(System.nanoTime() < deadline);
+            received += buffer.awaitDrain(event -> {
+                Assert.assertEquals(next[(int) event[0]], event[1]);
+                next[(int) event[0]]++;
+            }, 64);
+        }
+        for (Thread thread : threads) {
+            thread.join(5000);
+        }
+        for (int p = 0; p < producers; p++) {
+            Assert.assertEquals(perProducer, next[p]);
+        }
+        Assert.assertTrue(buffer.isEmpty());
+    }
+}
@@ -4,6 +4,10 @@ import com.zuomagai.molamola.thread.NamedThreadFactory;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
 public class NamedThreadFactoryTest {
 
     @Test
@@ -15,4 +19,68 @@ public class NamedThreadFactoryTest {
         Assert.assertTrue(thread.isDaemon());
         Assert.assertEquals(thread.getName(), "test-thread-0");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testPerFactoryCounters() throws Exception {
+        NamedThreadFactory first = new NamedThreadFactory("first-");
+        NamedThreadFactory second = new NamedThreadFactory("second-", false);
+        Assert.assertEquals("first-0", first.newThread(() -> { }).getName());
+        Assert.assertEquals("first-1", first.newThread(() -> { }).getName());
+        Thread thread = second.newThread(() -> { });
+        Assert.assertEquals("second-0", thread.getName());
+        Assert.assertFalse(thread.isDaemon());
+        Assert.assertEquals(2, first.getCreatedCount());
+        Assert.assertEquals(1, second.getLiveCount());
+
+        thread.start();
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        Assert.assertEquals(1, second.getCreatedCount());
+        Assert.assertEquals(0, second.getLiveCount());
+    }
+
+    @Test
+    public void testBuilder() throws Exception {
+        ThreadGroup group = new ThreadGroup("watchers");
+        CountDownLatch handled = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        NamedThreadFactory factory = NamedThreadFactory.builder("watcher-")
+                .daemon(true)
+                .priority(Thread.MIN_PRIORITY)
+                .stackSize(256 * 1024)
+                .threadGroup(group)
+                .uncaughtExceptionHandler((t, e) -> {
+                    error.set(e);
+                    handled.countDown();
+                })
+                .build();
+        Thread thread = factory.newThread(() -> {
+            throw new IllegalStateException("boom");
+        });
+        Assert.assertEquals("watcher-0", thread.getName());
+        Assert.assertEquals(Thread.MIN_PRIORITY, thread.getPriority());
+        Assert.assertSame(group, thread.getThreadGroup());
+
+        thread.start();
+        Assert.assertTrue(handled.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals("boom", error.get().getMessage());
+        Assert.assertEquals(1, factory.getUncaughtExceptionCount());
+        thread.join(TimeUnit.SECONDS.toMillis(5));
+        Assert.assertEquals(0, factory.getLiveCount());
+    }
+
+    @Test
+    public void testVirtualFallsBackToPlatformThreads() throws Exception {
+        NamedThreadFactory factory = NamedThreadFactory.builder("virtual-").virtual(true).build();
+        CountDownLatch ran = new CountDownLatch(1);
+        Thread thread = factory.newThread(ran::countDown);
+        Assert.assertEquals("virtual-0", thread.getName());
+        Assert.assertTrue(thread.isDaemon());
+        thread.start();
+        Assert.assertTrue(ran.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPriority() {
+        NamedThreadFactory.builder("invalid-").priority(Thread.MAX_PRIORITY + 1);
+    }
+}